@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+/**
+ * The OpenAL backend that a benchmark runs on, to tell the cost of this library apart from the cost of a driver.
+ * @author Matthew Tropiano
+ */
+public enum BenchmarkBackend
+{
+	/** LWJGL's bindings, on OpenAL Soft's null output. */
+	NATIVE,
+	/** {@link OALSoftwareBackend}. */
+	SOFTWARE;
+
+	/**
+	 * @return a new system on this backend.
+	 */
+	OALSystem createSystem()
+	{
+		return this == SOFTWARE ? new OALSystem(new OALSoftwareBackend()) : new OALSystem();
+	}
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.lwjgl.BufferUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Upload time of {@link OALBuffer#setData(ByteBuffer)} and {@link OALBuffer#setData(byte[])} by data size.
+ * Bandwidth is the size divided by the time per operation.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferUploadBenchmark
+{
+	@Param({"4096", "65536", "1048576", "16777216"})
+	private int size;
+
+	private OALSystem system;
+	private OALBuffer buffer;
+	private ByteBuffer directData;
+	private byte[] arrayData;
+
+	@Setup
+	public void setUp()
+	{
+		system = new OALSystem();
+		buffer = system.createDevice().createContext().createBuffer();
+		buffer.setFormat(OALBuffer.Format.STEREO16);
+		buffer.setSamplingRate(44100);
+		directData = BufferUtils.createByteBuffer(size);
+		arrayData = new byte[size];
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		system.shutDown();
+	}
+
+	@Benchmark
+	public void setDataDirect()
+	{
+		directData.clear();
+		buffer.setData(directData);
+	}
+
+	@Benchmark
+	public void setDataArray()
+	{
+		buffer.setData(arrayData);
+	}
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackrook.gloop.openal.OALSystem.ContextLock;
+
+/**
+ * Cost of acquiring and releasing the current context for a call ({@link OALObject#requestContext()}),
+ * per locking mode: no-op (one context), reentrant (more than one context), and thread-local contexts.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextLockBenchmark
+{
+	public enum LockMode
+	{
+		NO_OP,
+		REENTRANT,
+		THREAD_LOCAL;
+	}
+
+	@Param
+	private LockMode mode;
+
+	private OALSystem system;
+	private OALSource source;
+
+	@Setup
+	public void setUp()
+	{
+		system = new OALSystem(mode == LockMode.THREAD_LOCAL);
+		OALDevice device = system.createDevice();
+		OALContext context = device.createContext();
+		// a second context upgrades the process-wide lock.
+		if (mode == LockMode.REENTRANT)
+			device.createContext();
+		source = context.createSource();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		system.shutDown();
+	}
+
+	@Benchmark
+	public void requestContext()
+	{
+		try (ContextLock lock = source.requestContext())
+		{
+			// Nothing.
+		}
+	}
+
+	@Benchmark
+	public void requestContextInScope()
+	{
+		try (ContextLock scope = source.getContext().acquire(); ContextLock lock = source.requestContext())
+		{
+			// Nothing.
+		}
+	}
+
+}
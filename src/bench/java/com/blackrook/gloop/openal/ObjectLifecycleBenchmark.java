@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to generate and delete OpenAL objects, one at a time and in bulk (per object), on each backend.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectLifecycleBenchmark
+{
+	private static final int BULK = 64;
+
+	@Param
+	private BenchmarkBackend backend;
+
+	private OALSystem system;
+	private OALContext context;
+
+	@Setup
+	public void setUp()
+	{
+		system = backend.createSystem();
+		context = system.createDevice().createContext();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		system.shutDown();
+	}
+
+	@Benchmark
+	public void source()
+	{
+		context.createSource().destroy();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BULK)
+	public void sourcesBulk()
+	{
+		context.destroyObjects(context.createSources(BULK));
+	}
+
+	@Benchmark
+	public void buffer()
+	{
+		context.createBuffer().destroy();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BULK)
+	public void buffersBulk()
+	{
+		context.destroyObjects(context.createBuffers(BULK));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BULK)
+	public void effectSlotsBulk()
+	{
+		context.destroyObjects(context.createEffectSlots(BULK));
+	}
+
+}
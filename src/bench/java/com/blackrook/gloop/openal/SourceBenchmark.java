@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link OALSource} setters, for values that change (a call to OpenAL) 
+ * and values that don't (skipped), on each backend.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceBenchmark
+{
+	@Param
+	private BenchmarkBackend backend;
+
+	private OALSystem system;
+	private OALSource source;
+	private float gain;
+	private float x;
+
+	@Setup
+	public void setUp()
+	{
+		system = backend.createSystem();
+		source = system.createDevice().createContext().createSource();
+		gain = 0f;
+		x = 0f;
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		system.shutDown();
+	}
+
+	@Benchmark
+	public void setGainChanged()
+	{
+		source.setGain(gain = 1f - gain);
+	}
+
+	@Benchmark
+	public void setGainUnchanged()
+	{
+		source.setGain(0.5f);
+	}
+
+	@Benchmark
+	public void setPositionChanged()
+	{
+		source.setPosition(x += 0.001f, 0f, 0f);
+	}
+
+	@Benchmark
+	public void setPitchAndGainInBatch()
+	{
+		try (OALContext.Batch batch = source.getContext().beginBatch())
+		{
+			source.setPitch(1f + (gain = 1f - gain) * 0.1f);
+			source.setGain(gain);
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes 16-bit PCM sample data into IMA4 ADPCM blocks, laid out the way AL_EXT_IMA4 expects them
+ * (the same layout as IMA ADPCM in WAV files), at a quarter of the size.
+ * <p>Each block starts with a 4-byte header per channel (the first sample and the step index), followed by
+ * the rest of the block's samples as 4-bit codes, in 4-byte groups of 8 samples per channel, interleaved.
+ * The encoder predicts samples exactly the way OpenAL decodes them, so encoding errors do not accumulate.
+ * @author Matthew Tropiano
+ */
+public final class ImaAdpcmEncoder
+{
+	/** Default samples per block (per channel) in OpenAL. */
+	public static final int DEFAULT_BLOCK_ALIGNMENT = 65;
+
+	private static final int[] STEP_SIZE = {
+		7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 19, 21, 23, 25, 28, 31, 34, 37, 41, 45, 50, 55, 60, 66, 73, 80, 88, 97,
+		107, 118, 130, 143, 157, 173, 190, 209, 230, 253, 279, 307, 337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+		876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066, 2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871,
+		5358, 5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899, 15289, 16818, 18500, 20350, 22385, 24623,
+		27086, 29794, 32767
+	};
+
+	private static final int[] INDEX_ADJUST = {
+		-1, -1, -1, -1, 2, 4, 6, 8
+	};
+
+	private ImaAdpcmEncoder() {}
+
+	/**
+	 * Checks if a block alignment is valid for IMA4: a multiple of 8, plus 1.
+	 * @param samplesPerBlock the samples per block, per channel.
+	 * @return true if valid, false if not.
+	 */
+	public static boolean isValidBlockAlignment(int samplesPerBlock)
+	{
+		return samplesPerBlock > 1 && (samplesPerBlock & 7) == 1;
+	}
+
+	/**
+	 * Gets the size of one encoded block in bytes.
+	 * @param channels the amount of channels.
+	 * @param samplesPerBlock the samples per block, per channel.
+	 * @return the size in bytes.
+	 */
+	public static int getBlockSize(int channels, int samplesPerBlock)
+	{
+		return ((samplesPerBlock - 1) / 2 + 4) * channels;
+	}
+
+	/**
+	 * Gets the size of a set of samples once encoded.
+	 * The last block is padded with silence, if it is not full.
+	 * @param frames the amount of samples per channel.
+	 * @param channels the amount of channels.
+	 * @param samplesPerBlock the samples per block, per channel.
+	 * @return the size in bytes.
+	 */
+	public static int getEncodedSize(int frames, int channels, int samplesPerBlock)
+	{
+		return ((frames + samplesPerBlock - 1) / samplesPerBlock) * getBlockSize(channels, samplesPerBlock);
+	}
+
+	/**
+	 * Encodes 16-bit, native-order PCM data from the input buffer's position to its limit into the output buffer
+	 * at its position. Both buffers' positions are advanced.
+	 * <p>The output may share memory with the input, provided that the output position is not past the input position:
+	 * each block is read completely before it is written, and encoded blocks are never larger than the samples they encode.
+	 * @param in the PCM input.
+	 * @param out the encoded output.
+	 * @param channels the amount of interleaved channels in the input.
+	 * @param samplesPerBlock the samples per block, per channel.
+	 * @return the amount of bytes written.
+	 * @throws IllegalArgumentException if samplesPerBlock is not a valid block alignment,
+	 * 		or the input is not a whole amount of samples.
+	 * @throws java.nio.BufferOverflowException if the output buffer does not have room for the encoded data.
+	 */
+	public static int encode(ByteBuffer in, ByteBuffer out, int channels, int samplesPerBlock)
+	{
+		if (!isValidBlockAlignment(samplesPerBlock))
+			throw new IllegalArgumentException("IMA4 block alignment must be a multiple of 8, plus 1.");
+		if (in.remaining() % (channels * 2) != 0)
+			throw new IllegalArgumentException("Input data is not aligned to sample size.");
+
+		ByteOrder inOrder = in.order();
+		in.order(ByteOrder.nativeOrder());
+
+		int start = out.position();
+		int blockSamples = samplesPerBlock * channels;
+		short[] block = new short[blockSamples];
+		int[] index = new int[channels];
+		int[] predictor = new int[channels];
+
+		try
+		{
+			while (in.hasRemaining())
+			{
+				// read the whole block first - the output may overwrite it.
+				int n = Math.min(blockSamples, in.remaining() / 2);
+				for (int i = 0; i < n; i++)
+					block[i] = in.getShort();
+				for (int i = n; i < blockSamples; i++)
+					block[i] = 0;
+				encodeBlock(block, out, channels, samplesPerBlock, predictor, index);
+			}
+		}
+		finally
+		{
+			in.order(inOrder);
+		}
+
+		return out.position() - start;
+	}
+
+	// Encodes one block of interleaved samples. Each block resets the predictors to its first samples.
+	private static void encodeBlock(short[] block, ByteBuffer out, int channels, int samplesPerBlock, int[] predictor, int[] index)
+	{
+		for (int c = 0; c < channels; c++)
+		{
+			predictor[c] = block[c];
+			out.put((byte)(predictor[c] & 0x0ff));
+			out.put((byte)((predictor[c] >> 8) & 0x0ff));
+			out.put((byte)index[c]);
+			out.put((byte)0);
+		}
+
+		for (int s = 1; s < samplesPerBlock; s += 8)
+		{
+			for (int c = 0; c < channels; c++)
+			{
+				for (int b = 0; b < 4; b++)
+				{
+					int lo = encodeSample(block[(s + b * 2) * channels + c], predictor, index, c);
+					int hi = encodeSample(block[(s + b * 2 + 1) * channels + c], predictor, index, c);
+					out.put((byte)(lo | (hi << 4)));
+				}
+			}
+		}
+	}
+
+	// Picks the closest code for a sample and steps the decoder state the way OpenAL does.
+	private static int encodeSample(int sample, int[] predictor, int[] index, int channel)
+	{
+		int step = STEP_SIZE[index[channel]];
+		int diff = sample - predictor[channel];
+		int sign = diff < 0 ? 8 : 0;
+		int magnitude = Math.abs(diff);
+
+		// decoded difference is (2m + 1) * step / 8.
+		int m = Math.min(7, magnitude * 4 / step);
+		int best = 0;
+		int bestError = Integer.MAX_VALUE;
+		for (int i = Math.max(0, m - 1); i <= Math.min(7, m + 1); i++)
+		{
+			int error = Math.abs(magnitude - (2 * i + 1) * step / 8);
+			if (error < bestError)
+			{
+				best = i;
+				bestError = error;
+			}
+		}
+
+		int delta = (2 * best + 1) * step / 8;
+		predictor[channel] = Math.max(-32768, Math.min(32767, predictor[channel] + (sign != 0 ? -delta : delta)));
+		index[channel] = Math.max(0, Math.min(STEP_SIZE.length - 1, index[channel] + INDEX_ADJUST[best]));
+		return best | sign;
+	}
+
+}
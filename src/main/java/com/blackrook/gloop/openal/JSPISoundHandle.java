@@ -103,13 +103,35 @@ public class JSPISoundHandle
 	}
 
 	/**
+	 * Gets a decoder that decodes to 8 or 16-bit integer PCM data, which any context can play.
 	 * @return a {@link Decoder} that can decode this data into PCM data.
 	 * @throws IOException if a decoder could not be opened.
+	 * @see #getDecoder(OALContext)
 	 */
 	public Decoder getDecoder() throws IOException
+	{
+		return getDecoder(false);
+	}
+	
+	/**
+	 * Gets a decoder that decodes to PCM data that the provided context can play.
+	 * Float or higher-than-16-bit audio decodes to 32-bit float if the context supports a float format 
+	 * for its amount of channels, and to 16-bit if not.
+	 * @param context the context that the decoded data will be played on.
+	 * @return a {@link Decoder} that can decode this data into PCM data.
+	 * @throws IOException if a decoder could not be opened.
+	 */
+	public Decoder getDecoder(OALContext context) throws IOException
+	{
+		OALBuffer.Format floatFormat = OALBuffer.Format.get(audioFileFormat.getFormat().getChannels(), 32, true);
+		return getDecoder(floatFormat != null && floatFormat.isSupported(context));
+	}
+	
+	// Opens a decoder, decoding high-resolution audio to float if allowed.
+	private Decoder getDecoder(boolean allowFloat) throws IOException
 	{
 		try {
-			return new Decoder();
+			return new Decoder(allowFloat);
 		} catch (UnsupportedAudioFileException e) {
 			throw new IOException("Could not decode audio (should have been prechecked).");
 		}
@@ -167,16 +189,36 @@ public class JSPISoundHandle
 		/** Audio input stream to decode to. */
 		private AudioInputStream decodedAudioStream;
 		
-		Decoder() throws IOException, UnsupportedAudioFileException
+		Decoder(boolean allowFloat) throws IOException, UnsupportedAudioFileException
 		{
 			audioStream = startStream();
 			audioFormat = audioStream.getFormat();
+			
+			// 8 and 16-bit integer audio decode as-is. Float or higher-resolution integer audio 
+			// decode to 32-bit float so that no precision is lost, if allowed (needs AL_EXT_FLOAT32 or AL_EXT_MCFORMATS 
+			// on playback), or 16-bit if not. Compressed audio with no defined sample size decodes to 16-bit. 
+			// Channels are kept as-is.
+			int bits = audioFormat.getSampleSizeInBits();
+			AudioFormat.Encoding encoding;
+			if (allowFloat && (AudioFormat.Encoding.PCM_FLOAT.equals(audioFormat.getEncoding()) || bits > 16))
+			{
+				encoding = AudioFormat.Encoding.PCM_FLOAT;
+				bits = 32;
+			}
+			else if (bits == 8)
+				encoding = AudioFormat.Encoding.PCM_UNSIGNED;
+			else
+			{
+				encoding = AudioFormat.Encoding.PCM_SIGNED;
+				bits = 16;
+			}
+			
 			decodedAudioFormat = new AudioFormat(
-				audioFormat.getSampleSizeInBits() == 8 ? AudioFormat.Encoding.PCM_UNSIGNED : AudioFormat.Encoding.PCM_SIGNED, 
+				encoding, 
 				audioFormat.getSampleRate(), 
-				audioFormat.getSampleSizeInBits() != AudioSystem.NOT_SPECIFIED ? audioFormat.getSampleSizeInBits() : 16, 
+				bits, 
 				audioFormat.getChannels(),
-				audioFormat.getChannels() * 2,
+				audioFormat.getChannels() * (bits / 8),
 				audioFormat.getSampleRate(),
 				ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN
 			);
@@ -193,7 +235,7 @@ public class JSPISoundHandle
 		{
 			int i = 0;
 			int buf = 0;
-			int max = bb.remaining();
+			int max = wholeFrames(bb.remaining());
 			byte[] b = BUFFER.get();
 			if (b.length < max)
 			{
@@ -203,7 +245,7 @@ public class JSPISoundHandle
 			
 			while (i < max)
 			{
-				buf = decodedAudioStream.read(b, 0, b.length - i);
+				buf = decodedAudioStream.read(b, 0, max - i);
 				if (buf > 0)
 				{
 					i += buf;
@@ -226,10 +268,11 @@ public class JSPISoundHandle
 		{
 			int i = 0;
 			int buf = 0;
-			while (i != b.length)
+			int max = wholeFrames(b.length);
+			while (i < max)
 			{
-				buf = decodedAudioStream.read(b, i, b.length-i);
-				if (buf != -1)
+				buf = decodedAudioStream.read(b, i, max - i);
+				if (buf > 0)
 					i += buf;
 				else 
 					break;
@@ -238,6 +281,13 @@ public class JSPISoundHandle
 			return i;
 		}
 
+		// Streams only read whole frames - asking for less than one returns 0.
+		private int wholeFrames(int length)
+		{
+			int frameSize = decodedAudioFormat.getFrameSize();
+			return length - (length % frameSize);
+		}
+
 		/**
 		 * @return the audio format specs.
 		 * @see AudioFormat
@@ -0,0 +1,558 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.openal.ALCCapabilities;
+import org.lwjgl.openal.ALCapabilities;
+
+/**
+ * The set of OpenAL calls that this library makes. Every call to OpenAL made by devices, contexts, and objects
+ * goes through the backend of the {@link OALSystem} that created them (see {@link OALSystem#OALSystem(OALBackend, boolean)}).
+ * <p>The default backend calls LWJGL's OpenAL bindings, and needs a native OpenAL library.
+ * {@link OALSoftwareBackend} mixes in Java instead, and needs no native library or sound hardware.
+ * <p>Methods are named after the OpenAL functions that they stand in for, and behave like them:
+ * "al" calls act on the calling thread's current context, and errors are raised in OpenAL's error state, not thrown.
+ * @author Matthew Tropiano
+ */
+public interface OALBackend
+{
+	/**
+	 * A handle to a callback registered with a backend, freed once the backend no longer calls it.
+	 */
+	@FunctionalInterface
+	interface CallbackHandle
+	{
+		/**
+		 * Frees this callback. Called after it is unregistered or replaced in OpenAL.
+		 */
+		void free();
+	}
+
+	/**
+	 * A receiver of source events (AL_SOFT_events).
+	 * Called on the backend's event thread, so it must not call OpenAL or throw.
+	 */
+	@FunctionalInterface
+	interface EventHandler
+	{
+		/**
+		 * Called when an event happens.
+		 * @param type the event type.
+		 * @param object the OpenAL name of the object that the event is about.
+		 * @param param the event parameter (for example, the new state of a source).
+		 */
+		void handleEvent(int type, int object, int param);
+	}
+
+	// ======================= Devices =======================
+
+	/**
+	 * @param name the name of the device (<code>null</code> for default).
+	 * @return the device handle, or 0 if it could not be opened.
+	 */
+	long alcOpenDevice(String name);
+
+	/**
+	 * @param device the device handle.
+	 * @return true if closed, false if not.
+	 */
+	boolean alcCloseDevice(long device);
+
+	/**
+	 * Creates the LWJGL capabilities of a device, for bindings that have them.
+	 * @param device the device handle.
+	 * @return the capabilities, or null if this backend has none.
+	 */
+	ALCCapabilities alcCreateCapabilities(long device);
+
+	/**
+	 * @param device the device handle, or 0 for extensions that need no device.
+	 * @param extension the extension name.
+	 * @return true if present, false if not.
+	 */
+	boolean alcIsExtensionPresent(long device, String extension);
+
+	/**
+	 * @param device the device handle.
+	 * @param param the integer parameter.
+	 * @return the value.
+	 */
+	int alcGetInteger(long device, int param);
+
+	/**
+	 * @param device the device handle.
+	 * @return the device's error code, which is then cleared.
+	 */
+	int alcGetError(long device);
+
+	/**
+	 * @param device the device handle.
+	 * @param param the string parameter or error code.
+	 * @return the string.
+	 */
+	String alcGetString(long device, int param);
+
+	/**
+	 * @param device the device handle.
+	 * @param name the name of the output to move to (<code>null</code> for default).
+	 * @param attributes the zero-terminated attribute list, or null.
+	 * @return true if reopened, false if not.
+	 */
+	boolean alcReopenDeviceSOFT(long device, String name, int[] attributes);
+
+	/**
+	 * @return the handle of a new loopback device, or 0 if it could not be opened.
+	 */
+	long alcLoopbackOpenDeviceSOFT();
+
+	/**
+	 * @param device the loopback device handle.
+	 * @param frequency the output sampling rate.
+	 * @param channels the output channel layout.
+	 * @param type the output sample type.
+	 * @return true if the format can be rendered, false if not.
+	 */
+	boolean alcIsRenderFormatSupportedSOFT(long device, int frequency, int channels, int type);
+
+	/**
+	 * Renders sample frames into a buffer, starting at its position. The position is not changed.
+	 * @param device the loopback device handle.
+	 * @param buffer the (direct) output buffer.
+	 * @param frames the amount of frames.
+	 */
+	void alcRenderSamplesSOFT(long device, ByteBuffer buffer, int frames);
+
+	/**
+	 * @param name the name of the capture device (<code>null</code> for default).
+	 * @param frequency the sampling rate.
+	 * @param format the sample format.
+	 * @param bufferFrames the size of the device's buffer in sample frames.
+	 * @return the capture device handle, or 0 if it could not be opened.
+	 */
+	long alcCaptureOpenDevice(String name, int frequency, int format, int bufferFrames);
+
+	/**
+	 * @param device the capture device handle.
+	 * @return true if closed, false if not.
+	 */
+	boolean alcCaptureCloseDevice(long device);
+
+	/**
+	 * @param device the capture device handle.
+	 */
+	void alcCaptureStart(long device);
+
+	/**
+	 * @param device the capture device handle.
+	 */
+	void alcCaptureStop(long device);
+
+	/**
+	 * Moves captured sample frames into a buffer, starting at its position. The position is not changed.
+	 * @param device the capture device handle.
+	 * @param buffer the (direct) output buffer.
+	 * @param frames the amount of frames.
+	 */
+	void alcCaptureSamples(long device, ByteBuffer buffer, int frames);
+
+	// ======================= Contexts =======================
+
+	/**
+	 * @param device the device handle.
+	 * @param attributes the zero-terminated attribute list, or null.
+	 * @return the context handle, or 0 if it could not be created.
+	 */
+	long alcCreateContext(long device, int[] attributes);
+
+	/**
+	 * Creates the LWJGL capabilities of the current context, for bindings that have them.
+	 * @param deviceCapabilities the capabilities of the context's device.
+	 * @return the capabilities, or null if this backend has none.
+	 */
+	ALCapabilities alCreateCapabilities(ALCCapabilities deviceCapabilities);
+
+	/**
+	 * @param context the context handle.
+	 */
+	void alcDestroyContext(long context);
+
+	/**
+	 * Makes a context current process-wide.
+	 * @param context the context handle, or 0 for none.
+	 * @return true if successful, false if not.
+	 */
+	boolean alcMakeContextCurrent(long context);
+
+	/**
+	 * Makes a context current on the calling thread (ALC_EXT_thread_local_context).
+	 * @param context the context handle, or 0 for none.
+	 * @param capabilities the context's capabilities, or null if not created yet.
+	 * @return true if successful, false if not.
+	 */
+	boolean alcSetThreadContext(long context, ALCapabilities capabilities);
+
+	/**
+	 * @param context the context handle.
+	 */
+	void alcSuspendContext(long context);
+
+	/**
+	 * @param context the context handle.
+	 */
+	void alcProcessContext(long context);
+
+	/**
+	 * @return the current context's error code, which is then cleared.
+	 */
+	int alGetError();
+
+	/**
+	 * @param param the string parameter or error code.
+	 * @return the string.
+	 */
+	String alGetString(int param);
+
+	/**
+	 * @param param the float parameter.
+	 * @return the value.
+	 */
+	float alGetFloat(int param);
+
+	/**
+	 * @param value the new Doppler factor.
+	 */
+	void alDopplerFactor(float value);
+
+	/**
+	 * @param value the new Doppler velocity.
+	 */
+	void alDopplerVelocity(float value);
+
+	/**
+	 * @param model the new distance model.
+	 */
+	void alDistanceModel(int model);
+
+	/**
+	 * Starts deferring property changes (AL_SOFT_deferred_updates).
+	 */
+	void alDeferUpdatesSOFT();
+
+	/**
+	 * Applies deferred property changes (AL_SOFT_deferred_updates).
+	 */
+	void alProcessUpdatesSOFT();
+
+	/**
+	 * Sets or removes the current context's event handler (AL_SOFT_events).
+	 * @param handler the handler, or null to remove it.
+	 * @return a handle to free once the handler is removed or replaced, or null if handler is null.
+	 */
+	CallbackHandle alEventCallbackSOFT(EventHandler handler);
+
+	/**
+	 * @param types the event types.
+	 * @param enable true to report them, false to not.
+	 */
+	void alEventControlSOFT(int[] types, boolean enable);
+
+	// ======================= Listener =======================
+
+	/**
+	 * @param param the listener parameter.
+	 * @param value the value.
+	 */
+	void alListenerf(int param, float value);
+
+	/**
+	 * @param param the listener parameter.
+	 * @param values the values.
+	 */
+	void alListenerfv(int param, float[] values);
+
+	// ======================= Sources =======================
+
+	/**
+	 * @return a new source name.
+	 */
+	int alGenSources();
+
+	/**
+	 * @param names the output array for new source names.
+	 */
+	void alGenSources(int[] names);
+
+	/**
+	 * @param name the source name.
+	 */
+	void alDeleteSources(int name);
+
+	/**
+	 * @param names the source names.
+	 */
+	void alDeleteSources(int[] names);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alSourcef(int source, int param, float value);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alSourcei(int source, int param, int value);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @param value1 the first value.
+	 * @param value2 the second value.
+	 * @param value3 the third value.
+	 */
+	void alSource3i(int source, int param, int value1, int value2, int value3);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @param values the values.
+	 */
+	void alSourcefv(int source, int param, float[] values);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @return the value.
+	 */
+	float alGetSourcef(int source, int param);
+
+	/**
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @return the value.
+	 */
+	int alGetSourcei(int source, int param);
+
+	/**
+	 * Gets double-precision source values (AL_SOFT_source_latency).
+	 * @param source the source name.
+	 * @param param the parameter.
+	 * @param values the output array.
+	 */
+	void alGetSourcedvSOFT(int source, int param, double[] values);
+
+	/**
+	 * @param source the source name.
+	 */
+	void alSourcePlay(int source);
+
+	/**
+	 * @param source the source name.
+	 */
+	void alSourcePause(int source);
+
+	/**
+	 * @param source the source name.
+	 */
+	void alSourceStop(int source);
+
+	/**
+	 * @param source the source name.
+	 */
+	void alSourceRewind(int source);
+
+	/**
+	 * @param sources the source names, from position to limit.
+	 */
+	void alSourcePlayv(IntBuffer sources);
+
+	/**
+	 * @param sources the source names, from position to limit.
+	 */
+	void alSourcePausev(IntBuffer sources);
+
+	/**
+	 * @param sources the source names, from position to limit.
+	 */
+	void alSourceStopv(IntBuffer sources);
+
+	/**
+	 * @param sources the source names, from position to limit.
+	 */
+	void alSourceRewindv(IntBuffer sources);
+
+	/**
+	 * @param source the source name.
+	 * @param buffer the buffer name to add to the source's queue.
+	 */
+	void alSourceQueueBuffers(int source, int buffer);
+
+	/**
+	 * @param source the source name.
+	 * @return the name of the processed buffer removed from the source's queue.
+	 */
+	int alSourceUnqueueBuffers(int source);
+
+	// ======================= Buffers =======================
+
+	/**
+	 * @return a new buffer name.
+	 */
+	int alGenBuffers();
+
+	/**
+	 * @param names the output array for new buffer names.
+	 */
+	void alGenBuffers(int[] names);
+
+	/**
+	 * @param name the buffer name.
+	 */
+	void alDeleteBuffers(int name);
+
+	/**
+	 * @param names the buffer names.
+	 */
+	void alDeleteBuffers(int[] names);
+
+	/**
+	 * @param buffer the buffer name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alBufferi(int buffer, int param, int value);
+
+	/**
+	 * @param buffer the buffer name.
+	 * @param format the sample format.
+	 * @param data the sample data, from position to limit.
+	 * @param frequency the sampling rate.
+	 */
+	void alBufferData(int buffer, int format, ByteBuffer data, int frequency);
+
+	/**
+	 * Puts a buffer into callback mode (AL_SOFT_callback_buffer).
+	 * @param buffer the buffer name.
+	 * @param format the sample format.
+	 * @param frequency the sampling rate.
+	 * @param provider the sample provider, called on the mixer thread.
+	 * @return a handle to free once the buffer no longer uses the callback.
+	 */
+	CallbackHandle alBufferCallbackSOFT(int buffer, int format, int frequency, PcmProvider provider);
+
+	// ======================= Effects (EFX) =======================
+
+	/**
+	 * @return a new effect name.
+	 */
+	int alGenEffects();
+
+	/**
+	 * @param names the output array for new effect names.
+	 */
+	void alGenEffects(int[] names);
+
+	/**
+	 * @param name the effect name.
+	 */
+	void alDeleteEffects(int name);
+
+	/**
+	 * @param names the effect names.
+	 */
+	void alDeleteEffects(int[] names);
+
+	/**
+	 * @param effect the effect name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alEffecti(int effect, int param, int value);
+
+	/**
+	 * @param effect the effect name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alEffectf(int effect, int param, float value);
+
+	/**
+	 * @return a new filter name.
+	 */
+	int alGenFilters();
+
+	/**
+	 * @param names the output array for new filter names.
+	 */
+	void alGenFilters(int[] names);
+
+	/**
+	 * @param name the filter name.
+	 */
+	void alDeleteFilters(int name);
+
+	/**
+	 * @param names the filter names.
+	 */
+	void alDeleteFilters(int[] names);
+
+	/**
+	 * @param filter the filter name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alFilteri(int filter, int param, int value);
+
+	/**
+	 * @param filter the filter name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alFilterf(int filter, int param, float value);
+
+	/**
+	 * @return a new auxiliary effect slot name.
+	 */
+	int alGenAuxiliaryEffectSlots();
+
+	/**
+	 * @param names the output array for new auxiliary effect slot names.
+	 */
+	void alGenAuxiliaryEffectSlots(int[] names);
+
+	/**
+	 * @param name the auxiliary effect slot name.
+	 */
+	void alDeleteAuxiliaryEffectSlots(int name);
+
+	/**
+	 * @param names the auxiliary effect slot names.
+	 */
+	void alDeleteAuxiliaryEffectSlots(int[] names);
+
+	/**
+	 * @param slot the auxiliary effect slot name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alAuxiliaryEffectSloti(int slot, int param, int value);
+
+	/**
+	 * @param slot the auxiliary effect slot name.
+	 * @param param the parameter.
+	 * @param value the value.
+	 */
+	void alAuxiliaryEffectSlotf(int slot, int param, float value);
+
+}
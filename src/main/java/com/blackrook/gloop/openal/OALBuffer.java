@@ -7,14 +7,17 @@
  ******************************************************************************/
 package com.blackrook.gloop.openal;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import javax.sound.sampled.AudioFormat;
 
 import org.lwjgl.openal.AL11;
-import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.openal.EXTFloat32;
+import org.lwjgl.openal.EXTIma4;
+import org.lwjgl.openal.EXTMCFormats;
+import org.lwjgl.openal.SOFTBlockAlignment;
+import org.lwjgl.openal.SOFTMSADPCM;
 
 import com.blackrook.gloop.openal.JSPISoundHandle.Decoder;
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
@@ -39,6 +42,10 @@ public final class OALBuffer extends OALObject
 	
 	/**
 	 * Sound format enumeration.
+	 * Formats that need an extension list it in {@link #extension}, 
+	 * and can only be set on buffers whose context supports it.
+	 * <p>Compressed (ADPCM) formats store samples in blocks, and their data must be a whole amount of blocks.
+	 * The size of a block depends on the amount of samples in it (see {@link OALBuffer#setBlockAlignment(int)}).
 	 */
 	public enum Format
 	{
@@ -46,6 +53,27 @@ public final class OALBuffer extends OALObject
 		MONO16(AL11.AL_FORMAT_MONO16, 16, 1),
 		STEREO8(AL11.AL_FORMAT_STEREO8, 8, 2),
 		STEREO16(AL11.AL_FORMAT_STEREO16, 16, 2),
+		
+		MONO_FLOAT32(EXTFloat32.AL_FORMAT_MONO_FLOAT32, 32, 1, true, "AL_EXT_FLOAT32"),
+		STEREO_FLOAT32(EXTFloat32.AL_FORMAT_STEREO_FLOAT32, 32, 2, true, "AL_EXT_FLOAT32"),
+		
+		QUAD8(EXTMCFormats.AL_FORMAT_QUAD8, 8, 4, false, "AL_EXT_MCFORMATS"),
+		QUAD16(EXTMCFormats.AL_FORMAT_QUAD16, 16, 4, false, "AL_EXT_MCFORMATS"),
+		QUAD_FLOAT32(EXTMCFormats.AL_FORMAT_QUAD32, 32, 4, true, "AL_EXT_MCFORMATS"),
+		SURROUND51_8(EXTMCFormats.AL_FORMAT_51CHN8, 8, 6, false, "AL_EXT_MCFORMATS"),
+		SURROUND51_16(EXTMCFormats.AL_FORMAT_51CHN16, 16, 6, false, "AL_EXT_MCFORMATS"),
+		SURROUND51_FLOAT32(EXTMCFormats.AL_FORMAT_51CHN32, 32, 6, true, "AL_EXT_MCFORMATS"),
+		SURROUND61_8(EXTMCFormats.AL_FORMAT_61CHN8, 8, 7, false, "AL_EXT_MCFORMATS"),
+		SURROUND61_16(EXTMCFormats.AL_FORMAT_61CHN16, 16, 7, false, "AL_EXT_MCFORMATS"),
+		SURROUND61_FLOAT32(EXTMCFormats.AL_FORMAT_61CHN32, 32, 7, true, "AL_EXT_MCFORMATS"),
+		SURROUND71_8(EXTMCFormats.AL_FORMAT_71CHN8, 8, 8, false, "AL_EXT_MCFORMATS"),
+		SURROUND71_16(EXTMCFormats.AL_FORMAT_71CHN16, 16, 8, false, "AL_EXT_MCFORMATS"),
+		SURROUND71_FLOAT32(EXTMCFormats.AL_FORMAT_71CHN32, 32, 8, true, "AL_EXT_MCFORMATS"),
+		
+		MONO_IMA4(EXTIma4.AL_FORMAT_MONO_IMA4, 1, "IMA4", ImaAdpcmEncoder.DEFAULT_BLOCK_ALIGNMENT, "AL_EXT_IMA4"),
+		STEREO_IMA4(EXTIma4.AL_FORMAT_STEREO_IMA4, 2, "IMA4", ImaAdpcmEncoder.DEFAULT_BLOCK_ALIGNMENT, "AL_EXT_IMA4"),
+		MONO_MSADPCM(SOFTMSADPCM.AL_FORMAT_MONO_MSADPCM_SOFT, 1, "MS-ADPCM", 64, "AL_SOFT_MSADPCM"),
+		STEREO_MSADPCM(SOFTMSADPCM.AL_FORMAT_STEREO_MSADPCM_SOFT, 2, "MS-ADPCM", 64, "AL_SOFT_MSADPCM"),
 		;
 		
 		public final int alVal;
@@ -53,14 +81,100 @@ public final class OALBuffer extends OALObject
 		public final int bits;
 		/** Number of channels. */
 		public final int channels;
+		/** Are the samples floating-point? */
+		public final boolean floatingPoint;
+		/** The extension required for this format, or null if none. */
+		public final String extension;
+		/** The compression scheme name, or null if uncompressed. */
+		public final String compression;
+		/** Default samples per block, per channel (1 if uncompressed). */
+		public final int blockAlignment;
+		
+		/** All values. */
+		private static final Format[] VALUES = values();
 		
 		private Format(int val, int bits, int channels) 
-		{alVal = val; this.bits = bits; this.channels = channels;}
+		{this(val, bits, channels, false, null);}
 
+		private Format(int val, int bits, int channels, boolean floatingPoint, String extension) 
+		{alVal = val; this.bits = bits; this.channels = channels; this.floatingPoint = floatingPoint; this.extension = extension; this.compression = null; this.blockAlignment = 1;}
+
+		private Format(int val, int channels, String compression, int blockAlignment, String extension) 
+		{alVal = val; this.bits = 4; this.channels = channels; this.floatingPoint = false; this.extension = extension; this.compression = compression; this.blockAlignment = blockAlignment;}
+
+		/**
+		 * @return true if this is a compressed (ADPCM) format, false if not.
+		 */
+		public boolean isCompressed()
+		{
+			return compression != null;
+		}
+		
+		/**
+		 * Checks if a block alignment can be used with this format.
+		 * @param samplesPerBlock the samples per block, per channel, or 0 for the default.
+		 * @return true if valid, false if not.
+		 */
+		public boolean isValidBlockAlignment(int samplesPerBlock)
+		{
+			if (samplesPerBlock == 0 || samplesPerBlock == blockAlignment)
+				return true;
+			else if (this == MONO_IMA4 || this == STEREO_IMA4)
+				return ImaAdpcmEncoder.isValidBlockAlignment(samplesPerBlock);
+			else if (this == MONO_MSADPCM || this == STEREO_MSADPCM)
+				return samplesPerBlock > 2 && (samplesPerBlock & 1) == 0;
+			else
+				return false;
+		}
+		
+		/**
+		 * Gets the size of one block of data in this format.
+		 * For uncompressed formats, this is the size of one sample on all channels.
+		 * @param samplesPerBlock the samples per block, per channel, or 0 for the default.
+		 * @return the size in bytes.
+		 */
+		public int getBlockSize(int samplesPerBlock)
+		{
+			if (samplesPerBlock == 0)
+				samplesPerBlock = blockAlignment;
+			
+			if (this == MONO_IMA4 || this == STEREO_IMA4)
+				return ImaAdpcmEncoder.getBlockSize(channels, samplesPerBlock);
+			else if (this == MONO_MSADPCM || this == STEREO_MSADPCM)
+				return ((samplesPerBlock - 2) / 2 + 7) * channels;
+			else
+				return (bits >> 3) * channels * samplesPerBlock;
+		}
+
+		/**
+		 * Checks if this format can be used with a context.
+		 * @param context the context.
+		 * @return true if this format needs no extension, or the context has the extension it needs.
+		 */
+		public boolean isSupported(OALContext context)
+		{
+			return extension == null || context.extensionIsPresent(extension);
+		}
+		
+		/**
+		 * Gets the uncompressed format for a set of channels and bits per sample.
+		 * @param channels the amount of channels.
+		 * @param bits the bits per sample.
+		 * @param floatingPoint true if floating-point samples, false if integer.
+		 * @return the corresponding format, or null if none.
+		 */
+		public static Format get(int channels, int bits, boolean floatingPoint)
+		{
+			for (Format format : VALUES)
+				if (format.channels == channels && format.bits == bits && format.floatingPoint == floatingPoint && format.compression == null)
+					return format;
+			return null;
+		}
+		
 		@Override
 		public String toString()
 		{
-			return bits + "-bit, " + channels + " ch.";
+			return (compression != null ? compression : bits + "-bit" + (floatingPoint ? " float" : "")) + ", " + channels + " ch.";
 		}
 	}
 
@@ -70,6 +184,13 @@ public final class OALBuffer extends OALObject
 	protected Format bufferFormat;
 	/** Sound sampling rate. */
 	protected int bufferRate;
+	/** Samples per block for compressed formats (0 is the format's default). */
+	private int blockAlignment;
+	/** The unpack block alignment last set in OpenAL. */
+	private int unpackAlignment;
+	
+	/** The callback for callback mode, if any. */
+	private OALBackend.CallbackHandle callback;
 
 	OALBuffer(OALContext context)
 	{
@@ -77,6 +198,9 @@ public final class OALBuffer extends OALObject
 		this.bufferSize = 0;
 		this.bufferFormat = Format.MONO8;
 		this.bufferRate = SAMPLING_RATE_11KHZ;
+		this.blockAlignment = 0;
+		this.unpackAlignment = 0;
+		this.callback = null;
 	}
 
 	/**
@@ -85,10 +209,22 @@ public final class OALBuffer extends OALObject
 	 * @throws IOException if a handle Decoder cannot be opened. 
 	 */
 	OALBuffer(OALContext context, JSPISoundHandle handle) throws IOException
+	{
+		this(context, handle, -1);
+	}
+	
+	/**
+	 * Constructs a new sound buffer with an entire buffer filled with data, decoded,
+	 * and compressed to IMA4 if it is large enough.
+	 * @param handle the data to use.
+	 * @param compressThreshold the size in bytes of decoded data above which it is compressed, or less than 0 for never.
+	 * @throws IOException if a handle Decoder cannot be opened. 
+	 */
+	OALBuffer(OALContext context, JSPISoundHandle handle, int compressThreshold) throws IOException
 	{
 		this(context);
-		Decoder decoder = handle.getDecoder();
-		loadFromDecoder(decoder);
+		Decoder decoder = handle.getDecoder(context);
+		loadFromDecoder(decoder, compressThreshold);
 		IOUtils.close(decoder);
 	}
 	
@@ -99,29 +235,70 @@ public final class OALBuffer extends OALObject
 	 */
 	OALBuffer(OALContext context, JSPISoundHandle.Decoder decoder) throws IOException
 	{
-		super(context);
-		loadFromDecoder(decoder);
+		this(context);
+		loadFromDecoder(decoder, -1);
 	}
 
-	private void loadFromDecoder(JSPISoundHandle.Decoder decoder) throws IOException
+	private void loadFromDecoder(JSPISoundHandle.Decoder decoder, int compressThreshold) throws IOException
 	{
 		setFrequencyAndFormat(decoder.getDecodedAudioFormat());
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		// decode straight into staging memory - no intermediate heap copies.
+		OALStagingArena arena = OALStagingArena.get();
 		byte[] by = BYTEBUFFER.get();
-		int amt;
-		while ((amt = decoder.readPCMBytes(by)) > 0)
-			bos.write(by, 0, amt);
-		setData(bos.toByteArray());
+		ByteBuffer buf = arena.acquire(by.length);
+		try
+		{
+			int amt;
+			while ((amt = decoder.readPCMBytes(by)) > 0)
+			{
+				if (buf.remaining() < amt)
+					buf = arena.expand(Math.max(buf.capacity() * 2, buf.position() + amt));
+				buf.put(by, 0, amt);
+			}
+			buf.flip();
+			if (compressThreshold >= 0 && buf.remaining() > compressThreshold && canCompress(buf.remaining()))
+				setCompressedData(buf);
+			else
+				setData(buf);
+		}
+		finally
+		{
+			arena.release();
+		}
+	}
+	
+	// Can the data be IMA4-encoded in place? 16-bit, mono or stereo, and at least one block long.
+	private boolean canCompress(int length)
+	{
+		Format compressed = bufferFormat == Format.MONO16 ? Format.MONO_IMA4 : (bufferFormat == Format.STEREO16 ? Format.STEREO_IMA4 : null);
+		return compressed != null 
+			&& compressed.isSupported(getContext()) 
+			&& blockAlignment == 0
+			&& length >= bufferFormat.getBlockSize(ImaAdpcmEncoder.DEFAULT_BLOCK_ALIGNMENT);
+	}
+	
+	// Encodes 16-bit data in place to IMA4 and loads it. The data's contents are overwritten.
+	private void setCompressedData(ByteBuffer data)
+	{
+		int channels = bufferFormat.channels;
+		ByteBuffer out = data.duplicate();
+		out.limit(out.capacity());
+		ImaAdpcmEncoder.encode(data, out, channels, ImaAdpcmEncoder.DEFAULT_BLOCK_ALIGNMENT);
+		out.flip();
+		setFormat(channels == 1 ? Format.MONO_IMA4 : Format.STEREO_IMA4);
+		setData(out);
 	}
 	
 	/**
 	 * Sets the audio frequency and format of this buffer using an {@link AudioFormat} info object.
 	 * @param format the JavaX sound format data to pull from.
+	 * @throws IllegalArgumentException if the combination of channels and bits create an unsupported format.
+	 * @throws SoundException if the format needs an extension that this buffer's context does not support.
 	 */
 	public void setFrequencyAndFormat(AudioFormat format)
 	{
 		setSamplingRate((int)format.getSampleRate());
-		setFormatByChannelsAndBits(format.getChannels(), format.getSampleSizeInBits());
+		setFormatByChannelsAndBits(format.getChannels(), format.getSampleSizeInBits(), AudioFormat.Encoding.PCM_FLOAT.equals(format.getEncoding()));
 	}
 	
 	@Override
@@ -131,7 +308,7 @@ public final class OALBuffer extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			out = AL11.alGenBuffers();
+			out = getBackend().alGenBuffers();
 			errorCheck();
 		}
 		return out;
@@ -142,8 +319,84 @@ public final class OALBuffer extends OALObject
 	{
 		try (ContextLock lock = requestContext()) 
 		{
-			AL11.alDeleteBuffers(getName());
-			errorCheck();
+			if (callback == null)
+			{
+				getBackend().alDeleteBuffers(getName());
+				errorCheck();
+				return;
+			}
+			
+			// the mixer may still call the callback unless the buffer is provably deleted.
+			getContext().flushErrorState(getClass());
+			getBackend().alDeleteBuffers(getName());
+			int error = getContext().takeErrorState();
+			getContext().reportErrorState(error, getClass());
+			if (error != AL11.AL_NO_ERROR)
+				callback = null; // not freed - OpenAL still has it.
+		}
+	}
+
+	@Override
+	void deleted()
+	{
+		releaseCallback();
+	}
+	
+	/**
+	 * Puts this buffer into callback mode: instead of holding sample data, the buffer asks the provider
+	 * for more samples whenever OpenAL's mixer needs them (AL_SOFT_callback_buffer). The buffer's current format
+	 * and sampling rate are used, so set those first.
+	 * <p>A callback buffer is bound to a Source with {@link OALSource#setBuffer(OALBuffer)}, not queued,
+	 * and it can only be bound to one Source at a time. Setting data on this buffer again takes it out of callback mode.
+	 * <p>The provider is called on the mixer thread. The view of the mixer's memory is reused between calls,
+	 * so no allocation happens on that thread once playback is underway.
+	 * @param provider the sample provider.
+	 * @throws SoundException if the context does not support callback buffers, or the callback could not be set.
+	 * @see OALContext#isCallbackBufferSupported()
+	 */
+	public synchronized void setCallback(PcmProvider provider)
+	{
+		if (!getContext().isCallbackBufferSupported())
+			throw new SoundException("Callback buffers (AL_SOFT_callback_buffer) are not supported by this context.");
+		
+		OALBackend.CallbackHandle previous = callback;
+		try (ContextLock lock = requestContext()) 
+		{
+			// checked whatever the error policy: freeing a callback that OpenAL still has crashes its mixer.
+			getContext().flushErrorState(getClass());
+			OALBackend.CallbackHandle installed = getBackend().alBufferCallbackSOFT(getName(), bufferFormat.alVal, bufferRate, provider);
+			int error = getContext().takeErrorState();
+			if (error == AL11.AL_NO_ERROR)
+			{
+				callback = installed;
+				if (previous != null && previous != installed)
+					previous.free();
+				bufferSize = 0;
+			}
+			// OpenAL still has the old callback - keep it, and drop the one that wasn't installed.
+			else if (installed != null && installed != previous)
+			{
+				installed.free();
+			}
+			getContext().reportErrorState(error, getClass());
+		}
+	}
+	
+	/**
+	 * @return true if this buffer is in callback mode, false if not.
+	 */
+	public boolean isCallback()
+	{
+		return callback != null;
+	}
+	
+	// Frees the callback, if any.
+	private void releaseCallback()
+	{
+		if (callback != null)
+		{
+			callback.free();
+			callback = null;
 		}
 	}
 
@@ -159,7 +412,8 @@ public final class OALBuffer extends OALObject
 	
 	/**
 	 * Loads this buffer with sample data from an array of bytes.
-	 * This is intended for pure convenience, and its use is discouraged if performance is desired.
+	 * The data is copied through the calling thread's {@link OALStagingArena}, so 
+	 * repeated uploads do not allocate native memory each time.
 	 * @param data the data to load into it.
 	 * @param offset the offset into the array to use.
 	 * @param length the amount of bytes to load.
@@ -167,39 +421,66 @@ public final class OALBuffer extends OALObject
 	 */
 	public synchronized void setData(byte[] data, int offset, int length)
 	{
-		ByteBuffer buf = null;
+		OALStagingArena arena = OALStagingArena.get();
+		ByteBuffer buf = arena.acquire(length);
 		try
 		{
-			buf = MemoryUtil.memAlloc(length);
 			buf.put(data, offset, length);
 			buf.flip();
 			setData(buf);
 		}
 		finally 
 		{
-			MemoryUtil.memFree(buf);
+			arena.release();
 		}
 	}
 
 	/**
 	 * Loads this buffer with sample data.
 	 * The data is loaded from the source byte buffer's current position to its current limit.
+	 * Data in a compressed format must be a whole amount of blocks (see {@link #setBlockAlignment(int)}).
 	 * @param data the data to load into it.
+	 * @throws SoundException if the data is not a whole amount of samples or blocks, or the block alignment is not valid for the format.
 	 */
 	public synchronized void setData(ByteBuffer data)
 	{
 		int len = data.remaining();
 		
+		// uncompressed formats ignore the set alignment.
+		int alignment = bufferFormat.isCompressed() ? blockAlignment : 0;
+		if (!bufferFormat.isValidBlockAlignment(alignment))
+			throw new SoundException("Block alignment " + alignment + " is not valid for format " + bufferFormat.name() + ".");
+
 		// slightly more courteous error message for a specific condition.
-		int width = (bufferFormat.bits >> 3) * bufferFormat.channels;
+		int width = bufferFormat.getBlockSize(alignment);
 		if (len % width != 0)
-			throw new SoundException("Input data is not aligned to sample size - len: " + len + " width: " + width);
+			throw new SoundException("Input data is not aligned to " + (bufferFormat.isCompressed() ? "block" : "sample") + " size - len: " + len + " width: " + width);
 
 		try (ContextLock lock = requestContext()) 
 		{
-			clearError();
-			AL11.alBufferData(getName(), bufferFormat.alVal, data, bufferRate);
-			errorCheck();
+			// replacing a callback is checked whatever the error policy: it may only be freed if OpenAL dropped it.
+			boolean replacesCallback = callback != null;
+			if (replacesCallback)
+				getContext().flushErrorState(getClass());
+			else
+				clearError();
+			if (alignment != unpackAlignment)
+			{
+				getBackend().alBufferi(getName(), SOFTBlockAlignment.AL_UNPACK_BLOCK_ALIGNMENT_SOFT, alignment);
+				unpackAlignment = alignment;
+			}
+			getBackend().alBufferData(getName(), bufferFormat.alVal, data, bufferRate);
+			if (replacesCallback)
+			{
+				int error = getContext().takeErrorState();
+				if (error == AL11.AL_NO_ERROR)
+					releaseCallback();
+				getContext().reportErrorState(error, getClass());
+			}
+			else
+			{
+				errorCheck();
+			}
 		}
 		bufferSize = len;
 	}
@@ -215,10 +496,12 @@ public final class OALBuffer extends OALObject
 	/**
 	 * Sets this buffer's bitrate format.
 	 * @param format This buffer's format.
-	 * @throws IllegalArgumentException if this is not set using a valid constant.
+	 * @throws SoundException if the format needs an extension that this buffer's context does not support.
 	 */
 	public void setFormat(Format format)
 	{
+		if (!format.isSupported(getContext()))
+			throw new SoundException("Format " + format.name() + " is not supported by this context (requires " + format.extension + ").");
 		bufferFormat = format;
 	}
 	
@@ -230,6 +513,32 @@ public final class OALBuffer extends OALObject
 		return bufferFormat;
 	}
 	
+	/**
+	 * Sets the amount of samples per block, per channel, that compressed data uses,
+	 * for the next time data is set on this buffer. Uncompressed formats ignore this.
+	 * <p>IMA4 block alignments are a multiple of 8, plus 1 (default 65), and MS-ADPCM block alignments are even (default 64).
+	 * Anything other than the default needs AL_SOFT_block_alignment.
+	 * @param samplesPerBlock the samples per block, or 0 for the format's default.
+	 * @throws IllegalArgumentException if samplesPerBlock is less than 0.
+	 * @throws SoundException if samplesPerBlock is not 0 and the context does not support AL_SOFT_block_alignment.
+	 */
+	public void setBlockAlignment(int samplesPerBlock)
+	{
+		if (samplesPerBlock < 0)
+			throw new IllegalArgumentException("Block alignment cannot be less than 0.");
+		if (samplesPerBlock != 0 && !getContext().extensionIsPresent("AL_SOFT_block_alignment"))
+			throw new SoundException("Block alignment cannot be set: AL_SOFT_block_alignment is not supported by this context.");
+		blockAlignment = samplesPerBlock;
+	}
+	
+	/**
+	 * @return the samples per block, per channel, for compressed data (0 is the format's default).
+	 */
+	public int getBlockAlignment()
+	{
+		return blockAlignment;
+	}
+	
 	/**
 	 * Sets this buffer's sampling rate.
 	 * @param rate the rate in kHz.
@@ -249,39 +558,31 @@ public final class OALBuffer extends OALObject
 	
 	/**
 	 * Sets format by channels and bits.
+	 * 32-bit samples are assumed to be floating-point.
 	 * @param channels amount of channels.
 	 * @param bits bit per sample.
 	 * @throws IllegalArgumentException if the combination of channels and bits create an unsupported format.
+	 * @throws SoundException if the format needs an extension that this buffer's context does not support.
 	 */
 	public void setFormatByChannelsAndBits(int channels, int bits)
 	{
-		switch(channels)
-		{
-			case 1:
-				switch (bits)
-				{
-					case 8:
-						setFormat(Format.MONO8);
-						return;
-					case 16:
-						setFormat(Format.MONO16);
-						return;
-				}
-				break;
-				
-			case 2:
-				switch (bits)
-				{
-					case 8:
-						setFormat(Format.STEREO8);
-						return;
-					case 16:
-						setFormat(Format.STEREO16);
-						return;
-				}
-				break;
-		}
-		throw new IllegalArgumentException("Unsupported set of channels and bytes. " + channels + " channels, " + bits + "-bits.");
+		setFormatByChannelsAndBits(channels, bits, bits == 32);
+	}
+
+	/**
+	 * Sets format by channels, bits, and sample type.
+	 * @param channels amount of channels.
+	 * @param bits bit per sample.
+	 * @param floatingPoint true if the samples are floating-point, false if integer.
+	 * @throws IllegalArgumentException if the combination of channels and bits create an unsupported format.
+	 * @throws SoundException if the format needs an extension that this buffer's context does not support.
+	 */
+	public void setFormatByChannelsAndBits(int channels, int bits, boolean floatingPoint)
+	{
+		Format format = Format.get(channels, bits, floatingPoint);
+		if (format == null)
+			throw new IllegalArgumentException("Unsupported set of channels and bytes. " + channels + " channels, " + bits + "-bits" + (floatingPoint ? " float." : "."));
+		setFormat(format);
 	}
 
 	@Override
@@ -290,21 +591,27 @@ public final class OALBuffer extends OALObject
 		StringBuilder sb = new StringBuilder();
 		sb.append("Buffer ");
 		sb.append(getName()+" ");
-		switch (getFormat())
+		switch (getFormat().channels)
 		{
-			case MONO8:
-				sb.append("Mono 8-bit");
+			case 1:
+				sb.append("Mono");
 				break;
-			case MONO16:
-				sb.append("Mono 16-bit");
+			case 2:
+				sb.append("Stereo");
 				break;
-			case STEREO8:
-				sb.append("Stereo 8-bit");
+			case 4:
+				sb.append("Quad");
 				break;
-			case STEREO16:
-				sb.append("Stereo 16-bit");
+			default:
+				sb.append(getFormat().channels - 1).append(".1");
 				break;
 		}
+		if (getFormat().isCompressed())
+			sb.append(' ').append(getFormat().compression);
+		else
+			sb.append(' ').append(getFormat().bits).append("-bit");
+		if (getFormat().floatingPoint)
+			sb.append(" float");
 		sb.append(' ');
 		sb.append(getSamplingRate()+"Hz ");
 		sb.append(getSize()+" bytes");
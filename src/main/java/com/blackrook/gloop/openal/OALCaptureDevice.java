@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.openal.AL11;
+import org.lwjgl.openal.ALC11;
+
+import com.blackrook.gloop.openal.exception.SoundException;
+
+/**
+ * A capture device handle in OpenAL. Represents a sound input device, like a microphone.
+ * <p>While capturing, a dedicated thread moves samples from OpenAL straight into a preallocated {@link PcmRingBuffer}
+ * every half of the target latency (see {@link #setTargetLatency(int)}). Samples can be pulled from it with {@link #read(ByteBuffer)},
+ * or handed to a {@link PcmConsumer} on the capture thread as they arrive (see {@link #setConsumer(PcmConsumer)}).
+ * The capture thread never blocks on the reader and never allocates: if the ring buffer is full, newly captured samples
+ * are dropped and counted as an overrun.
+ * @author Matthew Tropiano
+ * @see OALSystem#createCaptureDevice(String, int, OALBuffer.Format, int)
+ */
+public class OALCaptureDevice extends OALHandle
+{
+	/** Default target latency in milliseconds. */
+	public static final int DEFAULT_TARGET_LATENCY = 20;
+	/** Most amount of sample frames discarded per call during an overrun. */
+	private static final int DISCARD_FRAMES = 1024;
+
+	/** The backend that OpenAL calls go through. */
+	private OALBackend backend;
+	/** The device name. */
+	private String name;
+	/** This object's handle. */
+	private long handle;
+	/** Was this object allocated? */
+	private boolean allocated;
+
+	/** Sample format. */
+	private OALBuffer.Format format;
+	/** Sampling rate. */
+	private int frequency;
+	/** Bytes per sample frame. */
+	private int frameSize;
+	/** Size of OpenAL's own capture buffer in sample frames. */
+	private int deviceFrames;
+
+	/** Captured samples. */
+	private PcmRingBuffer ringBuffer;
+	/** Scratch memory for samples discarded on overrun. */
+	private ByteBuffer discardBuffer;
+	/** Fills the ring buffer from OpenAL. */
+	private PcmProvider captureProvider;
+	/** Consumer, if any. */
+	private volatile PcmConsumer consumer;
+	/** Target latency in milliseconds. */
+	private volatile int targetLatency;
+	/** Capture thread (null if not capturing). */
+	private CaptureThread captureThread;
+
+	/** Amount of polls that could not store everything (only changed by the capture thread). */
+	private volatile int overrunCount;
+	/** Amount of frames dropped on overruns (only changed by the capture thread). */
+	private volatile long droppedFrames;
+	/** Amount of frames skipped by the reader to keep to the target latency (only changed by the reader). */
+	private volatile long skippedFrames;
+
+	// Capture device.
+	OALCaptureDevice(OALBackend backend, String name, int frequency, OALBuffer.Format format, int bufferFrames)
+	{
+		if (format.isCompressed())
+			throw new IllegalArgumentException("Capture format cannot be compressed.");
+		int frameSize = (format.bits >> 3) * format.channels;
+		if ((frameSize & (frameSize - 1)) != 0)
+			throw new IllegalArgumentException("Capture format must have a power-of-two frame size - " + format + " is " + frameSize + " bytes.");
+		if (bufferFrames < 1)
+			throw new IllegalArgumentException("Buffer size must be 1 frame or greater.");
+
+		this.backend = backend;
+		this.name = name == null ? "DEFAULT" : name;
+		if ((handle = backend.alcCaptureOpenDevice(name, frequency, format.alVal, bufferFrames)) == 0)
+			throw new SoundException("Handle for OALCaptureDevice could not be allocated!");
+		this.allocated = true;
+
+		this.format = format;
+		this.frequency = frequency;
+		this.frameSize = frameSize;
+		this.deviceFrames = bufferFrames;
+		// power-of-two frame size, so the ring buffer always holds whole frames.
+		this.ringBuffer = new PcmRingBuffer(bufferFrames * frameSize, format);
+		this.discardBuffer = BufferUtils.createByteBuffer(Math.min(bufferFrames, DISCARD_FRAMES) * frameSize);
+		this.captureProvider = this::sendCaptureSamples;
+		this.consumer = null;
+		this.targetLatency = DEFAULT_TARGET_LATENCY;
+		this.captureThread = null;
+		this.overrunCount = 0;
+		this.droppedFrames = 0L;
+		this.skippedFrames = 0L;
+	}
+
+	/**
+	 * @return this device's name, or "DEFAULT" if this represents the default capture device.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return the format of the captured samples.
+	 */
+	public OALBuffer.Format getFormat()
+	{
+		return format;
+	}
+
+	/**
+	 * @return the sampling rate of the captured samples.
+	 */
+	public int getFrequency()
+	{
+		return frequency;
+	}
+
+	/**
+	 * @return the size of one sample frame (one sample on every channel) in bytes.
+	 */
+	public int getFrameSize()
+	{
+		return frameSize;
+	}
+
+	/**
+	 * @return the capacity of the capture ring buffer, in sample frames.
+	 */
+	public int getBufferFrames()
+	{
+		return ringBuffer.getCapacity() / frameSize;
+	}
+
+	@Override
+	public long getHandle()
+	{
+		return handle;
+	}
+
+	@Override
+	public boolean isCreated()
+	{
+		return allocated;
+	}
+
+	@Override
+	public void destroy()
+	{
+		if (allocated)
+		{
+			stop();
+			if (!backend.alcCaptureCloseDevice(handle))
+				throw new SoundException("Handle for OALCaptureDevice could not be deleted!");
+			handle = 0L;
+			allocated = false;
+		}
+	}
+
+	/**
+	 * Convenience method for checking for an OpenAL error and throwing a SoundException if an error is raised.
+	 * @throws SoundException if an error was found.
+	 */
+	public void getCaptureError()
+	{
+		int error = backend.alcGetError(handle);
+		if (error != AL11.AL_NO_ERROR)
+			throw new SoundException("OpenAL returned \"" + backend.alcGetString(handle, error) + "\".");
+	}
+
+	/**
+	 * Sets the target latency. The capture thread moves samples out of OpenAL every half of this,
+	 * and {@link #read(ByteBuffer)} skips old samples once more than twice this is waiting.
+	 * Can be changed while capturing.
+	 * @param millis the latency in milliseconds.
+	 * @throws IllegalArgumentException if millis is less than 1.
+	 */
+	public void setTargetLatency(int millis)
+	{
+		if (millis < 1)
+			throw new IllegalArgumentException("Target latency must be 1 millisecond or greater.");
+		this.targetLatency = millis;
+	}
+
+	/**
+	 * @return the target latency in milliseconds.
+	 */
+	public int getTargetLatency()
+	{
+		return targetLatency;
+	}
+
+	/**
+	 * Sets the consumer that captured samples are handed to, on the capture thread, as soon as they arrive.
+	 * While a consumer is set, {@link #read(ByteBuffer)} cannot be used.
+	 * @param consumer the consumer, or null to read samples with {@link #read(ByteBuffer)} instead.
+	 * @throws IllegalStateException if this device is capturing.
+	 */
+	public void setConsumer(PcmConsumer consumer)
+	{
+		if (isCapturing())
+			throw new IllegalStateException("Cannot change consumer while capturing.");
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @return the current consumer, or null if none.
+	 */
+	public PcmConsumer getConsumer()
+	{
+		return consumer;
+	}
+
+	/**
+	 * @return true if this device is capturing, false if not.
+	 */
+	public synchronized boolean isCapturing()
+	{
+		return captureThread != null;
+	}
+
+	/**
+	 * Starts capturing. Anything left over from a previous capture is discarded.
+	 * Does nothing if already capturing.
+	 * @throws SoundException if the device could not be started.
+	 */
+	public synchronized void start()
+	{
+		if (captureThread != null)
+			return;
+		ringBuffer.clear();
+		backend.alcCaptureStart(handle);
+		getCaptureError();
+		captureThread = new CaptureThread();
+		captureThread.start();
+	}
+
+	/**
+	 * Stops capturing. Samples already in the ring buffer can still be read.
+	 * Does nothing if not capturing.
+	 */
+	public synchronized void stop()
+	{
+		if (captureThread == null)
+			return;
+		captureThread.shutdown();
+		backend.alcCaptureStop(handle);
+		captureThread = null;
+	}
+
+	/**
+	 * @return the amount of captured sample frames waiting to be read.
+	 */
+	public int getAvailableFrames()
+	{
+		return ringBuffer.getReadable() / frameSize;
+	}
+
+	/**
+	 * @return the amount of times that captured samples did not fit in the ring buffer.
+	 */
+	public int getOverrunCount()
+	{
+		return overrunCount;
+	}
+
+	/**
+	 * @return the amount of sample frames dropped because they did not fit in the ring buffer.
+	 */
+	public long getDroppedFrames()
+	{
+		return droppedFrames;
+	}
+
+	/**
+	 * @return the amount of sample frames skipped by {@link #read(ByteBuffer)} to keep to the target latency.
+	 */
+	public long getSkippedFrames()
+	{
+		return skippedFrames;
+	}
+
+	/**
+	 * Reads captured samples into a buffer, as many whole frames as are waiting and fit.
+	 * If more than twice the target latency is waiting, the oldest frames are skipped first,
+	 * so that what is read is no older than the target latency.
+	 * Only one thread may read. Does not block, and does not allocate if the target buffer is direct.
+	 * @param buffer the target buffer. Its position is advanced by the amount read.
+	 * @return the amount of bytes read.
+	 * @throws IllegalStateException if a consumer is set.
+	 */
+	public int read(ByteBuffer buffer)
+	{
+		if (consumer != null)
+			throw new IllegalStateException("Captured samples are handed to a consumer.");
+
+		int targetFrames = (int)((long)frequency * targetLatency / 1000);
+		int waiting = getAvailableFrames();
+		if (waiting > targetFrames * 2)
+		{
+			int skip = waiting - targetFrames;
+			ringBuffer.skip(skip * frameSize);
+			skippedFrames += skip;
+		}
+
+		int length = buffer.remaining() - (buffer.remaining() % frameSize);
+		int limit = buffer.limit();
+		buffer.limit(buffer.position() + length);
+		try {
+			return ringBuffer.read(buffer);
+		} finally {
+			buffer.limit(limit);
+		}
+	}
+
+	/**
+	 * Moves everything captured so far out of OpenAL and into the ring buffer,
+	 * and hands it to the consumer, if any. Capture thread only.
+	 */
+	private void poll()
+	{
+		// some backends report more than fits in the device buffer - nothing past that is real.
+		int available = Math.min(backend.alcGetInteger(handle, ALC11.ALC_CAPTURE_SAMPLES), deviceFrames);
+		if (available > 0)
+		{
+			int stored = ringBuffer.write(captureProvider, available * frameSize) / frameSize;
+			if (stored < available)
+			{
+				sendDiscardSamples(available - stored);
+				overrunCount++;
+				droppedFrames += available - stored;
+			}
+		}
+		PcmConsumer c = consumer;
+		if (c != null)
+			ringBuffer.read(c);
+	}
+
+	// Captures whole frames into a region of the ring buffer.
+	private int sendCaptureSamples(ByteBuffer target)
+	{
+		int frames = target.remaining() / frameSize;
+		backend.alcCaptureSamples(handle, target, frames);
+		target.position(target.position() + frames * frameSize);
+		return frames * frameSize;
+	}
+
+	// Drops captured frames that do not fit.
+	private void sendDiscardSamples(int frames)
+	{
+		int max = discardBuffer.capacity() / frameSize;
+		while (frames > 0)
+		{
+			int n = Math.min(frames, max);
+			backend.alcCaptureSamples(handle, discardBuffer, n);
+			frames -= n;
+		}
+	}
+
+	/**
+	 * The thread that moves captured samples.
+	 */
+	private class CaptureThread extends Thread
+	{
+		private volatile boolean keepAlive;
+
+		private CaptureThread()
+		{
+			setName("OALCaptureDevice-" + name);
+			setDaemon(true);
+			setPriority(MAX_PRIORITY);
+			this.keepAlive = true;
+		}
+
+		@Override
+		public void run()
+		{
+			while (keepAlive)
+			{
+				poll();
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(targetLatency) / 2);
+			}
+		}
+
+		/**
+		 * Stops this thread and waits for it to finish.
+		 */
+		public void shutdown()
+		{
+			keepAlive = false;
+			LockSupport.unpark(this);
+			if (this != Thread.currentThread())
+			{
+				try {
+					join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+}
@@ -8,15 +8,24 @@
 package com.blackrook.gloop.openal;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 import org.lwjgl.openal.AL11;
 import org.lwjgl.openal.ALC11;
 import org.lwjgl.openal.ALCapabilities;
+import org.lwjgl.openal.SOFTEvents;
+import org.lwjgl.openal.SOFTLoopback;
+import org.lwjgl.system.MemoryStack;
 
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
 import com.blackrook.gloop.openal.effect.AutowahEffect;
@@ -73,7 +82,11 @@ public class OALContext extends OALHandle
 		REFRESH(ALC11.ALC_REFRESH),
 		SYNC(ALC11.ALC_SYNC),
 		MONO_SOURCES(ALC11.ALC_MONO_SOURCES),
-		STEREO_SOURCES(ALC11.ALC_STEREO_SOURCES);
+		STEREO_SOURCES(ALC11.ALC_STEREO_SOURCES),
+		/** Loopback devices only - set by {@link OALLoopbackDevice}. */
+		FORMAT_CHANNELS(SOFTLoopback.ALC_FORMAT_CHANNELS_SOFT),
+		/** Loopback devices only - set by {@link OALLoopbackDevice}. */
+		FORMAT_TYPE(SOFTLoopback.ALC_FORMAT_TYPE_SOFT);
 		
 		public final int alVal;
 		
@@ -82,6 +95,44 @@ public class OALContext extends OALHandle
 
 	}
 	
+	/**
+	 * Enumeration of policies for checking OpenAL's error state after calls.
+	 */
+	public enum ErrorPolicy
+	{
+		/** Clear errors before, and check for errors after every call. Errors throw a {@link SoundException}. */
+		STRICT,
+		/** 
+		 * Check for errors after every Nth call (see {@link OALContext#setErrorSampleInterval(int)}) 
+		 * and on every batch commit. Errors throw a {@link SoundException}, but may have been raised by an earlier call.
+		 */
+		SAMPLED,
+		/** Never check for errors. */
+		OFF,
+		/** 
+		 * Check for errors the same way as {@link #SAMPLED}, but pass them to the context's 
+		 * {@link ErrorHandler} instead of throwing an exception.
+		 */
+		CALLBACK;
+	}
+	
+	/**
+	 * A handler for OpenAL errors, for contexts that use {@link ErrorPolicy#CALLBACK}.
+	 */
+	@FunctionalInterface
+	public interface ErrorHandler
+	{
+		/**
+		 * Called when an OpenAL error is found.
+		 * Called from the thread that found the error.
+		 * @param context the context that raised the error.
+		 * @param operation the name of the operation that found the error (for example, <code>"OALSource.setGain"</code>).
+		 * @param error the OpenAL error code.
+		 * @param message the OpenAL error message.
+		 */
+		void handleError(OALContext context, String operation, int error, String message);
+	}
+	
 	/**
 	 * A single pair of attribute-value.
 	 */
@@ -105,10 +156,112 @@ public class OALContext extends OALHandle
 		{
 			return new AttributeValue(attribute, value);
 		}
+
+		// Builds a zero-terminated attribute list, or null if there are no attributes.
+		static int[] toList(AttributeValue ... attributes)
+		{
+			if (attributes.length == 0)
+				return null;
+			int[] out = new int[attributes.length * 2 + 1];
+			for (int i = 0; i < attributes.length; i++)
+			{
+				out[i * 2 + 0] = attributes[i].attribute.alVal;
+				out[i * 2 + 1] = attributes[i].value;
+			}
+			return out;
+		}
 	}
 	
+	/**
+	 * A handle to an open batch of deferred property changes.
+	 * Closing it commits the batch (see {@link OALContext#commit()}), 
+	 * so it is meant to be used in a try-with-resources block.
+	 */
+	public class Batch implements AutoCloseable
+	{
+		private Batch() {}
+		
+		/**
+		 * <b>YOU SHOULD NOT NEED TO CALL THIS METHOD DIRECTLY.</b> 
+		 * This is meant to be automatically called from a try-with-resources. 
+		 */
+		@Override
+		public void close()
+		{
+			commit();
+		}
+	}
+	
+	/**
+	 * A thread's scope on this context: its depth, and the lock held for the outermost scope.
+	 */
+	private static class ScopeState
+	{
+		private int depth = 0;
+		private ContextLock lock = null;
+	}
+	
+	/**
+	 * A handle to a context scope opened by {@link OALContext#acquire()}.
+	 * Closing the outermost scope releases the context.
+	 */
+	private class Scope implements ContextLock
+	{
+		@Override
+		public void lock()
+		{
+			// Do nothing. Acquired in acquire().
+		}
+		
+		@Override
+		public void close()
+		{
+			release();
+		}
+	}
+	
+	/**
+	 * A set of object names generated in bulk, waiting to be assigned to new objects.
+	 */
+	private static class ReservedNames
+	{
+		private Class<? extends OALObject> type;
+		private int[] names;
+		private int next;
+	}
+	
+	/**
+	 * A source event reported by OpenAL, waiting to be dispatched.
+	 */
+	private static class SourceEvent
+	{
+		private final OALSource source;
+		private final int type;
+		private final int param;
+		
+		private SourceEvent(OALSource source, int type, int param)
+		{
+			this.source = source;
+			this.type = type;
+			this.param = param;
+		}
+	}
+	
+	private static final int TRANSPORT_PLAY = 0;
+	private static final int TRANSPORT_PAUSE = 1;
+	private static final int TRANSPORT_STOP = 2;
+	private static final int TRANSPORT_REWIND = 3;
+	
+	/** Event types that contexts listen for. */
+	private static final int[] EVENT_TYPES = {
+		SOFTEvents.AL_EVENT_TYPE_SOURCE_STATE_CHANGED_SOFT,
+		SOFTEvents.AL_EVENT_TYPE_BUFFER_COMPLETED_SOFT
+	};
+	
 	/** The device that the context is derived from. */
 	private OALDevice device;
+	/** The backend that OpenAL calls go through. */
+	private OALBackend backend;
 	/** The attribute values used to create this context. */
 	private Map<ContextAttribute, Integer> attributeMap;
 	
@@ -117,16 +270,18 @@ public class OALContext extends OALHandle
 	/** Was this object allocated? */
 	private boolean allocated;
 
-	/** Map of created sources. */
-	private Map<Integer, OALSource> nameToSource;
-	/** Map of created buffers. */
-	private Map<Integer, OALBuffer> nameToBuffer;
-	/** Map of created filters. */
-	private Map<Integer, OALFilter> nameToFilter;
-	/** Map of created effects. */
-	private Map<Integer, OALEffect> nameToEffect;
-	/** Map of created effect slots. */
-	private Map<Integer, OALEffectSlot> nameToEffectSlot;
+	/** Registry of created sources. */
+	private OALObjectRegistry<OALSource> nameToSource;
+	/** Registry of created buffers. */
+	private OALObjectRegistry<OALBuffer> nameToBuffer;
+	/** Registry of created filters. */
+	private OALObjectRegistry<OALFilter> nameToFilter;
+	/** Registry of created effects. */
+	private OALObjectRegistry<OALEffect> nameToEffect;
+	/** Registry of created effect slots. */
+	private OALObjectRegistry<OALEffectSlot> nameToEffectSlot;
+	/** Names generated in bulk for objects being created on the current thread. */
+	private ThreadLocal<ReservedNames> reservedNames;
 	
 	/** AL vendor name. */
 	private String vendorName;
@@ -144,12 +299,52 @@ public class OALContext extends OALHandle
 
 	/** Maximum effect slots per source. */
 	private int maxEffectSlots;
+	/** Maximum mono sources. */
+	private int maxMonoSources;
+	/** Maximum stereo sources. */
+	private int maxStereoSources;
 	/** Distance model. */
 	private DistanceModel currentDistanceModel;
 	
+	/** Is AL_SOFT_deferred_updates supported by this context? */
+	private boolean deferredUpdatesSupported;
+	/** Is AL_SOFT_callback_buffer supported by this context? */
+	private boolean callbackBufferSupported;
+	/** Is AL_SOFT_source_latency supported by this context? */
+	private boolean sourceLatencySupported;
+	/** Is AL_SOFT_events supported by this context? */
+	private boolean eventsSupported;
+	/** Are events enabled? */
+	private volatile boolean eventsEnabled;
+	/** The event callback, if events are enabled. */
+	private OALBackend.CallbackHandle eventCallback;
+	/** Events waiting to be dispatched to listeners. */
+	private ConcurrentLinkedQueue<SourceEvent> eventQueue;
+	/** Guards the batch depth, so that it changes together with the matching defer/process call. */
+	private Object batchMutex;
+	/** Open batch depth. */
+	private volatile int batchDepth;
+	/** The batch handle. */
+	private Batch batch;
+	
+	/** Error checking policy. */
+	private ErrorPolicy errorPolicy;
+	/** Calls between error checks, for sampled policies. */
+	private int errorSampleInterval;
+	/** Calls since the last error check (not synchronized - only affects sampling cadence). */
+	private int errorCallCount;
+	/** Error handler for the callback policy. */
+	private ErrorHandler errorHandler;
+	
+	/** Each thread's scope on this context (threads can hold scopes on the same context at once). */
+	private ThreadLocal<ScopeState> scopeState;
+	/** The scope handle. */
+	private Scope scope;
+	
 	OALContext(OALDevice device, AttributeValue ... attributes)
 	{
 		this.device = device;
+		this.backend = device.getBackend();
 		this.attributeMap = new HashMap<>(Math.max(attributes.length, 1), 1f);
 		for (AttributeValue av : attributes)
 			attributeMap.put(av.attribute, av.value);
@@ -157,11 +352,12 @@ public class OALContext extends OALHandle
 		this.handle = allocate();
 		this.allocated = true;
 
-		this.nameToSource = new HashMap<>();
-		this.nameToBuffer = new HashMap<>();
-		this.nameToFilter = new HashMap<>();
-		this.nameToEffect = new HashMap<>();
-		this.nameToEffectSlot = new HashMap<>();
+		this.nameToSource = new OALObjectRegistry<>();
+		this.nameToBuffer = new OALObjectRegistry<>();
+		this.nameToFilter = new OALObjectRegistry<>();
+		this.nameToEffect = new OALObjectRegistry<>();
+		this.nameToEffectSlot = new OALObjectRegistry<>();
+		this.reservedNames = ThreadLocal.withInitial(() -> new ReservedNames());
 
 		this.vendorName = null;
 		this.versionName = null;
@@ -170,6 +366,24 @@ public class OALContext extends OALHandle
 		this.listener = null;
 		this.capabilities = null;
 		
+		this.deferredUpdatesSupported = false;
+		this.callbackBufferSupported = false;
+		this.sourceLatencySupported = false;
+		this.eventsSupported = false;
+		this.eventsEnabled = false;
+		this.eventCallback = null;
+		this.eventQueue = new ConcurrentLinkedQueue<>();
+		this.batchMutex = new Object();
+		this.batchDepth = 0;
+		this.batch = new Batch();
+		
+		this.errorPolicy = ErrorPolicy.STRICT;
+		this.errorSampleInterval = 64;
+		this.errorCallCount = 0;
+		this.errorHandler = null;
+		
+		this.scopeState = ThreadLocal.withInitial(ScopeState::new);
+		this.scope = new Scope();
 	}
 
 	/**
@@ -212,34 +426,335 @@ public class OALContext extends OALHandle
 			throw new SoundSystemException("Unknown object type.");
 	}
 	
-	private <O extends OALObject> void registerObjectOnMap(O obj, final Map<Integer, O> map)
+	private <O extends OALObject> void registerObjectOnMap(O obj, final OALObjectRegistry<O> registry)
+	{
+		registry.put(obj);
+	}
+
+	private <O extends OALObject> void unregisterObjectOnMap(O obj, final OALObjectRegistry<O> registry)
+	{
+		registry.remove(obj);
+	}
+
+	private <O extends OALObject> void destroyObjectsOnMap(final OALObjectRegistry<O> registry, NameDeleter deleter)
+	{
+		synchronized (registry) 
+		{
+			// need to copy contents - deleting these objects will affect the registry as we iterate.
+			OALObject[] toDelete = registry.toArray();
+			deleteObjects(toDelete, toDelete.length, deleter);
+			registry.clear();
+		}
+	}
+
+	/**
+	 * Takes a name previously generated in bulk for a new object, if one was reserved
+	 * for the object's type on the calling thread.
+	 * @param object the object being constructed.
+	 * @return the reserved name, or 0 if none.
+	 */
+	int takeReservedName(OALObject object)
+	{
+		ReservedNames reserved = reservedNames.get();
+		if (reserved.names == null || reserved.next >= reserved.names.length || !reserved.type.isInstance(object))
+			return 0;
+		return reserved.names[reserved.next++];
+	}
+	
+	/**
+	 * Generates a set of names in one call and constructs a set of objects that use them.
+	 * @param type the object type.
+	 * @param amount the amount of objects.
+	 * @param generator the AL name generator function.
+	 * @param deleter the AL name deleter function (for cleaning up unused names).
+	 * @param arrayMaker the output array creator.
+	 * @param creator the object constructor (called on the same thread).
+	 */
+	private <O extends OALObject> O[] createObjects(Class<? extends OALObject> type, int amount, NameGenerator generator, NameDeleter deleter, IntFunction<O[]> arrayMaker, Supplier<O> creator)
+	{
+		O[] out = arrayMaker.apply(amount);
+		if (amount <= 0)
+			return out;
+		
+		int[] names = new int[amount];
+		try (ContextLock lock = setCurrentContext()) 
+		{
+			clearError();
+			generator.generate(names);
+			getError();
+		}
+
+		ReservedNames reserved = reservedNames.get();
+		reserved.type = type;
+		reserved.names = names;
+		reserved.next = 0;
+		try {
+			for (int i = 0; i < amount; i++)
+				out[i] = creator.get();
+		} finally {
+			// clean up names not taken (if a constructor failed).
+			if (reserved.next < amount)
+			{
+				int[] unused = new int[amount - reserved.next];
+				System.arraycopy(names, reserved.next, unused, 0, unused.length);
+				try (ContextLock lock = setCurrentContext()) 
+				{
+					deleter.delete(unused);
+				}
+			}
+			reserved.type = null;
+			reserved.names = null;
+			reserved.next = 0;
+		}
+		return out;
+	}
+
+	/**
+	 * Deletes a set of objects of the same type in one call, and marks them as destroyed.
+	 * The objects are not unregistered.
+	 * @param objects the objects.
+	 * @param length the amount of objects in the array to delete.
+	 * @param deleter the AL name deleter function.
+	 */
+	private void deleteObjects(OALObject[] objects, int length, NameDeleter deleter)
 	{
-		synchronized (map) 
+		if (length == 0)
+			return;
+		
+		int[] names = new int[length];
+		for (int i = 0; i < length; i++)
+			names[i] = objects[i].getName();
+		
+		int error;
+		try (ContextLock lock = setCurrentContext()) 
 		{
-			map.put(obj.getName(), obj);
+			// always checked: objects may only release what OpenAL still uses (e.g. buffer callbacks) if they were deleted.
+			flushErrorState(null);
+			deleter.delete(names);
+			error = takeErrorState();
+			reportErrorState(error, null);
 		}
+		
+		for (int i = 0; i < length; i++)
+			objects[i].invalidate(error == AL11.AL_NO_ERROR);
 	}
 
-	private <O extends OALObject> void unregisterObjectOnMap(O obj, final Map<Integer, O> map)
+	/**
+	 * Destroys a set of objects made by this context, using one OpenAL call per object type.
+	 * Sources are deleted first, then effect slots, buffers, effects, and filters, so that
+	 * objects are not still attached to other objects when they are deleted.
+	 * Objects that were already destroyed are skipped.
+	 * @param objects the objects to destroy.
+	 * @throws IllegalArgumentException if an object does not belong to this context, or is not a type of object that it makes.
+	 * @throws SoundException if an error occurred destroying the objects.
+	 */
+	public void destroyObjects(OALObject ... objects)
 	{
-		synchronized (map) 
+		OALObject[] sources = new OALObject[objects.length];
+		OALObject[] effectSlots = new OALObject[objects.length];
+		OALObject[] buffers = new OALObject[objects.length];
+		OALObject[] effects = new OALObject[objects.length];
+		OALObject[] filters = new OALObject[objects.length];
+		int s = 0, es = 0, b = 0, e = 0, f = 0;
+		
+		for (OALObject object : objects)
 		{
-			map.remove(obj.getName());
+			if (!object.isCreated())
+				continue;
+			checkOwner(object);
+			
+			if (object instanceof OALSource)
+				sources[s++] = object;
+			else if (object instanceof OALEffectSlot)
+				effectSlots[es++] = object;
+			else if (object instanceof OALBuffer)
+				buffers[b++] = object;
+			else if (object instanceof OALEffect)
+				effects[e++] = object;
+			else if (object instanceof OALFilter)
+				filters[f++] = object;
+			else
+				throw new IllegalArgumentException("Object " + object + " is not a type of object made by a context.");
 		}
+		
+		for (int i = 0; i < s; i++)
+			unregisterObject(sources[i]);
+		deleteObjects(sources, s, backend::alDeleteSources);
+		for (int i = 0; i < es; i++)
+			unregisterObject(effectSlots[i]);
+		deleteObjects(effectSlots, es, backend::alDeleteAuxiliaryEffectSlots);
+		for (int i = 0; i < b; i++)
+			unregisterObject(buffers[i]);
+		deleteObjects(buffers, b, backend::alDeleteBuffers);
+		for (int i = 0; i < e; i++)
+			unregisterObject(effects[i]);
+		deleteObjects(effects, e, backend::alDeleteEffects);
+		for (int i = 0; i < f; i++)
+			unregisterObject(filters[i]);
+		deleteObjects(filters, f, backend::alDeleteFilters);
+	}
+
+	/**
+	 * Convenience method for clearing the OpenAL error state.
+	 */
+	private void clearError()
+	{
+		clearErrorState();
 	}
 
-	private <O extends OALObject> void destroyObjectsOnMap(final Map<Integer, O> map)
+	/**
+	 * Clears the OpenAL error state before a call, if the error policy checks every call.
+	 */
+	void clearErrorState()
+	{
+		if (errorPolicy != ErrorPolicy.STRICT)
+			return;
+		int err;
+		do {
+			err = backend.alGetError();
+		} while (err != AL11.AL_NO_ERROR);
+	}
+	
+	/**
+	 * Checks the OpenAL error state after a call, according to the error policy.
+	 * @param source the name of the thing that made the call, for error messages.
+	 * @throws SoundException if an error is found, and the policy throws.
+	 */
+	void checkErrorState(String source)
 	{
-		synchronized (map) 
+		switch (errorPolicy)
 		{
-			// need to copy set contents - deleting these objects will affect the set as we iterate.
-			OALObject[] toDelete = new OALObject[map.size()];
-			map.values().toArray(toDelete);
-			for (int i = 0; i < toDelete.length; i++)
-				toDelete[i].destroy();
-			map.clear();
+			case OFF:
+				return;
+			case STRICT:
+				checkErrorState(source, null, false);
+				return;
+			default:
+				if (++errorCallCount >= errorSampleInterval)
+				{
+					errorCallCount = 0;
+					checkErrorState(source, null, true);
+				}
+				return;
 		}
 	}
+	
+	/**
+	 * Checks the OpenAL error state after a call made by an object, according to the error policy.
+	 * The object's name for the error message is only made if an error is reported.
+	 * @param objectClass the class of the object that made the call.
+	 * @throws SoundException if an error is found, and the policy throws.
+	 */
+	void checkErrorState(Class<?> objectClass)
+	{
+		switch (errorPolicy)
+		{
+			case OFF:
+				return;
+			case STRICT:
+				checkErrorState(null, objectClass, false);
+				return;
+			default:
+				if (++errorCallCount >= errorSampleInterval)
+				{
+					errorCallCount = 0;
+					checkErrorState(null, objectClass, true);
+				}
+				return;
+		}
+	}
+	
+	/**
+	 * Takes the OpenAL error state, whatever the error policy, for calls whose outcome must be known
+	 * (for example, before freeing memory that OpenAL may still use). The error is not reported:
+	 * pass it to {@link #reportErrorState(int, Class)} once it has been acted on.
+	 * @return the error found, or AL_NO_ERROR.
+	 */
+	int takeErrorState()
+	{
+		int out = backend.alGetError();
+		// drain anything else, so that the next take is only for calls made after this one.
+		while (out != AL11.AL_NO_ERROR && backend.alGetError() != AL11.AL_NO_ERROR) 
+			continue;
+		return out;
+	}
+	
+	/**
+	 * Clears the OpenAL error state before a call whose outcome must be known, whatever the error policy,
+	 * so that {@link #takeErrorState()} only finds that call's error.
+	 * Errors left by earlier calls are reported according to the policy, or dropped if it is {@link ErrorPolicy#STRICT}.
+	 * @param objectClass the class of the object that is making the call.
+	 * @throws SoundException if an earlier error is found, and the policy throws.
+	 */
+	void flushErrorState(Class<?> objectClass)
+	{
+		int error = takeErrorState();
+		if (errorPolicy != ErrorPolicy.STRICT)
+			reportErrorState(error, objectClass);
+	}
+	
+	/**
+	 * Reports an error taken with {@link #takeErrorState()} according to the error policy.
+	 * Nothing is reported if the policy is {@link ErrorPolicy#OFF}.
+	 * @param error the error taken.
+	 * @param objectClass the class of the object that made the call.
+	 * @throws SoundException if error is not AL_NO_ERROR, and the policy throws.
+	 */
+	void reportErrorState(int error, Class<?> objectClass)
+	{
+		if (errorPolicy != ErrorPolicy.OFF)
+			reportErrorState(error, null, objectClass, errorPolicy != ErrorPolicy.STRICT);
+	}
+	
+	// Checks for an error now, unless checking is off.
+	private void checkErrorState(String source, Class<?> objectClass, boolean sampled)
+	{
+		if (errorPolicy == ErrorPolicy.OFF)
+			return;
+		reportErrorState(backend.alGetError(), source, objectClass, sampled);
+	}
+	
+	// Reports an error, if any.
+	private void reportErrorState(int error, String source, Class<?> objectClass, boolean sampled)
+	{
+		if (error == AL11.AL_NO_ERROR)
+			return;
+		
+		String operation = getFailingOperation();
+		String message = backend.alGetString(error);
+		if (errorPolicy == ErrorPolicy.CALLBACK)
+		{
+			ErrorHandler handler = errorHandler;
+			if (handler != null)
+				handler.handleError(this, operation, error, message);
+		}
+		else
+		{
+			if (objectClass != null)
+				source = "Object " + objectClass.getSimpleName();
+			throw new SoundException(
+				(source != null ? source + ": " : "") + "AL returned \"" + message + "\" " + 
+				(sampled ? "by or before " : "in ") + operation + "()"
+			);
+		}
+	}
+	
+	// Finds the method that called the error check. Only called when an error was found.
+	private static String getFailingOperation()
+	{
+		for (StackTraceElement element : new Throwable().getStackTrace())
+		{
+			String className = element.getClassName();
+			String methodName = element.getMethodName();
+			if (className.equals(OALContext.class.getName()) && (methodName.equals("checkErrorState") || methodName.equals("reportErrorState") || methodName.equals("getError") || methodName.equals("getFailingOperation")))
+				continue;
+			// error check methods and private "send" helpers are not interesting.
+			if (methodName.equals("errorCheck") || methodName.startsWith("send"))
+				continue;
+			return className.substring(className.lastIndexOf('.') + 1) + '.' + methodName;
+		}
+		return "unknown";
+	}
 
 	@Override
 	public long getHandle()
@@ -258,18 +773,20 @@ public class OALContext extends OALHandle
 		long out;
 		if (attributeMap.isEmpty())
 		{
-			out = ALC11.alcCreateContext(device.getHandle(), (IntBuffer)null);
+			out = backend.alcCreateContext(device.getHandle(), null);
 		}
 		else
 		{
-			int[] attribs = new int[attributeMap.size() * 2];
+			// zero-terminated.
+			int[] attribs = new int[attributeMap.size() * 2 + 1];
 			int i = 0;
 			for (Map.Entry<ContextAttribute, Integer> entry : attributeMap.entrySet())
 			{
 				attribs[i + 0] = entry.getKey().alVal;
 				attribs[i + 1] = entry.getValue();
+				i += 2;
 			}
-			out = ALC11.alcCreateContext(device.getHandle(), attribs);
+			out = backend.alcCreateContext(device.getHandle(), attribs);
 		}
 		return out;
 	}
@@ -279,14 +796,17 @@ public class OALContext extends OALHandle
 	{
 		if (allocated)
 		{
+			if (eventsEnabled)
+				setEventsEnabled(false);
 			suspend();
 			// sources must be first. sources are connected to everything else in a context.
-			destroyObjectsOnMap(nameToSource);
-			destroyObjectsOnMap(nameToBuffer);
-			destroyObjectsOnMap(nameToEffect);
-			destroyObjectsOnMap(nameToEffectSlot);
-			destroyObjectsOnMap(nameToFilter);
-			ALC11.alcDestroyContext(getHandle());
+			destroyObjectsOnMap(nameToSource, backend::alDeleteSources);
+			destroyObjectsOnMap(nameToEffectSlot, backend::alDeleteAuxiliaryEffectSlots);
+			destroyObjectsOnMap(nameToBuffer, backend::alDeleteBuffers);
+			destroyObjectsOnMap(nameToEffect, backend::alDeleteEffects);
+			destroyObjectsOnMap(nameToFilter, backend::alDeleteFilters);
+			device.releaseContext(this);
+			backend.alcDestroyContext(getHandle());
 			handle = 0L;
 			allocated = false;
 		}
@@ -317,6 +837,10 @@ public class OALContext extends OALHandle
 		this.extensions.clear();
 		for (String e : extensions)
 			this.extensions.add(e);
+		this.deferredUpdatesSupported = this.extensions.contains("AL_SOFT_deferred_updates");
+		this.callbackBufferSupported = this.extensions.contains("AL_SOFT_callback_buffer");
+		this.sourceLatencySupported = this.extensions.contains("AL_SOFT_source_latency");
+		this.eventsSupported = this.extensions.contains("AL_SOFT_events");
 	}
 
 	void setMaxEffectSlots(int maxEffectSlots) 
@@ -324,6 +848,12 @@ public class OALContext extends OALHandle
 		this.maxEffectSlots = maxEffectSlots;
 	}
 
+	void setMaxSources(int maxMonoSources, int maxStereoSources) 
+	{
+		this.maxMonoSources = maxMonoSources;
+		this.maxStereoSources = maxStereoSources;
+	}
+
 	void setListener(OALListener listener)
 	{
 		this.listener = listener;
@@ -335,9 +865,88 @@ public class OALContext extends OALHandle
 	 */
 	ContextLock setCurrentContext()
 	{
+		// already bound and locked by this thread's scope.
+		if (scopeState.get().depth > 0)
+			return OALSystem.NO_OP_LOCK;
 		return device.setCurrentContext(this);
 	}
 	
+	/**
+	 * @return the backend that this context's calls to OpenAL go through.
+	 */
+	OALBackend getBackend()
+	{
+		return backend;
+	}
+	
+	/**
+	 * @return true if the calling thread holds this context's scope (see {@link #acquire()}).
+	 */
+	boolean isScopedByCurrentThread()
+	{
+		return scopeState.get().depth > 0;
+	}
+	
+	/**
+	 * Makes this context current and holds it (and the context lock, if any) for the calling thread
+	 * until the returned handle is closed. While held, calls to OpenAL made through this context's objects 
+	 * on the same thread skip making the context current and locking on every call.
+	 * Scopes can be nested - only the outermost close releases the context.
+	 * <p>Making a <i>different</i> context current on the same thread while a scope is held is an error.
+	 * <p>Best used in a try-with-resources block:
+	 * <pre>
+	 * try (ContextLock lock = context.acquire())
+	 * {
+	 *     for (OALSource source : sources)
+	 *         source.reset();
+	 * }
+	 * </pre>
+	 * @return a handle that releases the scope when closed.
+	 * @throws SoundException if the context could not be made current.
+	 * @see #withContext(Runnable)
+	 */
+	public ContextLock acquire()
+	{
+		ScopeState state = scopeState.get();
+		if (state.depth > 0)
+		{
+			state.depth++;
+			return scope;
+		}
+		
+		state.lock = device.setCurrentContext(this);
+		state.depth = 1;
+		return scope;
+	}
+	
+	/**
+	 * Runs a set of calls with this context held by the calling thread.
+	 * Equivalent to calling <code>runnable.run()</code> inside a scope made by {@link #acquire()}.
+	 * @param runnable the runnable to run.
+	 * @throws SoundException if the context could not be made current.
+	 */
+	public void withContext(Runnable runnable)
+	{
+		try (ContextLock lock = acquire())
+		{
+			runnable.run();
+		}
+	}
+	
+	// Releases one level of scope.
+	private void release()
+	{
+		ScopeState state = scopeState.get();
+		if (state.depth == 0)
+			throw new IllegalStateException("The context scope is not held by this thread.");
+		if (--state.depth == 0)
+		{
+			ContextLock lock = state.lock;
+			state.lock = null;
+			lock.close();
+		}
+	}
+	
 	/**
 	 * Returns the corresponding value of a context attribute used to create this context.
 	 * @param attribute the attribute.
@@ -348,6 +957,14 @@ public class OALContext extends OALHandle
 		return attributeMap.get(attribute);
 	}
 
+	/**
+	 * @return the device that this context renders to.
+	 */
+	public OALDevice getDevice()
+	{
+		return device;
+	}
+
 	/**
 	 * @return the vendor name for this OpenAL implementation.
 	 */
@@ -398,6 +1015,22 @@ public class OALContext extends OALHandle
 		return maxEffectSlots;
 	}
 	
+	/**
+	 * @return the amount of sources that this context's device can play mono buffers on at once (ALC_MONO_SOURCES).
+	 */
+	public int getMaxMonoSources() 
+	{
+		return maxMonoSources;
+	}
+	
+	/**
+	 * @return the amount of sources that this context's device can play stereo buffers on at once (ALC_STEREO_SOURCES).
+	 */
+	public int getMaxStereoSources() 
+	{
+		return maxStereoSources;
+	}
+	
 	public void setCurrentDistanceModel(DistanceModel currentDistanceModel) 
 	{
 		this.currentDistanceModel = currentDistanceModel;
@@ -411,6 +1044,61 @@ public class OALContext extends OALHandle
 		return currentDistanceModel;
 	}
 	
+	/**
+	 * Gets a source created by this context by its OpenAL name.
+	 * This does not lock or allocate, so it is safe to call from OpenAL callbacks.
+	 * @param name the OpenAL name.
+	 * @return the corresponding source, or null if no live source has that name.
+	 */
+	public OALSource getSource(int name)
+	{
+		return nameToSource.get(name);
+	}
+	
+	/**
+	 * Gets a buffer created by this context by its OpenAL name.
+	 * This does not lock or allocate, so it is safe to call from OpenAL callbacks.
+	 * @param name the OpenAL name.
+	 * @return the corresponding buffer, or null if no live buffer has that name.
+	 */
+	public OALBuffer getBuffer(int name)
+	{
+		return nameToBuffer.get(name);
+	}
+	
+	/**
+	 * Gets a filter created by this context by its OpenAL name.
+	 * This does not lock or allocate, so it is safe to call from OpenAL callbacks.
+	 * @param name the OpenAL name.
+	 * @return the corresponding filter, or null if no live filter has that name.
+	 */
+	public OALFilter getFilter(int name)
+	{
+		return nameToFilter.get(name);
+	}
+	
+	/**
+	 * Gets a effect created by this context by its OpenAL name.
+	 * This does not lock or allocate, so it is safe to call from OpenAL callbacks.
+	 * @param name the OpenAL name.
+	 * @return the corresponding effect, or null if no live effect has that name.
+	 */
+	public OALEffect getEffect(int name)
+	{
+		return nameToEffect.get(name);
+	}
+	
+	/**
+	 * Gets a effect slot created by this context by its OpenAL name.
+	 * This does not lock or allocate, so it is safe to call from OpenAL callbacks.
+	 * @param name the OpenAL name.
+	 * @return the corresponding effect slot, or null if no live effect slot has that name.
+	 */
+	public OALEffectSlot getEffectSlot(int name)
+	{
+		return nameToEffectSlot.get(name);
+	}
+	
 	/**
 	 * @return this context's listener.
 	 */
@@ -420,7 +1108,7 @@ public class OALContext extends OALHandle
 	}
 
 	/**
-	 * @return the capabilities that this context was created with.
+	 * @return the capabilities that this context was created with, or null if its backend does not use LWJGL's bindings.
 	 */
 	public ALCapabilities getCapabilities() 
 	{
@@ -429,13 +1117,73 @@ public class OALContext extends OALHandle
 	
 	/**
 	 * Convenience method for checking for an OpenAL error and throwing a SoundException
-	 * if an error is raised. 
+	 * if an error is raised. Follows this context's error policy (see {@link #setErrorPolicy(ErrorPolicy)}).
+	 * @throws SoundException if an error was found and the policy throws.
 	 */
 	public void getError()
 	{
-		int error = AL11.alGetError();
-		if (error != AL11.AL_NO_ERROR)
-			throw new SoundException("OpenAL returned \"" + AL11.alGetString(error) + "\".");
+		checkErrorState((String)null);
+	}
+
+	/**
+	 * Sets how this context checks for OpenAL errors after calls made through it and its objects.
+	 * The default is {@link ErrorPolicy#STRICT}.
+	 * @param errorPolicy the new policy.
+	 * @throws NullPointerException if errorPolicy is null.
+	 */
+	public void setErrorPolicy(ErrorPolicy errorPolicy)
+	{
+		if (errorPolicy == null)
+			throw new NullPointerException("errorPolicy cannot be null.");
+		this.errorPolicy = errorPolicy;
+		this.errorCallCount = 0;
+	}
+	
+	/**
+	 * @return the current error checking policy.
+	 */
+	public ErrorPolicy getErrorPolicy()
+	{
+		return errorPolicy;
+	}
+	
+	/**
+	 * Sets how many calls are made between error checks for the sampled policies
+	 * ({@link ErrorPolicy#SAMPLED} and {@link ErrorPolicy#CALLBACK}). The default is 64.
+	 * @param interval the amount of calls between checks.
+	 * @throws IllegalArgumentException if interval is less than 1.
+	 */
+	public void setErrorSampleInterval(int interval)
+	{
+		if (interval < 1)
+			throw new IllegalArgumentException("Sample interval must be 1 or greater.");
+		this.errorSampleInterval = interval;
+	}
+	
+	/**
+	 * @return the amount of calls between error checks for the sampled policies.
+	 */
+	public int getErrorSampleInterval()
+	{
+		return errorSampleInterval;
+	}
+	
+	/**
+	 * Sets the handler that receives errors when the error policy is {@link ErrorPolicy#CALLBACK}.
+	 * If null, errors found under that policy are dropped.
+	 * @param errorHandler the handler, or null for none.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler)
+	{
+		this.errorHandler = errorHandler;
+	}
+	
+	/**
+	 * @return the handler that receives errors under the callback policy, or null if none.
+	 */
+	public ErrorHandler getErrorHandler()
+	{
+		return errorHandler;
 	}
 
 	/**
@@ -443,7 +1191,7 @@ public class OALContext extends OALHandle
 	 */
 	public void suspend()
 	{
-		ALC11.alcSuspendContext(getHandle());
+		backend.alcSuspendContext(getHandle());
 		device.getContextError();
 	}
 
@@ -452,10 +1200,344 @@ public class OALContext extends OALHandle
 	 */
 	public void process()
 	{
-		ALC11.alcProcessContext(getHandle());
+		backend.alcProcessContext(getHandle());
 		device.getContextError();
 	}
 
+	/**
+	 * Checks if this context can defer property changes in batches.
+	 * If not, {@link #beginBatch()} and {@link #commit()} still work, but changes are applied immediately.
+	 * @return true if the AL_SOFT_deferred_updates extension is present, false if not.
+	 */
+	public boolean isBatchingSupported()
+	{
+		return deferredUpdatesSupported;
+	}
+	
+	/**
+	 * Checks if buffers made by this context can be driven by callbacks (see {@link OALBuffer#setCallback(PcmProvider)}).
+	 * @return true if the AL_SOFT_callback_buffer extension is present, false if not.
+	 */
+	public boolean isCallbackBufferSupported()
+	{
+		return callbackBufferSupported;
+	}
+	
+	/**
+	 * Checks if sources made by this context can report their playback latency (see {@link OALSource#getOffsetAndLatency(OALSource.OffsetLatency)}).
+	 * @return true if the AL_SOFT_source_latency extension is present, false if not.
+	 */
+	public boolean isSourceLatencySupported()
+	{
+		return sourceLatencySupported;
+	}
+	
+	/**
+	 * Checks if this context can report source events (see {@link #setEventsEnabled(boolean)}).
+	 * @return true if the AL_SOFT_events extension is present, false if not.
+	 */
+	public boolean isEventsSupported()
+	{
+		return eventsSupported;
+	}
+	
+	/**
+	 * @return true if events are enabled on this context, false if not.
+	 */
+	public boolean isEventsEnabled()
+	{
+		return eventsEnabled;
+	}
+	
+	/**
+	 * Turns source events on or off (AL_SOFT_events).
+	 * <p>With events on, OpenAL reports Source state changes and completed buffers as they happen, on its own thread.
+	 * Sources use these to keep track of their play state, so checking if a Source is playing does not call OpenAL
+	 * unless its state changed unexpectedly, and {@link OALSource#waitForEnd()} sleeps instead of polling.
+	 * <p>Sources that have listeners also get {@link OALSourceListener#sourceStateChanged(OALSource, OALSource.State)} and
+	 * {@link OALSourceListener#sourceBuffersCompleted(OALSource, int)} called on them, but only on a call to {@link #dispatchEvents()},
+	 * on the thread that calls it. Call it regularly if any of this context's Sources have listeners.
+	 * @param enabled true to turn on, false to turn off.
+	 * @throws SoundException if enabling, and this context does not support AL_SOFT_events.
+	 * @see #isEventsSupported()
+	 */
+	public synchronized void setEventsEnabled(boolean enabled)
+	{
+		if (enabled == eventsEnabled)
+			return;
+		if (enabled && !eventsSupported)
+			throw new SoundException("Events (AL_SOFT_events) are not supported by this context.");
+		
+		try (ContextLock lock = setCurrentContext()) 
+		{
+			if (enabled)
+			{
+				eventCallback = backend.alEventCallbackSOFT(this::handleEvent);
+				backend.alEventControlSOFT(EVENT_TYPES, true);
+				// states cached while events were off may be stale.
+				for (OALObject source : nameToSource.toArray())
+					((OALSource)source).invalidateState();
+				eventsEnabled = true;
+			}
+			else
+			{
+				eventsEnabled = false;
+				backend.alEventControlSOFT(EVENT_TYPES, false);
+				backend.alEventCallbackSOFT(null);
+				eventCallback.free();
+				eventCallback = null;
+				eventQueue.clear();
+			}
+			getError();
+		}
+	}
+	
+	/**
+	 * Calls source listeners for all of the events reported since the last call,
+	 * on the calling thread, in the order that they were reported.
+	 * Does nothing if events are not enabled.
+	 * @return the amount of events dispatched.
+	 * @see #setEventsEnabled(boolean)
+	 */
+	public int dispatchEvents()
+	{
+		int out = 0;
+		SourceEvent event;
+		while ((event = eventQueue.poll()) != null)
+		{
+			event.source.fireEvent(event.type, event.param);
+			out++;
+		}
+		return out;
+	}
+	
+	// Called on the backend's event thread. Must not call OpenAL or throw.
+	private void handleEvent(int type, int object, int param)
+	{
+		try {
+			OALSource source = nameToSource.get(object);
+			if (source == null)
+				return;
+			if (type == SOFTEvents.AL_EVENT_TYPE_SOURCE_STATE_CHANGED_SOFT)
+				source.stateEvent(param);
+			if (source.hasListeners())
+				eventQueue.offer(new SourceEvent(source, type, param));
+		} catch (Throwable t) {
+			// can't throw into native code.
+		}
+	}
+	
+	/**
+	 * @return true if a batch is currently open on this context, false if not.
+	 */
+	public boolean isBatching()
+	{
+		return batchDepth > 0;
+	}
+	
+	/**
+	 * Opens a batch of property changes on this context.
+	 * Until the matching {@link #commit()}, changes to source, listener, and effect slot properties
+	 * are held back and applied all at once when the batch is committed.
+	 * Batches can be nested - only the outermost commit applies the changes.
+	 * <p>A batch is context-wide, not per thread: while any thread has a batch open, changes made 
+	 * by every thread on this context are held back until the outermost batch is committed.
+	 * <p>Best used in a try-with-resources block:
+	 * <pre>
+	 * try (OALContext.Batch batch = context.beginBatch())
+	 * {
+	 *     source.setPosition(x, y, z);
+	 *     source.setGain(gain);
+	 * }
+	 * </pre>
+	 * @return a batch handle that commits the batch when closed.
+	 * @see #commit()
+	 */
+	public Batch beginBatch()
+	{
+		try (ContextLock lock = acquire())
+		{
+			synchronized (batchMutex)
+			{
+				if (batchDepth++ == 0 && deferredUpdatesSupported)
+				{
+					backend.alDeferUpdatesSOFT();
+					getError();
+				}
+			}
+		}
+		return batch;
+	}
+	
+	/**
+	 * Commits a batch of property changes started with {@link #beginBatch()}.
+	 * If this closes the outermost batch, all deferred changes are applied at once.
+	 * @throws IllegalStateException if no batch is open.
+	 */
+	public void commit()
+	{
+		try (ContextLock lock = acquire())
+		{
+			synchronized (batchMutex)
+			{
+				if (batchDepth == 0)
+					throw new IllegalStateException("No batch is open on this context.");
+				if (--batchDepth == 0)
+				{
+					if (deferredUpdatesSupported)
+						backend.alProcessUpdatesSOFT();
+					// sampled policies always check once per batch.
+					checkErrorState(null, null, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Plays a set of Sources at once, in one OpenAL call, so that they start on the same sample.
+	 * Sources that are not bound to a buffer are skipped, like {@link OALSource#play()}.
+	 * @param sources the sources to play.
+	 * @throws IllegalArgumentException if a Source does not belong to this context.
+	 * @throws SoundException if an error occurred.
+	 */
+	public void play(OALSource ... sources)
+	{
+		transport(sources, TRANSPORT_PLAY);
+	}
+
+	/**
+	 * Pauses a set of Sources at once, in one OpenAL call.
+	 * Sources that are not bound to a buffer are skipped, like {@link OALSource#pause()}.
+	 * @param sources the sources to pause.
+	 * @throws IllegalArgumentException if a Source does not belong to this context.
+	 * @throws SoundException if an error occurred.
+	 */
+	public void pause(OALSource ... sources)
+	{
+		transport(sources, TRANSPORT_PAUSE);
+	}
+
+	/**
+	 * Stops a set of Sources at once, in one OpenAL call.
+	 * Sources that are not bound to a buffer are skipped, like {@link OALSource#stop()}.
+	 * @param sources the sources to stop.
+	 * @throws IllegalArgumentException if a Source does not belong to this context.
+	 * @throws SoundException if an error occurred.
+	 */
+	public void stop(OALSource ... sources)
+	{
+		transport(sources, TRANSPORT_STOP);
+	}
+
+	/**
+	 * Rewinds a set of Sources at once, in one OpenAL call.
+	 * Sources that are not bound to a buffer are skipped, like {@link OALSource#rewind()}.
+	 * @param sources the sources to rewind.
+	 * @throws IllegalArgumentException if a Source does not belong to this context.
+	 * @throws SoundException if an error occurred.
+	 */
+	public void rewind(OALSource ... sources)
+	{
+		transport(sources, TRANSPORT_REWIND);
+	}
+
+	/**
+	 * Gets the play states of a set of Sources, holding the context once for all of them.
+	 * If events are enabled on this context, only Sources with unknown states are read from OpenAL.
+	 * @param sources the sources to query.
+	 * @param out the output array for the states (AL_INITIAL, AL_PLAYING, AL_PAUSED, or AL_STOPPED - see {@link OALSource.State#get(int)}).
+	 * @return <code>out</code>.
+	 * @throws IllegalArgumentException if a Source does not belong to this context, or out is shorter than sources.
+	 * @throws SoundException if an error occurred.
+	 */
+	public int[] getStates(OALSource[] sources, int[] out)
+	{
+		if (out.length < sources.length)
+			throw new IllegalArgumentException("Output array is shorter than the source array.");
+		
+		try (ContextLock lock = acquire()) 
+		{
+			for (int i = 0; i < sources.length; i++)
+			{
+				checkOwner(sources[i]);
+				out[i] = sources[i].getState();
+			}
+		}
+		return out;
+	}
+
+	// Sends one transport call for all bound sources, then updates each source.
+	private void transport(OALSource[] sources, int type)
+	{
+		try (ContextLock lock = acquire(); MemoryStack stack = MemoryStack.stackPush()) 
+		{
+			IntBuffer names = stack.mallocInt(sources.length);
+			LongBuffer previous = stack.mallocLong(sources.length);
+			ByteBuffer stopEvent = stack.calloc(sources.length);
+			for (int i = 0; i < sources.length; i++)
+			{
+				OALSource source = sources[i];
+				checkOwner(source);
+				if (!source.isBoundToABuffer())
+					continue;
+				if (type == TRANSPORT_STOP && source.needsStopEvent())
+					stopEvent.put(i, (byte)1);
+				previous.put(i, source.getStateStamp());
+				names.put(source.getName());
+			}
+			names.flip();
+			if (!names.hasRemaining())
+				return;
+			
+			clearError();
+			switch (type)
+			{
+				case TRANSPORT_PLAY:
+					backend.alSourcePlayv(names);
+					break;
+				case TRANSPORT_PAUSE:
+					backend.alSourcePausev(names);
+					break;
+				case TRANSPORT_STOP:
+					backend.alSourceStopv(names);
+					break;
+				case TRANSPORT_REWIND:
+					backend.alSourceRewindv(names);
+					break;
+			}
+			getError();
+			
+			for (int i = 0; i < sources.length; i++)
+			{
+				OALSource source = sources[i];
+				if (!source.isBoundToABuffer())
+					continue;
+				switch (type)
+				{
+					case TRANSPORT_PLAY:
+						source.played(previous.get(i));
+						break;
+					case TRANSPORT_PAUSE:
+						source.paused(previous.get(i));
+						break;
+					case TRANSPORT_STOP:
+						source.stopped(previous.get(i), stopEvent.get(i) != 0);
+						break;
+					case TRANSPORT_REWIND:
+						source.rewound(previous.get(i));
+						break;
+				}
+			}
+		}
+	}
+	
+	// Throws an exception if an object is from a different context.
+	private void checkOwner(OALObject object)
+	{
+		if (object.getContext() != this)
+			throw new IllegalArgumentException("Object " + object + " does not belong to this context.");
+	}
+
 	/**
 	 * Allocates a new source and assigns it internally to the current context.
 	 * @return the newly allocated source.
@@ -477,6 +1559,31 @@ public class OALContext extends OALHandle
 		return new OALSource(this, autoVelocity, maxEffectSlots);
 	}
 
+	/**
+	 * Allocates a set of new sources and assigns them internally to the current context.
+	 * The source names are generated in one OpenAL call.
+	 * @param amount the amount of sources to create.
+	 * @return the newly allocated sources.
+	 * @throws SoundException if the sources can't be created.
+	 */
+	public OALSource[] createSources(int amount)
+	{
+		return createSources(amount, false);
+	}
+
+	/**
+	 * Allocates a set of new sources and assigns them internally to the current context.
+	 * The source names are generated in one OpenAL call.
+	 * @param amount the amount of sources to create.
+	 * @param autoVelocity if true, set auto velocity to on for these Sources.
+	 * @return the newly allocated sources.
+	 * @throws SoundException if the sources can't be created.
+	 */
+	public OALSource[] createSources(int amount, boolean autoVelocity)
+	{
+		return createObjects(OALSource.class, amount, backend::alGenSources, backend::alDeleteSources, OALSource[]::new, () -> new OALSource(this, autoVelocity, maxEffectSlots));
+	}
+
 	/**
 	 * Allocates a new buffer for loading data into. Buffers are independent
 	 * of device context. 
@@ -489,18 +1596,15 @@ public class OALContext extends OALHandle
 	}
 
 	/**
-	 * Allocates a new buffer for loading data into. Buffers are independent
-	 * of device context. 
+	 * Allocates a set of new buffers for loading data into. Buffers are independent
+	 * of device context. The buffer names are generated in one OpenAL call.
 	 * @param amount the amount of buffers to create.
 	 * @return a set of newly allocated buffers.
 	 * @throws SoundException if the Buffer can't be allocated somehow.
 	 */
 	public OALBuffer[] createBuffers(int amount)
 	{
-		OALBuffer[] out = new OALBuffer[amount];
-		for (int i = 0; i < amount; i++)
-			out[i] = createBuffer();
-		return out;
+		return createObjects(OALBuffer.class, amount, backend::alGenBuffers, backend::alDeleteBuffers, OALBuffer[]::new, () -> new OALBuffer(this));
 	}
 
 	/**
@@ -519,6 +1623,23 @@ public class OALContext extends OALHandle
 		return new OALBuffer(this, handle);
 	}
 
+	/**
+	 * Allocates a new buffer with data loaded into it, like {@link #createBuffer(JSPISoundHandle)},
+	 * but compresses the data to IMA4 ADPCM (about a quarter of the size) if it is larger than a threshold.
+	 * Only 16-bit mono or stereo data is compressed, and only if this context supports AL_EXT_IMA4 - 
+	 * otherwise, it is loaded as-is.
+	 * @param handle the handle to the sound data to load into this buffer.
+	 * @param compressThreshold the size in bytes of decoded data above which it is compressed, or less than 0 for never.
+	 * @return a newly allocated buffer.
+	 * @throws IOException if the data can't be read.
+	 * @throws SoundException if the Buffer can't be allocated somehow.
+	 * @see ImaAdpcmEncoder
+	 */
+	public OALBuffer createBuffer(JSPISoundHandle handle, int compressThreshold) throws IOException
+	{
+		return new OALBuffer(this, handle, compressThreshold);
+	}
+
 	/**
 	 * Allocates a new buffer with data loaded into it. All of the sound data
 	 * readable by the SoundDataDecoder instance is read into the buffer.
@@ -549,6 +1670,35 @@ public class OALContext extends OALHandle
 		return new OALEffectSlot(this);
 	}
 
+	/**
+	 * Creates a set of new Auxiliary Effect Slots for adding a filter and effects to Sources.
+	 * The slot names are generated in one OpenAL call.
+	 * @param amount the amount of slots to create.
+	 * @return the new AuxEffectSlot objects.
+	 * @throws SoundException if the slots can't be allocated somehow.
+	 * @see #createEffectSlot()
+	 */
+	public OALEffectSlot[] createEffectSlots(int amount)
+	{
+		return createObjects(OALEffectSlot.class, amount, backend::alGenAuxiliaryEffectSlots, backend::alDeleteAuxiliaryEffectSlots, OALEffectSlot[]::new, () -> new OALEffectSlot(this));
+	}
+
+	/**
+	 * Creates a set of new effects of one type, for example:
+	 * <pre>ReverbEffect[] reverbs = context.createEffects(8, ReverbEffect[]::new, ReverbEffect::new);</pre>
+	 * The effect names are generated in one OpenAL call.
+	 * @param <E> the effect type.
+	 * @param amount the amount of effects to create.
+	 * @param arrayMaker the output array creator.
+	 * @param constructor the effect's constructor, called with this context.
+	 * @return new effects of this type with default values set.
+	 * @throws SoundException if the effects can't be created.
+	 */
+	public <E extends OALEffect> E[] createEffects(int amount, IntFunction<E[]> arrayMaker, Function<OALContext, E> constructor)
+	{
+		return createObjects(OALEffect.class, amount, backend::alGenEffects, backend::alDeleteEffects, arrayMaker, () -> constructor.apply(this));
+	}
+
 	/**
 	 * Creates a new Autowah effect.
 	 * @return	a new effect of this type with default values set.
@@ -669,6 +1819,22 @@ public class OALContext extends OALHandle
 		return new VocalMorpherEffect(this);
 	}
 
+	/**
+	 * Creates a set of new filters of one type, for example:
+	 * <pre>LowPassFilter[] filters = context.createFilters(8, LowPassFilter[]::new, LowPassFilter::new);</pre>
+	 * The filter names are generated in one OpenAL call.
+	 * @param <F> the filter type.
+	 * @param amount the amount of filters to create.
+	 * @param arrayMaker the output array creator.
+	 * @param constructor the filter's constructor, called with this context.
+	 * @return new filters of this type with default values set.
+	 * @throws SoundException if the filters can't be created.
+	 */
+	public <F extends OALFilter> F[] createFilters(int amount, IntFunction<F[]> arrayMaker, Function<OALContext, F> constructor)
+	{
+		return createObjects(OALFilter.class, amount, backend::alGenFilters, backend::alDeleteFilters, arrayMaker, () -> constructor.apply(this));
+	}
+
 	/**
 	 * Creates a new High Pass filter.
 	 * @return a new filter of this type with default values set.
@@ -707,7 +1873,7 @@ public class OALContext extends OALHandle
 	public void setDopplerFactor(float f)
 	{
 		try (ContextLock lock = setCurrentContext()) {
-			AL11.alDopplerFactor(f);
+			backend.alDopplerFactor(f);
 			getError();
 		}
 	}
@@ -719,7 +1885,7 @@ public class OALContext extends OALHandle
 	{
 		float out;
 		try (ContextLock lock = setCurrentContext()) {
-			out = AL11.alGetFloat(AL11.AL_DOPPLER_FACTOR);
+			out = backend.alGetFloat(AL11.AL_DOPPLER_FACTOR);
 		}
 		return out;
 	}
@@ -731,7 +1897,7 @@ public class OALContext extends OALHandle
 	public void setSpeedOfSound(float s)
 	{
 		try (ContextLock lock = setCurrentContext()) {
-			AL11.alDopplerVelocity(s);
+			backend.alDopplerVelocity(s);
 			getError();
 		}
 	}
@@ -744,7 +1910,7 @@ public class OALContext extends OALHandle
 		float out;
 		try (ContextLock lock = setCurrentContext()) {
 			// AL_DOPPLER_VELOCITY - for some reason, not defined in AL11
-			out = AL11.alGetFloat(0xC001);
+			out = backend.alGetFloat(0xC001);
 		}
 		return out;
 	}
@@ -757,7 +1923,7 @@ public class OALContext extends OALHandle
 	public void setDistanceModel(DistanceModel model)
 	{
 		try (ContextLock lock = setCurrentContext()) {
-			AL11.alDistanceModel(model.alVal);
+			backend.alDistanceModel(model.alVal);
 			getError();
 		}
 		currentDistanceModel = model;
@@ -771,4 +1937,16 @@ public class OALContext extends OALHandle
 		return currentDistanceModel;
 	}
 	
+	@FunctionalInterface
+	private interface NameGenerator
+	{
+		void generate(int[] names);
+	}
+	
+	@FunctionalInterface
+	private interface NameDeleter
+	{
+		void delete(int[] names);
+	}
+	
 }
@@ -9,13 +9,13 @@ package com.blackrook.gloop.openal;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
-import org.lwjgl.openal.AL;
 import org.lwjgl.openal.AL11;
-import org.lwjgl.openal.ALC;
 import org.lwjgl.openal.ALC11;
 import org.lwjgl.openal.ALCCapabilities;
+import org.lwjgl.openal.EXTDisconnect;
 import org.lwjgl.openal.EXTEfx;
 
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
@@ -29,15 +29,18 @@ import com.blackrook.gloop.openal.exception.SoundSystemException;
  */
 public class OALDevice extends OALHandle
 {
-	private static final Object CONTEXT_CREATE_MUTEX = new Object();
-	private static final AtomicInteger MULTICONTEXT_LATCH = new AtomicInteger(0);
-	
 	/** System. */
 	private OALSystem system;
+	/** The backend that OpenAL calls go through. */
+	private OALBackend backend;
 	/** The device name. */
 	private String name;
 	/** The device context capabilities. */
 	private ALCCapabilities capabilities;
+	/** Is ALC_SOFT_reopen_device supported? */
+	private boolean reopenSupported;
+	/** Is ALC_EXT_disconnect supported? */
+	private boolean disconnectSupported;
 	
 	/** This object's handle. */
 	private long handle;
@@ -47,6 +50,13 @@ public class OALDevice extends OALHandle
 	/** Map of created devices. */
 	private Set<OALContext> openContexts;
 
+	/** Command thread (null if not started). */
+	private volatile CommandThread commandThread;
+	/** Disconnect watcher (null if not watching). */
+	private DisconnectWatcher disconnectWatcher;
+	/** Amount of times this device was reopened. */
+	private volatile int reopenCount;
+
 	// Default device.
 	OALDevice(OALSystem system)
 	{
@@ -55,15 +65,30 @@ public class OALDevice extends OALHandle
 
 	// Specific device.
 	OALDevice(OALSystem system, String name)
+	{
+		this(system, name == null ? "DEFAULT" : name, system.getBackend().alcOpenDevice(name));
+	}
+
+	// Already-opened device.
+	OALDevice(OALSystem system, String name, long handle)
 	{
 		this.system = system;
+		this.backend = system.getBackend();
 		this.name = name;
 		this.openContexts = new HashSet<>(2, 1f);
-		if ((handle = ALC11.alcOpenDevice(name)) == 0)
+		if ((this.handle = handle) == 0)
 			throw new SoundException("Handle for OALDevice could not be allocated!");
 		this.allocated = true;
-		this.name = name == null ? "DEFAULT" : name;
-		this.capabilities = ALC.createCapabilities(getHandle());
+		this.capabilities = backend.alcCreateCapabilities(handle);
+		this.reopenSupported = backend.alcIsExtensionPresent(handle, "ALC_SOFT_reopen_device");
+		this.disconnectSupported = backend.alcIsExtensionPresent(handle, "ALC_EXT_disconnect");
+		if (system.usesThreadLocalContexts() && !backend.alcIsExtensionPresent(handle, "ALC_EXT_thread_local_context"))
+		{
+			backend.alcCloseDevice(handle);
+			handle = 0L;
+			allocated = false;
+			throw new SoundSystemException("Device \"" + this.name + "\" does not support thread-local contexts (ALC_EXT_thread_local_context).");
+		}
 	}
 
 	/**
@@ -75,13 +100,21 @@ public class OALDevice extends OALHandle
 	}
 	
 	/**
-	 * @return this device's OpenAL capabilities.
+	 * @return this device's OpenAL capabilities, or null if its backend does not use LWJGL's bindings.
 	 */
 	public ALCCapabilities getCapabilities() 
 	{
 		return capabilities;
 	}
 	
+	/**
+	 * @return the backend that this device's calls to OpenAL go through.
+	 */
+	public OALBackend getBackend()
+	{
+		return backend;
+	}
+	
 	@Override
 	public long getHandle()
 	{
@@ -108,6 +141,8 @@ public class OALDevice extends OALHandle
 
 	protected boolean free() 
 	{
+		stopDisconnectWatcher();
+		stopCommandThread();
 		synchronized (openContexts)
 		{
 			// need to copy set contents - deleting these handles will affect the set as we iterate.
@@ -119,7 +154,7 @@ public class OALDevice extends OALHandle
 				openContexts.remove(toDelete[i]);
 			}
 		}
-		return ALC11.alcCloseDevice(getHandle());
+		return backend.alcCloseDevice(getHandle());
 	}
 
 	/**
@@ -131,15 +166,169 @@ public class OALDevice extends OALHandle
 		return system.setCurrentContext(context);
 	}
 	
+	/**
+	 * Releases a context that is about to be destroyed, if it is current.
+	 * @param context the context.
+	 */
+	void releaseContext(OALContext context)
+	{
+		system.releaseContext(context);
+	}
+	
+	/**
+	 * @return true if this device can be reopened (ALC_SOFT_reopen_device), false if not.
+	 */
+	public boolean isReopenSupported()
+	{
+		return reopenSupported;
+	}
+
+	/**
+	 * Checks if this device is still connected (ALC_EXT_disconnect). 
+	 * A device that is no longer connected keeps its contexts and objects, but plays nothing until it is reopened.
+	 * @return true if connected, or if disconnections can't be detected, false if not.
+	 */
+	public boolean isConnected()
+	{
+		if (!disconnectSupported)
+			return true;
+		return backend.alcGetInteger(getHandle(), EXTDisconnect.ALC_CONNECTED) != 0;
+	}
+
+	/**
+	 * @return the amount of times this device was reopened, by {@link #reopen(String, OALContext.AttributeValue...)} or its disconnect watcher.
+	 */
+	public int getReopenCount()
+	{
+		return reopenCount;
+	}
+
+	/**
+	 * Moves this device to another output device (ALC_SOFT_reopen_device).
+	 * All of this device's contexts, and every buffer, source, filter and effect in them, are kept as they are, 
+	 * and playing sources keep playing on the new output.
+	 * @param name the name of the output device to move to (<code>null</code> for default).
+	 * @param attributes the optional attributes for the new output (context attributes like {@link OALContext.ContextAttribute#FREQUENCY}).
+	 * @throws SoundSystemException if reopening is not supported, or the device could not be reopened (it is left as it was).
+	 */
+	public synchronized void reopen(String name, OALContext.AttributeValue ... attributes)
+	{
+		if (!isReopenSupported())
+			throw new SoundSystemException("Device \"" + this.name + "\" cannot be reopened (ALC_SOFT_reopen_device).");
+		if (!backend.alcReopenDeviceSOFT(getHandle(), name, OALContext.AttributeValue.toList(attributes)))
+		{
+			backend.alcGetError(getHandle());
+			throw new SoundSystemException("Device \"" + this.name + "\" could not be reopened on \"" + (name == null ? "DEFAULT" : name) + "\".");
+		}
+		this.name = name == null ? "DEFAULT" : name;
+		reopenCount++;
+	}
+
+	/**
+	 * Starts watching this device for disconnection (for example, unplugged headphones) on a background thread.
+	 * When it is disconnected, it is reopened on the default output device, keeping all contexts and objects.
+	 * If that fails (for instance, no output is available), it is tried again on the next check.
+	 * Replaces any watcher already running.
+	 * @param intervalMillis the amount of milliseconds between checks.
+	 * @throws IllegalArgumentException if intervalMillis is less than 1.
+	 * @throws SoundSystemException if this device cannot be reopened or disconnections can't be detected.
+	 * @see #reopen(String, OALContext.AttributeValue...)
+	 */
+	public synchronized void startDisconnectWatcher(int intervalMillis)
+	{
+		if (intervalMillis < 1)
+			throw new IllegalArgumentException("Interval must be 1 millisecond or greater.");
+		if (!isReopenSupported() || !disconnectSupported)
+			throw new SoundSystemException("Device \"" + name + "\" cannot be watched for disconnection (ALC_EXT_disconnect, ALC_SOFT_reopen_device).");
+		stopDisconnectWatcher();
+		disconnectWatcher = new DisconnectWatcher(intervalMillis);
+		disconnectWatcher.start();
+	}
+
+	/**
+	 * Stops watching this device for disconnection. Does nothing if not watching.
+	 */
+	public synchronized void stopDisconnectWatcher()
+	{
+		if (disconnectWatcher == null)
+			return;
+		disconnectWatcher.shutdown();
+		disconnectWatcher = null;
+	}
+
+	/**
+	 * @return true if a disconnect watcher is running, false if not.
+	 */
+	public synchronized boolean isDisconnectWatched()
+	{
+		return disconnectWatcher != null;
+	}
+
+	/**
+	 * Starts this device's command thread, which runs commands passed to {@link #execute(Runnable)} in order.
+	 * <p>With thread-local contexts (see {@link OALSystem#OALSystem(boolean)}), the thread keeps whatever context its
+	 * commands use bound to itself, so commands for different devices run in parallel without locking. 
+	 * Does nothing if already started.
+	 */
+	public synchronized void startCommandThread()
+	{
+		if (commandThread != null)
+			return;
+		commandThread = new CommandThread();
+		commandThread.start();
+	}
+
+	/**
+	 * Stops this device's command thread, after it runs the commands already passed to it.
+	 * Waits for it to finish, unless called from a command.
+	 * Does nothing if not started.
+	 */
+	public void stopCommandThread()
+	{
+		CommandThread thread;
+		// don't wait while holding the device - commands may need it.
+		synchronized (this)
+		{
+			if ((thread = commandThread) == null)
+				return;
+			commandThread = null;
+		}
+		thread.shutdown();
+	}
+
+	/**
+	 * @return true if this device's command thread is running, false if not.
+	 */
+	public boolean hasCommandThread()
+	{
+		return commandThread != null;
+	}
+
+	/**
+	 * Passes a command to this device's command thread, to be run after the ones already passed to it.
+	 * Does not block or wait for the command to run. 
+	 * Exceptions thrown by a command are passed to the command thread's uncaught exception handler, 
+	 * and do not stop the thread.
+	 * @param command the command to run.
+	 * @throws IllegalStateException if the command thread is not started, or was stopped before the command could be passed to it.
+	 * @see #startCommandThread()
+	 */
+	public void execute(Runnable command)
+	{
+		CommandThread thread = commandThread;
+		if (thread == null || !thread.enqueue(command))
+			throw new IllegalStateException("Command thread for device \"" + name + "\" is not started.");
+	}
+
 	/**
 	 * Convenience method for checking for an OpenAL error and throwing a SoundException if an error is raised.
 	 * @throws SoundException if an error was found. 
 	 */
 	public void getContextError()
 	{
-		int error = ALC11.alcGetError(getHandle());
+		int error = backend.alcGetError(getHandle());
 		if (error != AL11.AL_NO_ERROR)
-			throw new SoundException("OpenAL returned \"" + ALC11.alcGetString(getHandle(), error) + "\".");
+			throw new SoundException("OpenAL returned \"" + backend.alcGetString(getHandle(), error) + "\".");
 	}
 
 	/**
@@ -150,22 +339,21 @@ public class OALDevice extends OALHandle
 	 */
 	public OALContext createContext(OALContext.AttributeValue ... attributes)
 	{
-		synchronized(CONTEXT_CREATE_MUTEX)
+		synchronized (openContexts)
 		{
 			// if already one, upgrade to strict lock.
-			if (MULTICONTEXT_LATCH.get() == 1)
-				system.upgradeLock();
-			MULTICONTEXT_LATCH.incrementAndGet();
+			system.contextCreated();
 			
 			OALContext context = new OALContext(this, attributes);
 			try (ContextLock lock = setCurrentContext(context))
 			{
-				context.setCapabilities(AL.createCapabilities(getCapabilities()));
-				context.setVendorName(AL11.alGetString(AL11.AL_VENDOR));
-				context.setVersionName(AL11.alGetString(AL11.AL_VERSION));
-				context.setRendererName(AL11.alGetString(AL11.AL_RENDERER));
-				context.setExtensions(AL11.alGetString(AL11.AL_EXTENSIONS).split("(\\s|\\n)+"));
-				context.setMaxEffectSlots(ALC11.alcGetInteger(getHandle(), EXTEfx.ALC_MAX_AUXILIARY_SENDS));
+				context.setCapabilities(backend.alCreateCapabilities(getCapabilities()));
+				context.setVendorName(backend.alGetString(AL11.AL_VENDOR));
+				context.setVersionName(backend.alGetString(AL11.AL_VERSION));
+				context.setRendererName(backend.alGetString(AL11.AL_RENDERER));
+				context.setExtensions(backend.alGetString(AL11.AL_EXTENSIONS).split("(\\s|\\n)+"));
+				context.setMaxEffectSlots(backend.alcGetInteger(getHandle(), EXTEfx.ALC_MAX_AUXILIARY_SENDS));
+				context.setMaxSources(backend.alcGetInteger(getHandle(), ALC11.ALC_MONO_SOURCES), backend.alcGetInteger(getHandle(), ALC11.ALC_STEREO_SOURCES));
 				context.setListener(new OALListener(context));
 			}
 			openContexts.add(context);
@@ -173,4 +361,120 @@ public class OALDevice extends OALHandle
 		}
 	}
 	
+	/**
+	 * The thread that runs commands for this device.
+	 */
+	private class CommandThread extends Thread
+	{
+		private final ConcurrentLinkedQueue<Runnable> commands;
+		private volatile boolean keepAlive;
+
+		private CommandThread()
+		{
+			setName("OALDevice-Commands-" + name);
+			setDaemon(true);
+			this.commands = new ConcurrentLinkedQueue<>();
+			this.keepAlive = true;
+		}
+
+		// Returns false if the thread was shut down and the command will not be run.
+		private boolean enqueue(Runnable command)
+		{
+			commands.add(command);
+			// shut down in the meantime: take the command back unless the thread already has it.
+			if (!keepAlive && commands.remove(command))
+				return false;
+			LockSupport.unpark(this);
+			return true;
+		}
+
+		@Override
+		public void run()
+		{
+			while (keepAlive || !commands.isEmpty())
+			{
+				Runnable command;
+				while ((command = commands.poll()) != null)
+				{
+					try {
+						command.run();
+					} catch (Throwable t) {
+						getUncaughtExceptionHandler().uncaughtException(this, t);
+					}
+				}
+				if (keepAlive)
+					LockSupport.park(this);
+			}
+			system.releaseThreadContext();
+		}
+
+		/**
+		 * Stops this thread once its commands are done, and waits for it.
+		 */
+		public void shutdown()
+		{
+			keepAlive = false;
+			LockSupport.unpark(this);
+			if (this != Thread.currentThread())
+			{
+				try {
+					join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * The thread that watches for disconnection.
+	 */
+	private class DisconnectWatcher extends Thread
+	{
+		private final long intervalMillis;
+		private volatile boolean keepAlive;
+
+		private DisconnectWatcher(long intervalMillis)
+		{
+			setName("OALDevice-DisconnectWatcher-" + name);
+			setDaemon(true);
+			this.intervalMillis = intervalMillis;
+			this.keepAlive = true;
+		}
+
+		@Override
+		public void run()
+		{
+			while (keepAlive)
+			{
+				// hold the device, so it can't be closed while checked.
+				synchronized (OALDevice.this)
+				{
+					if (keepAlive && !isConnected())
+					{
+						try {
+							reopen(null);
+						} catch (SoundSystemException e) {
+							// try again next time.
+						}
+					}
+				}
+				try {
+					Thread.sleep(intervalMillis);
+				} catch (InterruptedException e) {
+					// woken to stop.
+				}
+			}
+		}
+
+		/**
+		 * Stops this thread.
+		 */
+		public void shutdown()
+		{
+			keepAlive = false;
+			interrupt();
+		}
+	}
+
 }
@@ -22,7 +22,7 @@ public abstract class OALEffect extends OALObject
 		super(context);
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_EFFECT_TYPE, alEffectType);
+			getBackend().alEffecti(getName(), EXTEfx.AL_EFFECT_TYPE, alEffectType);
 			errorCheck();
 		}
 	}
@@ -34,7 +34,7 @@ public abstract class OALEffect extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			out = EXTEfx.alGenEffects();
+			out = getBackend().alGenEffects();
 			errorCheck();
 		}
 		return out;
@@ -46,7 +46,7 @@ public abstract class OALEffect extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			EXTEfx.alDeleteEffects(getName());
+			getBackend().alDeleteEffects(getName());
 			errorCheck();
 		}
 	}
@@ -40,7 +40,7 @@ public class OALEffectSlot extends OALObject
 		try (ContextLock lock = requestContext())
 		{
 			clearError();
-			out = EXTEfx.alGenAuxiliaryEffectSlots();
+			out = getBackend().alGenAuxiliaryEffectSlots();
 			errorCheck();
 		}
 		return out;
@@ -52,7 +52,7 @@ public class OALEffectSlot extends OALObject
 		try (ContextLock lock = requestContext())
 		{
 			clearError();
-			EXTEfx.alDeleteAuxiliaryEffectSlots(getName());
+			getBackend().alDeleteAuxiliaryEffectSlots(getName());
 			errorCheck();
 		}
 	}
@@ -66,7 +66,7 @@ public class OALEffectSlot extends OALObject
 		this.effect = effect;
 		try (ContextLock lock = requestContext())
 		{
-			EXTEfx.alAuxiliaryEffectSloti(getName(), EXTEfx.AL_EFFECTSLOT_EFFECT, effect == null ? EXTEfx.AL_EFFECT_NULL : effect.getName());
+			getBackend().alAuxiliaryEffectSloti(getName(), EXTEfx.AL_EFFECTSLOT_EFFECT, effect == null ? EXTEfx.AL_EFFECT_NULL : effect.getName());
 			errorCheck();
 		}
 	}
@@ -107,7 +107,7 @@ public class OALEffectSlot extends OALObject
 		slotGain = gain;
 		try (ContextLock lock = requestContext())
 		{
-			EXTEfx.alAuxiliaryEffectSlotf(getName(), EXTEfx.AL_EFFECTSLOT_GAIN, gain);
+			getBackend().alAuxiliaryEffectSlotf(getName(), EXTEfx.AL_EFFECTSLOT_GAIN, gain);
 			errorCheck();
 		}
 	}
@@ -130,7 +130,7 @@ public class OALEffectSlot extends OALObject
 		this.autoUpdating = autoUpdate;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alAuxiliaryEffectSloti(getName(), EXTEfx.AL_EFFECTSLOT_AUXILIARY_SEND_AUTO, autoUpdate ? AL11.AL_TRUE : AL11.AL_FALSE);
+			getBackend().alAuxiliaryEffectSloti(getName(), EXTEfx.AL_EFFECTSLOT_AUXILIARY_SEND_AUTO, autoUpdate ? AL11.AL_TRUE : AL11.AL_FALSE);
 			errorCheck();
 		}
 	}
@@ -17,12 +17,15 @@ import com.blackrook.gloop.openal.OALSystem.ContextLock;
  */
 public abstract class OALFilter extends OALObject
 {
+	/** Filter parameter revision, for knowing when attached sources need to re-copy it. */
+	private int revision;
+
 	protected OALFilter(OALContext context, int alFilterType)
 	{
 		super(context);
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilteri(getName(), EXTEfx.AL_FILTER_TYPE, alFilterType);
+			getBackend().alFilteri(getName(), EXTEfx.AL_FILTER_TYPE, alFilterType);
 			errorCheck();
 		}
 	}
@@ -34,7 +37,7 @@ public abstract class OALFilter extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			out = EXTEfx.alGenFilters();
+			out = getBackend().alGenFilters();
 			errorCheck();
 		}
 		return out;
@@ -46,9 +49,28 @@ public abstract class OALFilter extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			EXTEfx.alDeleteFilters(getName());
+			getBackend().alDeleteFilters(getName());
 			errorCheck();
 		}
 	}
 
+	/**
+	 * Sources copy a filter's parameters when the filter is attached to them,
+	 * so this revision is used to figure out if a filter needs re-attaching.
+	 * @return this filter's current parameter revision.
+	 */
+	final int getRevision()
+	{
+		return revision;
+	}
+	
+	/**
+	 * Marks this filter's parameters as changed.
+	 * Subclasses should call this after a parameter is changed in OpenAL.
+	 */
+	protected final void markChanged()
+	{
+		revision++;
+	}
+
 }
@@ -10,7 +10,6 @@ package com.blackrook.gloop.openal;
 import org.lwjgl.openal.AL11;
 
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
-import com.blackrook.gloop.openal.exception.SoundException;
 
 /**
  * The Listener in the sound environment.
@@ -57,9 +56,7 @@ public class OALListener
 	 */
 	private void errorCheck()
 	{
-		int error = AL11.alGetError();
-		if (error != AL11.AL_NO_ERROR)
-			throw new SoundException("Listener: AL returned \"" + AL11.alGetString(error) + "\"");
+		context.checkErrorState("Listener");
 	}
 	
 	/**
@@ -74,7 +71,7 @@ public class OALListener
 		position[1] = y;
 		position[2] = z;
 		try (ContextLock lock = context.setCurrentContext()) {
-			AL11.alListenerfv(AL11.AL_POSITION, position);
+			context.getBackend().alListenerfv(AL11.AL_POSITION, position);
 		}
 		errorCheck();
 	}
@@ -91,7 +88,7 @@ public class OALListener
 		velocity[1] = y;
 		velocity[2] = z;
 		try (ContextLock lock = context.setCurrentContext()) {
-			AL11.alListenerfv(AL11.AL_VELOCITY, velocity);
+			context.getBackend().alListenerfv(AL11.AL_VELOCITY, velocity);
 		}
 		errorCheck();
 	}
@@ -108,7 +105,7 @@ public class OALListener
 		orientation[1] = y;
 		orientation[2] = z;
 		try (ContextLock lock = context.setCurrentContext()) {
-			AL11.alListenerfv(AL11.AL_ORIENTATION, orientation);
+			context.getBackend().alListenerfv(AL11.AL_ORIENTATION, orientation);
 		}
 		errorCheck();
 	}
@@ -125,7 +122,7 @@ public class OALListener
 		orientation[4] = y;
 		orientation[5] = z;
 		try (ContextLock lock = context.setCurrentContext()) {
-			AL11.alListenerfv(AL11.AL_ORIENTATION, orientation);
+			context.getBackend().alListenerfv(AL11.AL_ORIENTATION, orientation);
 		}
 		errorCheck();
 	}
@@ -138,7 +135,7 @@ public class OALListener
 	{
 		gain = f;
 		try (ContextLock lock = context.setCurrentContext()) {
-			AL11.alListenerf(AL11.AL_GAIN, gain);
+			context.getBackend().alListenerf(AL11.AL_GAIN, gain);
 		}
 		errorCheck();
 	}
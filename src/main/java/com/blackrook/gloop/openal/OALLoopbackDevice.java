@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.openal.SOFTLoopback;
+
+import com.blackrook.gloop.openal.exception.SoundException;
+import com.blackrook.gloop.openal.exception.SoundSystemException;
+
+/**
+ * A device that does not play anything, but renders its mix into memory on request (ALC_SOFT_loopback).
+ * Nothing is mixed until {@link #renderSamples(ByteBuffer, int)} is called, so mixing runs as fast as
+ * the caller asks for it, and no sound hardware is needed.
+ * <p>The output format is set when the device is created, and all of its contexts use it.
+ * Only one context is rendered at a time: the one most recently made current on this device.
+ * @author Matthew Tropiano
+ * @see OALSystem#createLoopbackDevice(int, RenderChannels, RenderType)
+ */
+public class OALLoopbackDevice extends OALDevice
+{
+	/**
+	 * Output channel layouts.
+	 */
+	public enum RenderChannels
+	{
+		MONO(SOFTLoopback.ALC_MONO_SOFT, 1),
+		STEREO(SOFTLoopback.ALC_STEREO_SOFT, 2),
+		QUAD(SOFTLoopback.ALC_QUAD_SOFT, 4),
+		SURROUND51(SOFTLoopback.ALC_5POINT1_SOFT, 6),
+		SURROUND61(SOFTLoopback.ALC_6POINT1_SOFT, 7),
+		SURROUND71(SOFTLoopback.ALC_7POINT1_SOFT, 8);
+
+		public final int alVal;
+		/** Number of channels. */
+		public final int channels;
+
+		private RenderChannels(int val, int channels)
+		{alVal = val; this.channels = channels;}
+	}
+
+	/**
+	 * Output sample types.
+	 */
+	public enum RenderType
+	{
+		BYTE(SOFTLoopback.ALC_BYTE_SOFT, 1),
+		UNSIGNED_BYTE(SOFTLoopback.ALC_UNSIGNED_BYTE_SOFT, 1),
+		SHORT(SOFTLoopback.ALC_SHORT_SOFT, 2),
+		UNSIGNED_SHORT(SOFTLoopback.ALC_UNSIGNED_SHORT_SOFT, 2),
+		INT(SOFTLoopback.ALC_INT_SOFT, 4),
+		UNSIGNED_INT(SOFTLoopback.ALC_UNSIGNED_INT_SOFT, 4),
+		FLOAT(SOFTLoopback.ALC_FLOAT_SOFT, 4);
+
+		public final int alVal;
+		/** Bytes per sample. */
+		public final int bytes;
+
+		private RenderType(int val, int bytes)
+		{alVal = val; this.bytes = bytes;}
+	}
+
+	/** Output sampling rate. */
+	private int frequency;
+	/** Output channels. */
+	private RenderChannels renderChannels;
+	/** Output sample type. */
+	private RenderType renderType;
+
+	// Loopback device.
+	OALLoopbackDevice(OALSystem system, int frequency, RenderChannels renderChannels, RenderType renderType)
+	{
+		super(system, "LOOPBACK", system.getBackend().alcLoopbackOpenDeviceSOFT());
+		if (!getBackend().alcIsRenderFormatSupportedSOFT(getHandle(), frequency, renderChannels.alVal, renderType.alVal))
+		{
+			destroy();
+			throw new SoundSystemException("Loopback device does not support rendering at " + frequency + "Hz, " + renderChannels.name() + ", " + renderType.name() + ".");
+		}
+		this.frequency = frequency;
+		this.renderChannels = renderChannels;
+		this.renderType = renderType;
+	}
+
+	/**
+	 * @return the output sampling rate.
+	 */
+	public int getFrequency()
+	{
+		return frequency;
+	}
+
+	/**
+	 * @return the output channel layout.
+	 */
+	public RenderChannels getRenderChannels()
+	{
+		return renderChannels;
+	}
+
+	/**
+	 * @return the output sample type.
+	 */
+	public RenderType getRenderType()
+	{
+		return renderType;
+	}
+
+	/**
+	 * @return the size of one sample frame (one sample on every channel) in bytes.
+	 */
+	public int getFrameSize()
+	{
+		return renderChannels.channels * renderType.bytes;
+	}
+
+	/**
+	 * Loopback devices have no output to move to, so they cannot be reopened.
+	 * @return false.
+	 */
+	@Override
+	public boolean isReopenSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * Creates a rendering context for this device, in this device's output format.
+	 * Frequency and format attributes are always set to this device's.
+	 * @param attributes the optional context attributes.
+	 * @return the newly created context.
+	 * @throws SoundSystemException if the context can't be created or there is no current context selected.
+	 */
+	@Override
+	public OALContext createContext(OALContext.AttributeValue ... attributes)
+	{
+		OALContext.AttributeValue[] all = new OALContext.AttributeValue[attributes.length + 3];
+		System.arraycopy(attributes, 0, all, 0, attributes.length);
+		all[attributes.length + 0] = OALContext.AttributeValue.create(OALContext.ContextAttribute.FREQUENCY, frequency);
+		all[attributes.length + 1] = OALContext.AttributeValue.create(OALContext.ContextAttribute.FORMAT_CHANNELS, renderChannels.alVal);
+		all[attributes.length + 2] = OALContext.AttributeValue.create(OALContext.ContextAttribute.FORMAT_TYPE, renderType.alVal);
+		return super.createContext(all);
+	}
+
+	/**
+	 * Mixes a set of sample frames and writes them into a buffer, at its position.
+	 * The buffer's position is advanced past the written samples. Multi-byte samples are in native byte order.
+	 * <p>This advances playback on this device by the amount of frames rendered, however long that takes in real time.
+	 * @param buffer the output buffer (must be direct).
+	 * @param frames the amount of sample frames to render.
+	 * @throws IllegalArgumentException if frames is less than 0, or the buffer is not direct.
+	 * @throws SoundException if the buffer does not have room for the rendered samples.
+	 */
+	public void renderSamples(ByteBuffer buffer, int frames)
+	{
+		if (frames < 0)
+			throw new IllegalArgumentException("Frames cannot be less than 0.");
+		if (!buffer.isDirect())
+			throw new IllegalArgumentException("Buffer must be direct.");
+		int length = frames * getFrameSize();
+		if (buffer.remaining() < length)
+			throw new SoundException("Buffer has room for " + (buffer.remaining() / getFrameSize()) + " frames - requested " + frames + ".");
+
+		getBackend().alcRenderSamplesSOFT(getHandle(), buffer, frames);
+		getContextError();
+		buffer.position(buffer.position() + length);
+	}
+
+	/**
+	 * Mixes as many whole sample frames as fit in a buffer, from its position to its limit.
+	 * The buffer's position is advanced past the written samples.
+	 * @param buffer the output buffer (must be direct).
+	 * @return the amount of frames rendered.
+	 * @throws IllegalArgumentException if the buffer is not direct.
+	 * @see #renderSamples(ByteBuffer, int)
+	 */
+	public int renderSamples(ByteBuffer buffer)
+	{
+		int frames = buffer.remaining() / getFrameSize();
+		renderSamples(buffer, frames);
+		return frames;
+	}
+
+}
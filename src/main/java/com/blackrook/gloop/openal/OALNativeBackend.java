@@ -0,0 +1,594 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.openal.AL;
+import org.lwjgl.openal.AL11;
+import org.lwjgl.openal.ALC;
+import org.lwjgl.openal.ALC11;
+import org.lwjgl.openal.ALCCapabilities;
+import org.lwjgl.openal.ALCapabilities;
+import org.lwjgl.openal.EXTEfx;
+import org.lwjgl.openal.EXTThreadLocalContext;
+import org.lwjgl.openal.SOFTCallbackBuffer;
+import org.lwjgl.openal.SOFTCallbackBufferType;
+import org.lwjgl.openal.SOFTDeferredUpdates;
+import org.lwjgl.openal.SOFTEventProc;
+import org.lwjgl.openal.SOFTEvents;
+import org.lwjgl.openal.SOFTLoopback;
+import org.lwjgl.openal.SOFTReopenDevice;
+import org.lwjgl.openal.SOFTSourceLatency;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * The default backend: calls LWJGL's OpenAL bindings, which call the native OpenAL library.
+ * @author Matthew Tropiano
+ */
+final class OALNativeBackend implements OALBackend
+{
+	/** The single instance. */
+	static final OALNativeBackend INSTANCE = new OALNativeBackend();
+
+	/**
+	 * A native buffer callback, which hands the mixer's memory to a provider.
+	 */
+	private static class BufferCallback implements CallbackHandle
+	{
+		private final PcmProvider provider;
+		private final SOFTCallbackBufferType callback;
+		/** The last memory address that the mixer asked to fill. */
+		private long address;
+		/** Reusable view of the mixer's memory. */
+		private ByteBuffer view;
+
+		private BufferCallback(PcmProvider provider)
+		{
+			this.provider = provider;
+			this.callback = SOFTCallbackBufferType.create((userPtr, sampleData, numBytes) -> fill(sampleData, numBytes));
+			this.address = 0L;
+			this.view = null;
+		}
+
+		// Called on the mixer thread.
+		private long fill(long sampleData, int numBytes)
+		{
+			ByteBuffer v = view;
+			if (v == null || sampleData != address || numBytes > v.capacity())
+			{
+				v = MemoryUtil.memByteBuffer(sampleData, numBytes);
+				view = v;
+				address = sampleData;
+			}
+			else
+			{
+				v.clear();
+				v.limit(numBytes);
+			}
+
+			try {
+				return Math.max(0, Math.min(numBytes, provider.fill(v)));
+			} catch (Throwable t) {
+				// can't throw into native code - end the stream.
+				return 0;
+			}
+		}
+
+		@Override
+		public void free()
+		{
+			callback.free();
+		}
+	}
+
+	private OALNativeBackend() {}
+
+	@Override
+	public long alcOpenDevice(String name)
+	{
+		return ALC11.alcOpenDevice(name);
+	}
+
+	@Override
+	public boolean alcCloseDevice(long device)
+	{
+		return ALC11.alcCloseDevice(device);
+	}
+
+	@Override
+	public ALCCapabilities alcCreateCapabilities(long device)
+	{
+		return ALC.createCapabilities(device);
+	}
+
+	@Override
+	public boolean alcIsExtensionPresent(long device, String extension)
+	{
+		return ALC11.alcIsExtensionPresent(device, extension);
+	}
+
+	@Override
+	public int alcGetInteger(long device, int param)
+	{
+		return ALC11.alcGetInteger(device, param);
+	}
+
+	@Override
+	public int alcGetError(long device)
+	{
+		return ALC11.alcGetError(device);
+	}
+
+	@Override
+	public String alcGetString(long device, int param)
+	{
+		return ALC11.alcGetString(device, param);
+	}
+
+	@Override
+	public boolean alcReopenDeviceSOFT(long device, String name, int[] attributes)
+	{
+		return SOFTReopenDevice.alcReopenDeviceSOFT(device, name, attributes);
+	}
+
+	@Override
+	public long alcLoopbackOpenDeviceSOFT()
+	{
+		return SOFTLoopback.alcLoopbackOpenDeviceSOFT((CharSequence)null);
+	}
+
+	@Override
+	public boolean alcIsRenderFormatSupportedSOFT(long device, int frequency, int channels, int type)
+	{
+		return SOFTLoopback.alcIsRenderFormatSupportedSOFT(device, frequency, channels, type);
+	}
+
+	@Override
+	public void alcRenderSamplesSOFT(long device, ByteBuffer buffer, int frames)
+	{
+		SOFTLoopback.alcRenderSamplesSOFT(device, buffer, frames);
+	}
+
+	@Override
+	public long alcCaptureOpenDevice(String name, int frequency, int format, int bufferFrames)
+	{
+		return ALC11.alcCaptureOpenDevice(name, frequency, format, bufferFrames);
+	}
+
+	@Override
+	public boolean alcCaptureCloseDevice(long device)
+	{
+		return ALC11.alcCaptureCloseDevice(device);
+	}
+
+	@Override
+	public void alcCaptureStart(long device)
+	{
+		ALC11.alcCaptureStart(device);
+	}
+
+	@Override
+	public void alcCaptureStop(long device)
+	{
+		ALC11.alcCaptureStop(device);
+	}
+
+	@Override
+	public void alcCaptureSamples(long device, ByteBuffer buffer, int frames)
+	{
+		ALC11.nalcCaptureSamples(device, MemoryUtil.memAddress(buffer), frames);
+	}
+
+	@Override
+	public long alcCreateContext(long device, int[] attributes)
+	{
+		return ALC11.alcCreateContext(device, attributes);
+	}
+
+	@Override
+	public ALCapabilities alCreateCapabilities(ALCCapabilities deviceCapabilities)
+	{
+		return AL.createCapabilities(deviceCapabilities);
+	}
+
+	@Override
+	public void alcDestroyContext(long context)
+	{
+		ALC11.alcDestroyContext(context);
+	}
+
+	@Override
+	public boolean alcMakeContextCurrent(long context)
+	{
+		return ALC11.alcMakeContextCurrent(context);
+	}
+
+	@Override
+	public boolean alcSetThreadContext(long context, ALCapabilities capabilities)
+	{
+		if (!EXTThreadLocalContext.alcSetThreadContext(context))
+			return false;
+		if (capabilities != null)
+			AL.setCurrentThread(capabilities);
+		return true;
+	}
+
+	@Override
+	public void alcSuspendContext(long context)
+	{
+		ALC11.alcSuspendContext(context);
+	}
+
+	@Override
+	public void alcProcessContext(long context)
+	{
+		ALC11.alcProcessContext(context);
+	}
+
+	@Override
+	public int alGetError()
+	{
+		return AL11.alGetError();
+	}
+
+	@Override
+	public String alGetString(int param)
+	{
+		return AL11.alGetString(param);
+	}
+
+	@Override
+	public float alGetFloat(int param)
+	{
+		return AL11.alGetFloat(param);
+	}
+
+	@Override
+	public void alDopplerFactor(float value)
+	{
+		AL11.alDopplerFactor(value);
+	}
+
+	@Override
+	public void alDopplerVelocity(float value)
+	{
+		AL11.alDopplerVelocity(value);
+	}
+
+	@Override
+	public void alDistanceModel(int model)
+	{
+		AL11.alDistanceModel(model);
+	}
+
+	@Override
+	public void alDeferUpdatesSOFT()
+	{
+		SOFTDeferredUpdates.alDeferUpdatesSOFT();
+	}
+
+	@Override
+	public void alProcessUpdatesSOFT()
+	{
+		SOFTDeferredUpdates.alProcessUpdatesSOFT();
+	}
+
+	@Override
+	public CallbackHandle alEventCallbackSOFT(EventHandler handler)
+	{
+		if (handler == null)
+		{
+			// OpenAL waits for a running callback to finish before replacing it.
+			SOFTEvents.nalEventCallbackSOFT(0L, 0L);
+			return null;
+		}
+		SOFTEventProc callback = SOFTEventProc.create((type, object, param, length, message, userParam) -> handler.handleEvent(type, object, param));
+		SOFTEvents.alEventCallbackSOFT(callback, null);
+		return callback::free;
+	}
+
+	@Override
+	public void alEventControlSOFT(int[] types, boolean enable)
+	{
+		SOFTEvents.alEventControlSOFT(types, enable);
+	}
+
+	@Override
+	public void alListenerf(int param, float value)
+	{
+		AL11.alListenerf(param, value);
+	}
+
+	@Override
+	public void alListenerfv(int param, float[] values)
+	{
+		AL11.alListenerfv(param, values);
+	}
+
+	@Override
+	public int alGenSources()
+	{
+		return AL11.alGenSources();
+	}
+
+	@Override
+	public void alGenSources(int[] names)
+	{
+		AL11.alGenSources(names);
+	}
+
+	@Override
+	public void alDeleteSources(int name)
+	{
+		AL11.alDeleteSources(name);
+	}
+
+	@Override
+	public void alDeleteSources(int[] names)
+	{
+		AL11.alDeleteSources(names);
+	}
+
+	@Override
+	public void alSourcef(int source, int param, float value)
+	{
+		AL11.alSourcef(source, param, value);
+	}
+
+	@Override
+	public void alSourcei(int source, int param, int value)
+	{
+		AL11.alSourcei(source, param, value);
+	}
+
+	@Override
+	public void alSource3i(int source, int param, int value1, int value2, int value3)
+	{
+		AL11.alSource3i(source, param, value1, value2, value3);
+	}
+
+	@Override
+	public void alSourcefv(int source, int param, float[] values)
+	{
+		AL11.alSourcefv(source, param, values);
+	}
+
+	@Override
+	public float alGetSourcef(int source, int param)
+	{
+		return AL11.alGetSourcef(source, param);
+	}
+
+	@Override
+	public int alGetSourcei(int source, int param)
+	{
+		return AL11.alGetSourcei(source, param);
+	}
+
+	@Override
+	public void alGetSourcedvSOFT(int source, int param, double[] values)
+	{
+		SOFTSourceLatency.alGetSourcedvSOFT(source, param, values);
+	}
+
+	@Override
+	public void alSourcePlay(int source)
+	{
+		AL11.alSourcePlay(source);
+	}
+
+	@Override
+	public void alSourcePause(int source)
+	{
+		AL11.alSourcePause(source);
+	}
+
+	@Override
+	public void alSourceStop(int source)
+	{
+		AL11.alSourceStop(source);
+	}
+
+	@Override
+	public void alSourceRewind(int source)
+	{
+		AL11.alSourceRewind(source);
+	}
+
+	@Override
+	public void alSourcePlayv(IntBuffer sources)
+	{
+		AL11.alSourcePlayv(sources);
+	}
+
+	@Override
+	public void alSourcePausev(IntBuffer sources)
+	{
+		AL11.alSourcePausev(sources);
+	}
+
+	@Override
+	public void alSourceStopv(IntBuffer sources)
+	{
+		AL11.alSourceStopv(sources);
+	}
+
+	@Override
+	public void alSourceRewindv(IntBuffer sources)
+	{
+		AL11.alSourceRewindv(sources);
+	}
+
+	@Override
+	public void alSourceQueueBuffers(int source, int buffer)
+	{
+		AL11.alSourceQueueBuffers(source, buffer);
+	}
+
+	@Override
+	public int alSourceUnqueueBuffers(int source)
+	{
+		return AL11.alSourceUnqueueBuffers(source);
+	}
+
+	@Override
+	public int alGenBuffers()
+	{
+		return AL11.alGenBuffers();
+	}
+
+	@Override
+	public void alGenBuffers(int[] names)
+	{
+		AL11.alGenBuffers(names);
+	}
+
+	@Override
+	public void alDeleteBuffers(int name)
+	{
+		AL11.alDeleteBuffers(name);
+	}
+
+	@Override
+	public void alDeleteBuffers(int[] names)
+	{
+		AL11.alDeleteBuffers(names);
+	}
+
+	@Override
+	public void alBufferi(int buffer, int param, int value)
+	{
+		AL11.alBufferi(buffer, param, value);
+	}
+
+	@Override
+	public void alBufferData(int buffer, int format, ByteBuffer data, int frequency)
+	{
+		AL11.alBufferData(buffer, format, data, frequency);
+	}
+
+	@Override
+	public CallbackHandle alBufferCallbackSOFT(int buffer, int format, int frequency, PcmProvider provider)
+	{
+		BufferCallback callback = new BufferCallback(provider);
+		// LWJGL requires a non-null user pointer - it is unused, so pass the callback's own address.
+		SOFTCallbackBuffer.alBufferCallbackSOFT(buffer, format, frequency, callback.callback, callback.callback.address());
+		return callback;
+	}
+
+	@Override
+	public int alGenEffects()
+	{
+		return EXTEfx.alGenEffects();
+	}
+
+	@Override
+	public void alGenEffects(int[] names)
+	{
+		EXTEfx.alGenEffects(names);
+	}
+
+	@Override
+	public void alDeleteEffects(int name)
+	{
+		EXTEfx.alDeleteEffects(name);
+	}
+
+	@Override
+	public void alDeleteEffects(int[] names)
+	{
+		EXTEfx.alDeleteEffects(names);
+	}
+
+	@Override
+	public void alEffecti(int effect, int param, int value)
+	{
+		EXTEfx.alEffecti(effect, param, value);
+	}
+
+	@Override
+	public void alEffectf(int effect, int param, float value)
+	{
+		EXTEfx.alEffectf(effect, param, value);
+	}
+
+	@Override
+	public int alGenFilters()
+	{
+		return EXTEfx.alGenFilters();
+	}
+
+	@Override
+	public void alGenFilters(int[] names)
+	{
+		EXTEfx.alGenFilters(names);
+	}
+
+	@Override
+	public void alDeleteFilters(int name)
+	{
+		EXTEfx.alDeleteFilters(name);
+	}
+
+	@Override
+	public void alDeleteFilters(int[] names)
+	{
+		EXTEfx.alDeleteFilters(names);
+	}
+
+	@Override
+	public void alFilteri(int filter, int param, int value)
+	{
+		EXTEfx.alFilteri(filter, param, value);
+	}
+
+	@Override
+	public void alFilterf(int filter, int param, float value)
+	{
+		EXTEfx.alFilterf(filter, param, value);
+	}
+
+	@Override
+	public int alGenAuxiliaryEffectSlots()
+	{
+		return EXTEfx.alGenAuxiliaryEffectSlots();
+	}
+
+	@Override
+	public void alGenAuxiliaryEffectSlots(int[] names)
+	{
+		EXTEfx.alGenAuxiliaryEffectSlots(names);
+	}
+
+	@Override
+	public void alDeleteAuxiliaryEffectSlots(int name)
+	{
+		EXTEfx.alDeleteAuxiliaryEffectSlots(name);
+	}
+
+	@Override
+	public void alDeleteAuxiliaryEffectSlots(int[] names)
+	{
+		EXTEfx.alDeleteAuxiliaryEffectSlots(names);
+	}
+
+	@Override
+	public void alAuxiliaryEffectSloti(int slot, int param, int value)
+	{
+		EXTEfx.alAuxiliaryEffectSloti(slot, param, value);
+	}
+
+	@Override
+	public void alAuxiliaryEffectSlotf(int slot, int param, float value)
+	{
+		EXTEfx.alAuxiliaryEffectSlotf(slot, param, value);
+	}
+
+}
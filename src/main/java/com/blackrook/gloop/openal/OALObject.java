@@ -7,8 +7,6 @@
  ******************************************************************************/
 package com.blackrook.gloop.openal;
 
-import org.lwjgl.openal.AL11;
-
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
 import com.blackrook.gloop.openal.exception.SoundException;
 
@@ -22,6 +20,8 @@ public abstract class OALObject
 {
 	/** This object's owning context. */
 	private OALContext context;
+	/** The backend that OpenAL calls go through. */
+	private OALBackend backend;
 	/** This object's ALId. */
 	private int alId;
 	/** Was this object allocated? */
@@ -34,12 +34,29 @@ public abstract class OALObject
 	protected OALObject(OALContext context)
 	{
 		this.context = context;
-		clearError();
-		this.alId = allocate(); 
+		this.backend = context.getBackend();
+		int reserved = context.takeReservedName(this);
+		this.alId = reserved != 0 ? reserved : allocate(); 
 		context.registerObject(this);
 		this.allocated = true; 
 	}
 	
+	/**
+	 * @return the context that owns this object, or null if this object was destroyed.
+	 */
+	public final OALContext getContext()
+	{
+		return context;
+	}
+	
+	/**
+	 * @return true if this object is allocated (not destroyed), false if not.
+	 */
+	public final boolean isCreated()
+	{
+		return allocated;
+	}
+	
 	/**
 	 * @return this OALObject's OpenAL object id.
 	 */
@@ -81,13 +98,38 @@ public abstract class OALObject
 		if (allocated)
 		{
 			free();
-			alId = 0;
 			context.unregisterObject(this);
+			deleted();
+			alId = 0;
 			context = null;
 		}
 		allocated = false;
 	}
 
+	/**
+	 * Marks this object as destroyed without freeing it in OpenAL or unregistering it.
+	 * Called by the context for objects that were deleted in bulk.
+	 * @param deleted true if OpenAL deleted the object, false if the deletion failed 
+	 * 		(anything OpenAL may still use is then not released).
+	 */
+	final void invalidate(boolean deleted)
+	{
+		if (deleted)
+			deleted();
+		alId = 0;
+		context = null;
+		allocated = false;
+	}
+	
+	/**
+	 * Called after this object is deleted in OpenAL, for releasing anything held on the Java side.
+	 * Does nothing by default.
+	 */
+	void deleted()
+	{
+		// Do nothing.
+	}
+	
 	/**	 
 	 * Allocates a new type of this object in OpenAL.
 	 * Called by OALObject constructor.
@@ -103,6 +145,14 @@ public abstract class OALObject
 	 */
 	protected abstract void free();
 	
+	/**
+	 * @return the backend that this object's calls to OpenAL go through (the same as its context's).
+	 */
+	protected final OALBackend getBackend()
+	{
+		return backend;
+	}
+	
 	/**
 	 * Sets a new context as current, in order to hold a context as current for an AL call.
 	 * @return a context lock for notifying releasing control of the thread.
@@ -114,24 +164,21 @@ public abstract class OALObject
 	
 	/**
 	 * Convenience method for clearing the OpenAL error state.
+	 * Follows the context's error policy (see {@link OALContext#setErrorPolicy(OALContext.ErrorPolicy)}).
 	 */
 	protected void clearError()
 	{
-		int err;
-		do {
-			err = AL11.alGetError();
-		} while (err != AL11.AL_NO_ERROR);
+		context.clearErrorState();
 	}
 
 	/**
 	 * Convenience method for checking for an OpenAL error and throwing a SoundException
-	 * if an error is raised. 
+	 * if an error is raised. Follows the context's error policy (see {@link OALContext#setErrorPolicy(OALContext.ErrorPolicy)}).
+	 * @throws SoundException if an error was found and the policy throws.
 	 */
 	protected final void errorCheck()
 	{
-		int error = AL11.alGetError();
-		if (error != AL11.AL_NO_ERROR)
-			throw new SoundException("Object " + getClass().getSimpleName() + ": AL returned \"" + AL11.alGetString(error) + "\"");
+		context.checkErrorState(getClass());
 	}
 	
 	@Override
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of OpenAL objects by their OpenAL names.
+ * <p>This is an open-addressed hash table keyed by primitive int, so adding and removing
+ * objects does not box names or allocate entries. Changes are synchronized, but lookups
+ * are lock-free: a lookup that races with a change may miss an object that is being added,
+ * but never returns an object under the wrong name.
+ * <p>Name 0 is never a valid OpenAL name, so it marks an empty slot. Removed objects leave their name
+ * in the slot with no object (a "tombstone") so that probing continues past it, and these are dropped
+ * when the table is rebuilt.
+ * @author Matthew Tropiano
+ * @param <O> the object type.
+ */
+final class OALObjectRegistry<O extends OALObject>
+{
+	/** Default starting capacity. */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * A single table. Replaced as a whole when rebuilt.
+	 */
+	private static class Table<O>
+	{
+		private final AtomicIntegerArray names;
+		private final AtomicReferenceArray<O> objects;
+		private final int mask;
+		/** Shift that keeps the top bits of a hash for a slot index. */
+		private final int shift;
+
+		private Table(int capacity)
+		{
+			this.names = new AtomicIntegerArray(capacity);
+			this.objects = new AtomicReferenceArray<>(capacity);
+			this.mask = capacity - 1;
+			this.shift = Integer.numberOfLeadingZeros(mask);
+		}
+	}
+
+	/** The current table. */
+	private volatile Table<O> table;
+	/** Amount of objects. */
+	private int size;
+	/** Amount of used slots (objects plus tombstones). */
+	private int used;
+
+	/**
+	 * Creates a new registry.
+	 */
+	OALObjectRegistry()
+	{
+		this.table = new Table<>(DEFAULT_CAPACITY);
+		this.size = 0;
+		this.used = 0;
+	}
+
+	// Fibonacci hashing spreads sequential names (which OpenAL likes to hand out) across the table.
+	// The top bits of the product are the well-mixed ones, so those make the slot index.
+	private static int slot(int name, Table<?> t)
+	{
+		return (name * 0x9E3779B9) >>> t.shift;
+	}
+
+	/**
+	 * Gets an object by its name. Does not lock.
+	 * @param name the OpenAL name.
+	 * @return the corresponding object, or null if none.
+	 */
+	O get(int name)
+	{
+		if (name == 0)
+			return null;
+
+		Table<O> t = table;
+		int i = slot(name, t);
+		for (int n = 0; n <= t.mask; n++, i = (i + 1) & t.mask)
+		{
+			int slotName = t.names.get(i);
+			if (slotName == 0)
+				return null;
+			else if (slotName == name)
+			{
+				O out = t.objects.get(i);
+				// slot reused for a different name between reads?
+				return t.names.get(i) == name ? out : null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an object under its name, replacing the object under the same name, if any.
+	 * @param object the object to add.
+	 */
+	synchronized void put(O object)
+	{
+		int name = object.getName();
+		Table<O> t = table;
+		int i = slot(name, t);
+		int tombstone = -1;
+		for (int n = 0; n <= t.mask; n++, i = (i + 1) & t.mask)
+		{
+			int slotName = t.names.get(i);
+			if (slotName == 0)
+				break;
+			else if (slotName == name)
+			{
+				if (t.objects.get(i) == null)
+					size++;
+				t.objects.set(i, object);
+				return;
+			}
+			else if (tombstone < 0 && t.objects.get(i) == null)
+				tombstone = i;
+		}
+
+		if (tombstone >= 0)
+		{
+			// name before object, so a lookup for the tombstone's old name can never see the new object.
+			t.names.set(tombstone, name);
+			t.objects.set(tombstone, object);
+			size++;
+		}
+		else
+		{
+			t.names.set(i, name);
+			t.objects.set(i, object);
+			size++;
+			if (++used * 2 > t.mask + 1)
+				rebuild();
+		}
+	}
+
+	/**
+	 * Removes an object under its name.
+	 * @param object the object to remove.
+	 * @return true if removed, false if it was not in this registry.
+	 */
+	synchronized boolean remove(O object)
+	{
+		int name = object.getName();
+		Table<O> t = table;
+		int i = slot(name, t);
+		for (int n = 0; n <= t.mask; n++, i = (i + 1) & t.mask)
+		{
+			int slotName = t.names.get(i);
+			if (slotName == 0)
+				return false;
+			else if (slotName == name)
+			{
+				if (t.objects.get(i) != object)
+					return false;
+				t.objects.set(i, null);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the amount of objects in this registry.
+	 */
+	synchronized int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns all of the objects in this registry.
+	 * @return a new array of all of the objects.
+	 */
+	synchronized OALObject[] toArray()
+	{
+		Table<O> t = table;
+		OALObject[] out = new OALObject[size];
+		int x = 0;
+		for (int i = 0; i <= t.mask; i++)
+		{
+			O object = t.objects.get(i);
+			if (object != null)
+				out[x++] = object;
+		}
+		return out;
+	}
+
+	/**
+	 * Removes all objects.
+	 */
+	synchronized void clear()
+	{
+		table = new Table<>(DEFAULT_CAPACITY);
+		size = 0;
+		used = 0;
+	}
+
+	// Rebuilds the table without tombstones, growing it if it is still more than a quarter full.
+	private void rebuild()
+	{
+		Table<O> t = table;
+		int capacity = t.mask + 1;
+		if (size * 4 > capacity)
+			capacity *= 2;
+
+		Table<O> next = new Table<>(capacity);
+		for (int i = 0; i <= t.mask; i++)
+		{
+			O object = t.objects.get(i);
+			if (object == null)
+				continue;
+			int name = t.names.get(i);
+			int j = slot(name, next);
+			while (next.names.get(j) != 0)
+				j = (j + 1) & next.mask;
+			next.names.set(j, name);
+			next.objects.set(j, object);
+		}
+		used = size;
+		table = next;
+	}
+
+}
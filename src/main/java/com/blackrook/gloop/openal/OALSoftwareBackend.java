@@ -0,0 +1,2752 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lwjgl.openal.AL11;
+import org.lwjgl.openal.ALC11;
+import org.lwjgl.openal.ALCCapabilities;
+import org.lwjgl.openal.ALCapabilities;
+import org.lwjgl.openal.EXTDisconnect;
+import org.lwjgl.openal.EXTEfx;
+import org.lwjgl.openal.EXTFloat32;
+import org.lwjgl.openal.SOFTBlockAlignment;
+import org.lwjgl.openal.SOFTLoopback;
+import org.lwjgl.openal.SOFTSourceLatency;
+
+/**
+ * An OpenAL backend that mixes in Java, and needs no native OpenAL library or sound hardware.
+ * It is meant as a deterministic reference for tests and benchmarks, so that the cost of this
+ * library can be measured apart from the cost of a driver.
+ * <p>Playback devices mix on their own thread, one period at a time, into 16-bit stereo, and hand each period
+ * to a {@link PcmConsumer} (or drop it, if there is none). Loopback devices (ALC_SOFT_loopback) mix on request,
+ * and support every render type. Capture devices and device reopening are not supported.
+ * <p>Mixing covers what AL 1.1 describes: buffer queues, looping, offsets, pitch, the distance models, cones,
+ * Doppler shift, and stereo panning. The gain of a direct filter is applied; the rest of EFX (effects,
+ * effect slots, and sends) is accepted and checked, but not rendered. Also supported are AL_EXT_FLOAT32,
+ * AL_SOFT_callback_buffer, AL_SOFT_deferred_updates, AL_SOFT_source_latency, and ALC_EXT_thread_local_context.
+ * <p>Each device has one lock, held by OpenAL calls on its objects and by its mixer for the duration of a period.
+ * @author Matthew Tropiano
+ */
+public final class OALSoftwareBackend implements OALBackend
+{
+	/** Default playback frequency in Hz. */
+	public static final int DEFAULT_FREQUENCY = 48000;
+	/** Default mixing period in sample frames. */
+	public static final int DEFAULT_PERIOD_FRAMES = 1024;
+
+	/** The only device name. */
+	private static final String DEVICE_NAME = "Gloop Software Mixer";
+	/** Supported ALC extensions. */
+	private static final String ALC_EXTENSIONS = "ALC_EXT_EFX ALC_EXT_thread_local_context ALC_SOFT_loopback";
+	/** Supported AL extensions. */
+	private static final String AL_EXTENSIONS = "AL_EXT_FLOAT32 AL_SOFT_callback_buffer AL_SOFT_deferred_updates AL_SOFT_source_latency";
+	/** AL_DOPPLER_VELOCITY (AL 1.0, deprecated). */
+	private static final int AL_DOPPLER_VELOCITY = 0xC001;
+	/** Gain parameter of every filter type. */
+	private static final int AL_FILTER_GAIN = EXTEfx.AL_LOWPASS_GAIN;
+	/** Auxiliary sends per source. */
+	private static final int MAX_SENDS = 2;
+	/** Default mono source count, as in OpenAL Soft. */
+	private static final int DEFAULT_MONO_SOURCES = 255;
+	/** Default stereo source count, as in OpenAL Soft. */
+	private static final int DEFAULT_STEREO_SOURCES = 1;
+	/** Highest resampling step (pitch times frequency ratio). */
+	private static final double MAX_STEP = 16.0;
+	/** Panning gain of a centered source. */
+	private static final float CENTER_GAIN = (float)Math.sqrt(0.5);
+	/** No samples. */
+	private static final float[] NO_SAMPLES = new float[0];
+
+	/** Playback frequency. */
+	private final int frequency;
+	/** Frames mixed at a time. */
+	private final int periodFrames;
+	/** Receiver of mixed playback periods (can be null). */
+	private final PcmConsumer output;
+
+	/** Sequence for device and context handles. */
+	private final AtomicLong handleSequence;
+	/** Open devices. */
+	private final Map<Long, Device> devices;
+	/** Live contexts. */
+	private final Map<Long, Context> contexts;
+	/** Contexts made current on a thread (ALC_EXT_thread_local_context). */
+	private final ThreadLocal<Context> threadContext;
+	/** Context made current on the process. */
+	private volatile Context processContext;
+	/** ALC error for calls without a valid device. */
+	private volatile int alcError;
+
+	/**
+	 * Creates a software backend that plays at {@value #DEFAULT_FREQUENCY} Hz
+	 * in periods of {@value #DEFAULT_PERIOD_FRAMES} frames, and drops what it plays.
+	 */
+	public OALSoftwareBackend()
+	{
+		this(DEFAULT_FREQUENCY, DEFAULT_PERIOD_FRAMES, null);
+	}
+
+	/**
+	 * Creates a software backend.
+	 * @param frequency the playback frequency in Hz.
+	 * @param periodFrames the amount of sample frames mixed at a time, on playback and loopback devices.
+	 * @param output the receiver of each mixed playback period, as native-order 16-bit stereo samples. Can be null.
+	 * @throws IllegalArgumentException if frequency or periodFrames is less than 1.
+	 */
+	public OALSoftwareBackend(int frequency, int periodFrames, PcmConsumer output)
+	{
+		if (frequency < 1)
+			throw new IllegalArgumentException("Frequency must be 1 or greater.");
+		if (periodFrames < 1)
+			throw new IllegalArgumentException("Period frames must be 1 or greater.");
+		this.frequency = frequency;
+		this.periodFrames = periodFrames;
+		this.output = output;
+		this.handleSequence = new AtomicLong(0L);
+		this.devices = new ConcurrentHashMap<>();
+		this.contexts = new ConcurrentHashMap<>();
+		this.threadContext = new ThreadLocal<>();
+		this.processContext = null;
+		this.alcError = ALC11.ALC_NO_ERROR;
+	}
+
+	/**
+	 * @return the playback frequency in Hz.
+	 */
+	public int getFrequency()
+	{
+		return frequency;
+	}
+
+	/**
+	 * @return the amount of sample frames mixed at a time.
+	 */
+	public int getPeriodFrames()
+	{
+		return periodFrames;
+	}
+
+	// Gets the current context of the calling thread, or null if none.
+	private Context current()
+	{
+		Context out = threadContext.get();
+		if (out == null)
+			out = processContext;
+		return out != null && !out.destroyed ? out : null;
+	}
+
+	// Gets a device, or sets ALC_INVALID_DEVICE and returns null.
+	private Device device(long handle)
+	{
+		Device out = handle != 0L ? devices.get(handle) : null;
+		if (out == null)
+			alcError = ALC11.ALC_INVALID_DEVICE;
+		return out;
+	}
+
+	// Gets a context by handle, or sets ALC_INVALID_CONTEXT and returns null.
+	private Context context(long handle)
+	{
+		Context out = handle != 0L ? contexts.get(handle) : null;
+		if (out == null)
+			alcError = ALC11.ALC_INVALID_CONTEXT;
+		return out;
+	}
+
+	// ======================= Devices =======================
+
+	@Override
+	public long alcOpenDevice(String name)
+	{
+		if (name != null && !DEVICE_NAME.equals(name))
+		{
+			alcError = ALC11.ALC_INVALID_VALUE;
+			return 0L;
+		}
+		Device device = new Device(DEVICE_NAME, false);
+		devices.put(device.handle, device);
+		device.mixer = new MixerThread(device);
+		device.mixer.start();
+		return device.handle;
+	}
+
+	@Override
+	public boolean alcCloseDevice(long device)
+	{
+		Device d = device(device);
+		if (d == null)
+			return false;
+		if (d.mixer != null)
+			d.mixer.shutdown();
+		synchronized (d)
+		{
+			for (Context c : new ArrayList<>(d.contexts))
+				destroy(c);
+		}
+		devices.remove(device);
+		return true;
+	}
+
+	@Override
+	public ALCCapabilities alcCreateCapabilities(long device)
+	{
+		return null;
+	}
+
+	@Override
+	public boolean alcIsExtensionPresent(long device, String extension)
+	{
+		if (extension == null)
+			return false;
+		for (String s : ALC_EXTENSIONS.split(" "))
+			if (s.equalsIgnoreCase(extension))
+				return true;
+		return false;
+	}
+
+	@Override
+	public int alcGetInteger(long device, int param)
+	{
+		if (param == ALC11.ALC_MAJOR_VERSION)
+			return 1;
+		else if (param == ALC11.ALC_MINOR_VERSION)
+			return 1;
+
+		Device d = device(device);
+		if (d == null)
+			return 0;
+		synchronized (d)
+		{
+			switch (param)
+			{
+				case ALC11.ALC_FREQUENCY:
+					return d.frequency;
+				case ALC11.ALC_REFRESH:
+					return d.frequency / periodFrames;
+				case ALC11.ALC_SYNC:
+					return ALC11.ALC_FALSE;
+				case ALC11.ALC_MONO_SOURCES:
+					return d.monoSources;
+				case ALC11.ALC_STEREO_SOURCES:
+					return d.stereoSources;
+				case EXTEfx.ALC_MAX_AUXILIARY_SENDS:
+					return MAX_SENDS;
+				case EXTEfx.ALC_EFX_MAJOR_VERSION:
+					return 1;
+				case EXTEfx.ALC_EFX_MINOR_VERSION:
+					return 0;
+				case EXTDisconnect.ALC_CONNECTED:
+					return ALC11.ALC_TRUE;
+				default:
+					d.setError(ALC11.ALC_INVALID_ENUM);
+					return 0;
+			}
+		}
+	}
+
+	@Override
+	public int alcGetError(long device)
+	{
+		Device d = device != 0L ? devices.get(device) : null;
+		int out;
+		if (d != null) synchronized (d)
+		{
+			out = d.error;
+			d.error = ALC11.ALC_NO_ERROR;
+		}
+		else
+		{
+			out = alcError;
+			alcError = ALC11.ALC_NO_ERROR;
+		}
+		return out;
+	}
+
+	@Override
+	public String alcGetString(long device, int param)
+	{
+		switch (param)
+		{
+			case ALC11.ALC_NO_ERROR:
+				return "No Error";
+			case ALC11.ALC_INVALID_DEVICE:
+				return "Invalid Device";
+			case ALC11.ALC_INVALID_CONTEXT:
+				return "Invalid Context";
+			case ALC11.ALC_INVALID_ENUM:
+				return "Invalid Enum";
+			case ALC11.ALC_INVALID_VALUE:
+				return "Invalid Value";
+			case ALC11.ALC_OUT_OF_MEMORY:
+				return "Out of Memory";
+			case ALC11.ALC_DEFAULT_DEVICE_SPECIFIER:
+			case ALC11.ALC_DEVICE_SPECIFIER:
+			case ALC11.ALC_DEFAULT_ALL_DEVICES_SPECIFIER:
+			case ALC11.ALC_ALL_DEVICES_SPECIFIER:
+				return DEVICE_NAME;
+			case ALC11.ALC_EXTENSIONS:
+				return ALC_EXTENSIONS;
+			default:
+				alcError = ALC11.ALC_INVALID_ENUM;
+				return null;
+		}
+	}
+
+	@Override
+	public boolean alcReopenDeviceSOFT(long device, String name, int[] attributes)
+	{
+		Device d = device(device);
+		if (d != null) synchronized (d)
+		{
+			d.setError(ALC11.ALC_INVALID_DEVICE);
+		}
+		return false;
+	}
+
+	@Override
+	public long alcLoopbackOpenDeviceSOFT()
+	{
+		Device device = new Device(DEVICE_NAME, true);
+		devices.put(device.handle, device);
+		return device.handle;
+	}
+
+	@Override
+	public boolean alcIsRenderFormatSupportedSOFT(long device, int frequency, int channels, int type)
+	{
+		Device d = device(device);
+		if (d == null || !d.loopback)
+			return false;
+		return frequency > 0 && renderChannels(channels) > 0 && renderSampleBytes(type) > 0;
+	}
+
+	@Override
+	public void alcRenderSamplesSOFT(long device, ByteBuffer buffer, int frames)
+	{
+		Device d = device(device);
+		if (d == null)
+			return;
+		synchronized (d)
+		{
+			if (!d.loopback || d.frequency == 0)
+			{
+				d.setError(ALC11.ALC_INVALID_DEVICE);
+				return;
+			}
+			if (frames < 0 || buffer.remaining() < frames * d.channels * renderSampleBytes(d.type))
+			{
+				d.setError(ALC11.ALC_INVALID_VALUE);
+				return;
+			}
+			ByteOrder order = buffer.order();
+			buffer.order(ByteOrder.nativeOrder());
+			try {
+				d.render(buffer, buffer.position(), frames);
+			} finally {
+				buffer.order(order);
+			}
+		}
+	}
+
+	@Override
+	public long alcCaptureOpenDevice(String name, int frequency, int format, int bufferFrames)
+	{
+		alcError = ALC11.ALC_INVALID_VALUE;
+		return 0L;
+	}
+
+	@Override
+	public boolean alcCaptureCloseDevice(long device)
+	{
+		alcError = ALC11.ALC_INVALID_DEVICE;
+		return false;
+	}
+
+	@Override
+	public void alcCaptureStart(long device)
+	{
+		alcError = ALC11.ALC_INVALID_DEVICE;
+	}
+
+	@Override
+	public void alcCaptureStop(long device)
+	{
+		alcError = ALC11.ALC_INVALID_DEVICE;
+	}
+
+	@Override
+	public void alcCaptureSamples(long device, ByteBuffer buffer, int frames)
+	{
+		alcError = ALC11.ALC_INVALID_DEVICE;
+	}
+
+	// ======================= Contexts =======================
+
+	@Override
+	public long alcCreateContext(long device, int[] attributes)
+	{
+		Device d = device(device);
+		if (d == null)
+			return 0L;
+
+		int monoSources = DEFAULT_MONO_SOURCES;
+		int stereoSources = DEFAULT_STEREO_SOURCES;
+		int renderFrequency = 0;
+		int renderChannels = 0;
+		int renderType = 0;
+		for (int i = 0; attributes != null && i + 1 < attributes.length && attributes[i] != 0; i += 2)
+		{
+			switch (attributes[i])
+			{
+				case ALC11.ALC_MONO_SOURCES:
+					monoSources = attributes[i + 1];
+					break;
+				case ALC11.ALC_STEREO_SOURCES:
+					stereoSources = attributes[i + 1];
+					break;
+				case ALC11.ALC_FREQUENCY:
+					renderFrequency = attributes[i + 1];
+					break;
+				case SOFTLoopback.ALC_FORMAT_CHANNELS_SOFT:
+					renderChannels = attributes[i + 1];
+					break;
+				case SOFTLoopback.ALC_FORMAT_TYPE_SOFT:
+					renderType = attributes[i + 1];
+					break;
+				default:
+					break;
+			}
+		}
+
+		synchronized (d)
+		{
+			if (monoSources < 0 || stereoSources < 0)
+			{
+				d.setError(ALC11.ALC_INVALID_VALUE);
+				return 0L;
+			}
+			if (d.loopback)
+			{
+				if (renderFrequency <= 0 || renderChannels(renderChannels) == 0 || renderSampleBytes(renderType) == 0)
+				{
+					d.setError(ALC11.ALC_INVALID_VALUE);
+					return 0L;
+				}
+				d.frequency = renderFrequency;
+				d.channels = renderChannels(renderChannels);
+				d.type = renderType;
+			}
+			d.monoSources = monoSources;
+			d.stereoSources = stereoSources;
+			Context context = new Context(d);
+			d.contexts.add(context);
+			contexts.put(context.handle, context);
+			return context.handle;
+		}
+	}
+
+	@Override
+	public ALCapabilities alCreateCapabilities(ALCCapabilities deviceCapabilities)
+	{
+		return null;
+	}
+
+	@Override
+	public void alcDestroyContext(long context)
+	{
+		Context c = context(context);
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			destroy(c);
+		}
+	}
+
+	// Destroys a context. Called with the device's lock held.
+	private void destroy(Context context)
+	{
+		for (int i = 0; i < context.sources.length(); i++)
+		{
+			Source s = context.sources.at(i);
+			if (s != null)
+				s.clearQueue();
+		}
+		context.destroyed = true;
+		context.device.contexts.remove(context);
+		contexts.remove(context.handle);
+		if (processContext == context)
+			processContext = null;
+	}
+
+	@Override
+	public boolean alcMakeContextCurrent(long context)
+	{
+		Context c = null;
+		if (context != 0L && (c = context(context)) == null)
+			return false;
+		processContext = c;
+		threadContext.remove();
+		return true;
+	}
+
+	@Override
+	public boolean alcSetThreadContext(long context, ALCapabilities capabilities)
+	{
+		Context c = null;
+		if (context != 0L && (c = context(context)) == null)
+			return false;
+		if (c != null)
+			threadContext.set(c);
+		else
+			threadContext.remove();
+		return true;
+	}
+
+	@Override
+	public void alcSuspendContext(long context)
+	{
+		// Like OpenAL Soft, suspending does not pause the mix.
+		context(context);
+	}
+
+	@Override
+	public void alcProcessContext(long context)
+	{
+		context(context);
+	}
+
+	// ======================= State =======================
+
+	@Override
+	public int alGetError()
+	{
+		Context c = current();
+		if (c == null)
+			return AL11.AL_INVALID_OPERATION;
+		synchronized (c.device)
+		{
+			int out = c.error;
+			c.error = AL11.AL_NO_ERROR;
+			return out;
+		}
+	}
+
+	@Override
+	public String alGetString(int param)
+	{
+		switch (param)
+		{
+			case AL11.AL_NO_ERROR:
+				return "No Error";
+			case AL11.AL_INVALID_NAME:
+				return "Invalid Name";
+			case AL11.AL_INVALID_ENUM:
+				return "Invalid Enum";
+			case AL11.AL_INVALID_VALUE:
+				return "Invalid Value";
+			case AL11.AL_INVALID_OPERATION:
+				return "Invalid Operation";
+			case AL11.AL_OUT_OF_MEMORY:
+				return "Out of Memory";
+			case AL11.AL_VENDOR:
+				return "Black Rook Software";
+			case AL11.AL_VERSION:
+				return "1.1 Gloop Software";
+			case AL11.AL_RENDERER:
+				return DEVICE_NAME;
+			case AL11.AL_EXTENSIONS:
+				return AL_EXTENSIONS;
+			default:
+				error(AL11.AL_INVALID_ENUM);
+				return null;
+		}
+	}
+
+	// Raises an AL error on the current context.
+	private void error(int error)
+	{
+		Context c = current();
+		if (c != null) synchronized (c.device)
+		{
+			c.setError(error);
+		}
+	}
+
+	@Override
+	public float alGetFloat(int param)
+	{
+		Context c = current();
+		if (c == null)
+			return 0f;
+		synchronized (c.device)
+		{
+			switch (param)
+			{
+				case AL11.AL_DOPPLER_FACTOR:
+					return c.dopplerFactor;
+				case AL_DOPPLER_VELOCITY:
+					return c.dopplerVelocity;
+				case AL11.AL_SPEED_OF_SOUND:
+					return c.speedOfSound;
+				case AL11.AL_DISTANCE_MODEL:
+					return c.distanceModel;
+				default:
+					c.setError(AL11.AL_INVALID_ENUM);
+					return 0f;
+			}
+		}
+	}
+
+	@Override
+	public void alDopplerFactor(float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (!(value >= 0f && value < Float.POSITIVE_INFINITY))
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				c.dopplerFactor = value;
+		}
+	}
+
+	@Override
+	public void alDopplerVelocity(float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (!(value > 0f && value < Float.POSITIVE_INFINITY))
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				c.dopplerVelocity = value;
+		}
+	}
+
+	@Override
+	public void alDistanceModel(int model)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			switch (model)
+			{
+				case AL11.AL_NONE:
+				case AL11.AL_INVERSE_DISTANCE:
+				case AL11.AL_INVERSE_DISTANCE_CLAMPED:
+				case AL11.AL_LINEAR_DISTANCE:
+				case AL11.AL_LINEAR_DISTANCE_CLAMPED:
+				case AL11.AL_EXPONENT_DISTANCE:
+				case AL11.AL_EXPONENT_DISTANCE_CLAMPED:
+					c.distanceModel = model;
+					break;
+				default:
+					c.setError(AL11.AL_INVALID_VALUE);
+					break;
+			}
+		}
+	}
+
+	@Override
+	public void alDeferUpdatesSOFT()
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			c.deferring = true;
+		}
+	}
+
+	@Override
+	public void alProcessUpdatesSOFT()
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			c.deferring = false;
+		}
+	}
+
+	@Override
+	public CallbackHandle alEventCallbackSOFT(EventHandler handler)
+	{
+		// AL_SOFT_events is not advertised.
+		error(AL11.AL_INVALID_OPERATION);
+		return null;
+	}
+
+	@Override
+	public void alEventControlSOFT(int[] types, boolean enable)
+	{
+		error(AL11.AL_INVALID_OPERATION);
+	}
+
+	// ======================= Listener =======================
+
+	@Override
+	public void alListenerf(int param, float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (param != AL11.AL_GAIN)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (!(value >= 0f && value < Float.POSITIVE_INFINITY))
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				c.listenerGain = value;
+		}
+	}
+
+	@Override
+	public void alListenerfv(int param, float[] values)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			switch (param)
+			{
+				case AL11.AL_GAIN:
+					if (values.length < 1 || !(values[0] >= 0f && values[0] < Float.POSITIVE_INFINITY))
+						c.setError(AL11.AL_INVALID_VALUE);
+					else
+						c.listenerGain = values[0];
+					break;
+				case AL11.AL_POSITION:
+					copyVector(c, values, c.listenerPosition);
+					break;
+				case AL11.AL_VELOCITY:
+					copyVector(c, values, c.listenerVelocity);
+					break;
+				case AL11.AL_ORIENTATION:
+					copyVector(c, values, c.listenerOrientation);
+					break;
+				default:
+					c.setError(AL11.AL_INVALID_ENUM);
+					break;
+			}
+		}
+	}
+
+	// Copies finite values into a vector, or raises AL_INVALID_VALUE.
+	private static void copyVector(Context context, float[] values, float[] target)
+	{
+		if (values.length < target.length)
+		{
+			context.setError(AL11.AL_INVALID_VALUE);
+			return;
+		}
+		for (int i = 0; i < target.length; i++)
+		{
+			if (!Float.isFinite(values[i]))
+			{
+				context.setError(AL11.AL_INVALID_VALUE);
+				return;
+			}
+		}
+		System.arraycopy(values, 0, target, 0, target.length);
+	}
+
+	// ======================= Sources =======================
+
+	@Override
+	public int alGenSources()
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			if (c.sources.size() >= c.device.monoSources + c.device.stereoSources)
+			{
+				c.setError(AL11.AL_OUT_OF_MEMORY);
+				return 0;
+			}
+			return c.sources.add(new Source(c));
+		}
+	}
+
+	@Override
+	public void alGenSources(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (c.sources.size() + names.length > c.device.monoSources + c.device.stereoSources)
+			{
+				c.setError(AL11.AL_OUT_OF_MEMORY);
+				return;
+			}
+			for (int i = 0; i < names.length; i++)
+				names[i] = c.sources.add(new Source(c));
+		}
+	}
+
+	@Override
+	public void alDeleteSources(int name)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(name);
+			if (s == null)
+			{
+				c.setError(AL11.AL_INVALID_NAME);
+				return;
+			}
+			s.clearQueue();
+			c.sources.remove(name);
+		}
+	}
+
+	@Override
+	public void alDeleteSources(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int name : names)
+			{
+				if (c.sources.get(name) == null)
+				{
+					c.setError(AL11.AL_INVALID_NAME);
+					return;
+				}
+			}
+			for (int name : names)
+			{
+				Source s = c.sources.remove(name);
+				if (s != null)
+					s.clearQueue();
+			}
+		}
+	}
+
+	@Override
+	public void alSourcef(int source, int param, float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else
+				s.setFloat(param, value);
+		}
+	}
+
+	@Override
+	public void alSourcei(int source, int param, int value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else
+				s.setInteger(param, value);
+		}
+	}
+
+	@Override
+	public void alSource3i(int source, int param, int value1, int value2, int value3)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param != EXTEfx.AL_AUXILIARY_SEND_FILTER)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (value1 != 0 && c.slots.get(value1) == null)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else if (value2 < 0 || value2 >= MAX_SENDS)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else if (value3 != 0 && c.device.filters.get(value3) == null)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				s.sendSlots[value2] = value1;
+		}
+	}
+
+	@Override
+	public void alSourcefv(int source, int param, float[] values)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param == AL11.AL_POSITION)
+				copyVector(c, values, s.position);
+			else if (param == AL11.AL_VELOCITY)
+				copyVector(c, values, s.velocity);
+			else if (param == AL11.AL_DIRECTION)
+				copyVector(c, values, s.direction);
+			else if (values.length < 1)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				s.setFloat(param, values[0]);
+		}
+	}
+
+	@Override
+	public float alGetSourcef(int source, int param)
+	{
+		Context c = current();
+		if (c == null)
+			return 0f;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+			{
+				c.setError(AL11.AL_INVALID_NAME);
+				return 0f;
+			}
+			return (float)s.getDouble(param);
+		}
+	}
+
+	@Override
+	public int alGetSourcei(int source, int param)
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+			{
+				c.setError(AL11.AL_INVALID_NAME);
+				return 0;
+			}
+			return s.getInteger(param);
+		}
+	}
+
+	@Override
+	public void alGetSourcedvSOFT(int source, int param, double[] values)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+			{
+				c.setError(AL11.AL_INVALID_NAME);
+			}
+			else if (param == SOFTSourceLatency.AL_SEC_OFFSET_LATENCY_SOFT)
+			{
+				values[0] = s.getDouble(AL11.AL_SEC_OFFSET);
+				values[1] = c.device.loopback ? 0.0 : (double)periodFrames / c.device.frequency;
+			}
+			else
+			{
+				values[0] = s.getDouble(param);
+			}
+		}
+	}
+
+	@Override
+	public void alSourcePlay(int source)
+	{
+		transport(source, AL11.AL_PLAYING);
+	}
+
+	@Override
+	public void alSourcePause(int source)
+	{
+		transport(source, AL11.AL_PAUSED);
+	}
+
+	@Override
+	public void alSourceStop(int source)
+	{
+		transport(source, AL11.AL_STOPPED);
+	}
+
+	@Override
+	public void alSourceRewind(int source)
+	{
+		transport(source, AL11.AL_INITIAL);
+	}
+
+	@Override
+	public void alSourcePlayv(IntBuffer sources)
+	{
+		transport(sources, AL11.AL_PLAYING);
+	}
+
+	@Override
+	public void alSourcePausev(IntBuffer sources)
+	{
+		transport(sources, AL11.AL_PAUSED);
+	}
+
+	@Override
+	public void alSourceStopv(IntBuffer sources)
+	{
+		transport(sources, AL11.AL_STOPPED);
+	}
+
+	@Override
+	public void alSourceRewindv(IntBuffer sources)
+	{
+		transport(sources, AL11.AL_INITIAL);
+	}
+
+	// Changes the state of one source.
+	private void transport(int source, int state)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else
+				s.transport(state);
+		}
+	}
+
+	// Changes the state of several sources at once.
+	private void transport(IntBuffer sources, int state)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int i = sources.position(); i < sources.limit(); i++)
+			{
+				if (c.sources.get(sources.get(i)) == null)
+				{
+					c.setError(AL11.AL_INVALID_NAME);
+					return;
+				}
+			}
+			for (int i = sources.position(); i < sources.limit(); i++)
+				c.sources.get(sources.get(i)).transport(state);
+		}
+	}
+
+	@Override
+	public void alSourceQueueBuffers(int source, int buffer)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			Buffer b = c.device.buffers.get(buffer);
+			if (s == null || (buffer != 0 && b == null))
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (b == null || s.type == AL11.AL_STATIC)
+				c.setError(AL11.AL_INVALID_OPERATION);
+			else if (!s.queue.isEmpty() && s.queue.get(0).format != b.format)
+				c.setError(AL11.AL_INVALID_OPERATION);
+			else
+			{
+				s.type = AL11.AL_STREAMING;
+				s.queue.add(b);
+				b.references++;
+			}
+		}
+	}
+
+	@Override
+	public int alSourceUnqueueBuffers(int source)
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			Source s = c.sources.get(source);
+			if (s == null)
+			{
+				c.setError(AL11.AL_INVALID_NAME);
+				return 0;
+			}
+			// like OpenAL Soft, a source that has not started can have all of its buffers taken off.
+			if (s.queue.isEmpty() || s.type != AL11.AL_STREAMING || s.looping || (s.state != AL11.AL_INITIAL && s.getProcessed() == 0))
+			{
+				c.setError(AL11.AL_INVALID_VALUE);
+				return 0;
+			}
+			Buffer b = s.queue.remove(0);
+			b.references--;
+			if (s.state == AL11.AL_PLAYING || s.state == AL11.AL_PAUSED)
+				s.current--;
+			return b.name;
+		}
+	}
+
+	// ======================= Buffers =======================
+
+	@Override
+	public int alGenBuffers()
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			Buffer b = new Buffer();
+			b.name = c.device.buffers.add(b);
+			return b.name;
+		}
+	}
+
+	@Override
+	public void alGenBuffers(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int i = 0; i < names.length; i++)
+			{
+				Buffer b = new Buffer();
+				b.name = c.device.buffers.add(b);
+				names[i] = b.name;
+			}
+		}
+	}
+
+	@Override
+	public void alDeleteBuffers(int name)
+	{
+		alDeleteBuffers(new int[]{name});
+	}
+
+	@Override
+	public void alDeleteBuffers(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int name : names)
+			{
+				if (name == 0)
+					continue;
+				Buffer b = c.device.buffers.get(name);
+				if (b == null)
+				{
+					c.setError(AL11.AL_INVALID_NAME);
+					return;
+				}
+				if (b.references > 0)
+				{
+					c.setError(AL11.AL_INVALID_OPERATION);
+					return;
+				}
+			}
+			for (int name : names)
+				if (name != 0)
+					c.device.buffers.remove(name);
+		}
+	}
+
+	@Override
+	public void alBufferi(int buffer, int param, int value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (c.device.buffers.get(buffer) == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param != SOFTBlockAlignment.AL_UNPACK_BLOCK_ALIGNMENT_SOFT)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (value < 0)
+				c.setError(AL11.AL_INVALID_VALUE);
+			// Only uncompressed formats are supported, so there is nothing to unpack.
+		}
+	}
+
+	@Override
+	public void alBufferData(int buffer, int format, ByteBuffer data, int frequency)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Buffer b = c.device.buffers.get(buffer);
+			int channels = formatChannels(format);
+			if (b == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (channels == 0)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (b.references > 0)
+				c.setError(AL11.AL_INVALID_OPERATION);
+			else if (frequency < 1 || data.remaining() % (channels * formatSampleBytes(format)) != 0)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+			{
+				int samples = data.remaining() / formatSampleBytes(format);
+				float[] decoded = samples > 0 ? new float[samples] : NO_SAMPLES;
+				decode(data.duplicate().order(ByteOrder.nativeOrder()), data.position(), format, decoded, 0, samples);
+				b.set(format, frequency, decoded, null);
+			}
+		}
+	}
+
+	@Override
+	public CallbackHandle alBufferCallbackSOFT(int buffer, int format, int frequency, PcmProvider provider)
+	{
+		Context c = current();
+		if (c == null)
+			return null;
+		synchronized (c.device)
+		{
+			Buffer b = c.device.buffers.get(buffer);
+			if (b == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (formatChannels(format) == 0)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (b.references > 0)
+				c.setError(AL11.AL_INVALID_OPERATION);
+			else if (frequency < 1 || provider == null)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+			{
+				b.set(format, frequency, NO_SAMPLES, provider);
+				// Nothing native to free: the buffer holds the provider until it gets new data.
+				return () -> {};
+			}
+			return null;
+		}
+	}
+
+	// ======================= Effects (EFX) =======================
+
+	@Override
+	public int alGenEffects()
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			return c.device.effects.add(new Effect());
+		}
+	}
+
+	@Override
+	public void alGenEffects(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int i = 0; i < names.length; i++)
+				names[i] = c.device.effects.add(new Effect());
+		}
+	}
+
+	@Override
+	public void alDeleteEffects(int name)
+	{
+		alDeleteEffects(new int[]{name});
+	}
+
+	@Override
+	public void alDeleteEffects(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			deleteAll(c, c.device.effects, names);
+		}
+	}
+
+	@Override
+	public void alEffecti(int effect, int param, int value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Effect e = c.device.effects.get(effect);
+			if (e == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param != EXTEfx.AL_EFFECT_TYPE)
+				return; // accepted, not rendered.
+			else if ((value < EXTEfx.AL_EFFECT_NULL || value > EXTEfx.AL_EFFECT_EQUALIZER) && value != EXTEfx.AL_EFFECT_EAXREVERB)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				e.type = value;
+		}
+	}
+
+	@Override
+	public void alEffectf(int effect, int param, float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			if (c.device.effects.get(effect) == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (!Float.isFinite(value))
+				c.setError(AL11.AL_INVALID_VALUE);
+			// accepted, not rendered.
+		}
+	}
+
+	@Override
+	public int alGenFilters()
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			return c.device.filters.add(new Filter());
+		}
+	}
+
+	@Override
+	public void alGenFilters(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int i = 0; i < names.length; i++)
+				names[i] = c.device.filters.add(new Filter());
+		}
+	}
+
+	@Override
+	public void alDeleteFilters(int name)
+	{
+		alDeleteFilters(new int[]{name});
+	}
+
+	@Override
+	public void alDeleteFilters(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			deleteAll(c, c.device.filters, names);
+		}
+	}
+
+	@Override
+	public void alFilteri(int filter, int param, int value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Filter f = c.device.filters.get(filter);
+			if (f == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param != EXTEfx.AL_FILTER_TYPE)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (value < EXTEfx.AL_FILTER_NULL || value > EXTEfx.AL_FILTER_BANDPASS)
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				f.type = value;
+		}
+	}
+
+	@Override
+	public void alFilterf(int filter, int param, float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			Filter f = c.device.filters.get(filter);
+			if (f == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (!(value >= 0f && value < Float.POSITIVE_INFINITY))
+				c.setError(AL11.AL_INVALID_VALUE);
+			else if (param == AL_FILTER_GAIN)
+				f.gain = value;
+			// the rest is accepted, not rendered.
+		}
+	}
+
+	@Override
+	public int alGenAuxiliaryEffectSlots()
+	{
+		Context c = current();
+		if (c == null)
+			return 0;
+		synchronized (c.device)
+		{
+			return c.slots.add(new EffectSlot());
+		}
+	}
+
+	@Override
+	public void alGenAuxiliaryEffectSlots(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			for (int i = 0; i < names.length; i++)
+				names[i] = c.slots.add(new EffectSlot());
+		}
+	}
+
+	@Override
+	public void alDeleteAuxiliaryEffectSlots(int name)
+	{
+		alDeleteAuxiliaryEffectSlots(new int[]{name});
+	}
+
+	@Override
+	public void alDeleteAuxiliaryEffectSlots(int[] names)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			deleteAll(c, c.slots, names);
+		}
+	}
+
+	@Override
+	public void alAuxiliaryEffectSloti(int slot, int param, int value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			EffectSlot s = c.slots.get(slot);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param == EXTEfx.AL_EFFECTSLOT_EFFECT)
+			{
+				if (value != 0 && c.device.effects.get(value) == null)
+					c.setError(AL11.AL_INVALID_VALUE);
+				else
+					s.effect = value;
+			}
+			else if (param == EXTEfx.AL_EFFECTSLOT_AUXILIARY_SEND_AUTO)
+			{
+				if (value != AL11.AL_TRUE && value != AL11.AL_FALSE)
+					c.setError(AL11.AL_INVALID_VALUE);
+				else
+					s.sendAuto = value == AL11.AL_TRUE;
+			}
+			else
+				c.setError(AL11.AL_INVALID_ENUM);
+		}
+	}
+
+	@Override
+	public void alAuxiliaryEffectSlotf(int slot, int param, float value)
+	{
+		Context c = current();
+		if (c == null)
+			return;
+		synchronized (c.device)
+		{
+			EffectSlot s = c.slots.get(slot);
+			if (s == null)
+				c.setError(AL11.AL_INVALID_NAME);
+			else if (param != EXTEfx.AL_EFFECTSLOT_GAIN)
+				c.setError(AL11.AL_INVALID_ENUM);
+			else if (!(value >= 0f && value <= 1f))
+				c.setError(AL11.AL_INVALID_VALUE);
+			else
+				s.gain = value;
+		}
+	}
+
+	// Deletes a set of objects, none if one of the names is not valid. Name 0 is skipped.
+	private static void deleteAll(Context context, NameTable<?> table, int[] names)
+	{
+		for (int name : names)
+		{
+			if (name != 0 && table.get(name) == null)
+			{
+				context.setError(AL11.AL_INVALID_NAME);
+				return;
+			}
+		}
+		for (int name : names)
+			if (name != 0)
+				table.remove(name);
+	}
+
+	// ======================= Formats =======================
+
+	// Channels in a buffer format, 0 if not supported.
+	private static int formatChannels(int format)
+	{
+		switch (format)
+		{
+			case AL11.AL_FORMAT_MONO8:
+			case AL11.AL_FORMAT_MONO16:
+			case EXTFloat32.AL_FORMAT_MONO_FLOAT32:
+				return 1;
+			case AL11.AL_FORMAT_STEREO8:
+			case AL11.AL_FORMAT_STEREO16:
+			case EXTFloat32.AL_FORMAT_STEREO_FLOAT32:
+				return 2;
+			default:
+				return 0;
+		}
+	}
+
+	// Bytes per sample in a buffer format, 0 if not supported.
+	private static int formatSampleBytes(int format)
+	{
+		switch (format)
+		{
+			case AL11.AL_FORMAT_MONO8:
+			case AL11.AL_FORMAT_STEREO8:
+				return 1;
+			case AL11.AL_FORMAT_MONO16:
+			case AL11.AL_FORMAT_STEREO16:
+				return 2;
+			case EXTFloat32.AL_FORMAT_MONO_FLOAT32:
+			case EXTFloat32.AL_FORMAT_STEREO_FLOAT32:
+				return 4;
+			default:
+				return 0;
+		}
+	}
+
+	// Decodes samples of a buffer format (in a native-order buffer) into floats.
+	private static void decode(ByteBuffer data, int offset, int format, float[] out, int outOffset, int samples)
+	{
+		switch (formatSampleBytes(format))
+		{
+			case 1:
+				for (int i = 0; i < samples; i++)
+					out[outOffset + i] = ((data.get(offset + i) & 0xFF) - 128) / 128f;
+				break;
+			case 2:
+				for (int i = 0; i < samples; i++)
+					out[outOffset + i] = data.getShort(offset + i * 2) / 32768f;
+				break;
+			case 4:
+				for (int i = 0; i < samples; i++)
+					out[outOffset + i] = data.getFloat(offset + i * 4);
+				break;
+			default:
+				break;
+		}
+	}
+
+	// Channels in a loopback render format, 0 if not supported.
+	private static int renderChannels(int channels)
+	{
+		switch (channels)
+		{
+			case SOFTLoopback.ALC_MONO_SOFT:
+				return 1;
+			case SOFTLoopback.ALC_STEREO_SOFT:
+				return 2;
+			case SOFTLoopback.ALC_QUAD_SOFT:
+				return 4;
+			case SOFTLoopback.ALC_5POINT1_SOFT:
+				return 6;
+			case SOFTLoopback.ALC_6POINT1_SOFT:
+				return 7;
+			case SOFTLoopback.ALC_7POINT1_SOFT:
+				return 8;
+			default:
+				return 0;
+		}
+	}
+
+	// Bytes per sample in a loopback render type, 0 if not supported.
+	private static int renderSampleBytes(int type)
+	{
+		switch (type)
+		{
+			case SOFTLoopback.ALC_BYTE_SOFT:
+			case SOFTLoopback.ALC_UNSIGNED_BYTE_SOFT:
+				return 1;
+			case SOFTLoopback.ALC_SHORT_SOFT:
+			case SOFTLoopback.ALC_UNSIGNED_SHORT_SOFT:
+				return 2;
+			case SOFTLoopback.ALC_INT_SOFT:
+			case SOFTLoopback.ALC_UNSIGNED_INT_SOFT:
+			case SOFTLoopback.ALC_FLOAT_SOFT:
+				return 4;
+			default:
+				return 0;
+		}
+	}
+
+	// Writes one mixed sample in a render type to a native-order buffer.
+	private static void encode(ByteBuffer out, int offset, int type, float sample)
+	{
+		float clamped = Math.max(-1f, Math.min(1f, sample));
+		switch (type)
+		{
+			case SOFTLoopback.ALC_BYTE_SOFT:
+				out.put(offset, (byte)Math.round(clamped * 127f));
+				break;
+			case SOFTLoopback.ALC_UNSIGNED_BYTE_SOFT:
+				out.put(offset, (byte)(Math.round(clamped * 127f) + 128));
+				break;
+			case SOFTLoopback.ALC_SHORT_SOFT:
+				out.putShort(offset, (short)Math.round(clamped * 32767f));
+				break;
+			case SOFTLoopback.ALC_UNSIGNED_SHORT_SOFT:
+				out.putShort(offset, (short)(Math.round(clamped * 32767f) + 32768));
+				break;
+			case SOFTLoopback.ALC_INT_SOFT:
+				out.putInt(offset, (int)Math.round(clamped * 2147483647.0));
+				break;
+			case SOFTLoopback.ALC_UNSIGNED_INT_SOFT:
+				out.putInt(offset, (int)Math.round(clamped * 2147483647.0) ^ 0x80000000);
+				break;
+			case SOFTLoopback.ALC_FLOAT_SOFT:
+				out.putFloat(offset, sample);
+				break;
+			default:
+				break;
+		}
+	}
+
+	// Gain from a distance model (AL 1.1 section 3.4).
+	private static float attenuation(int model, float distance, float referenceDistance, float maxDistance, float rolloff)
+	{
+		switch (model)
+		{
+			case AL11.AL_INVERSE_DISTANCE_CLAMPED:
+			case AL11.AL_LINEAR_DISTANCE_CLAMPED:
+			case AL11.AL_EXPONENT_DISTANCE_CLAMPED:
+				if (maxDistance < referenceDistance)
+					return 1f;
+				distance = Math.max(referenceDistance, Math.min(distance, maxDistance));
+				break;
+			default:
+				break;
+		}
+
+		switch (model)
+		{
+			case AL11.AL_INVERSE_DISTANCE:
+			case AL11.AL_INVERSE_DISTANCE_CLAMPED:
+			{
+				float d = referenceDistance + rolloff * (distance - referenceDistance);
+				return d > 0f ? referenceDistance / d : 1f;
+			}
+			case AL11.AL_LINEAR_DISTANCE:
+			case AL11.AL_LINEAR_DISTANCE_CLAMPED:
+			{
+				if (maxDistance <= referenceDistance)
+					return 1f;
+				distance = Math.min(distance, maxDistance);
+				return Math.max(0f, 1f - rolloff * (distance - referenceDistance) / (maxDistance - referenceDistance));
+			}
+			case AL11.AL_EXPONENT_DISTANCE:
+			case AL11.AL_EXPONENT_DISTANCE_CLAMPED:
+			{
+				if (distance <= 0f || referenceDistance <= 0f)
+					return 1f;
+				return (float)Math.pow(distance / referenceDistance, -rolloff);
+			}
+			default:
+				return 1f;
+		}
+	}
+
+	// ======================= Objects =======================
+
+	/**
+	 * A table of objects by name, with freed names reused.
+	 * Lookups are array accesses, so nothing is boxed. Names start at 1.
+	 */
+	private static class NameTable<T>
+	{
+		private Object[] objects;
+		private int[] freeNames;
+		private int freeCount;
+		/** Highest name handed out. */
+		private int length;
+		private int size;
+
+		private NameTable()
+		{
+			this.objects = new Object[16];
+			this.freeNames = new int[16];
+			this.freeCount = 0;
+			this.length = 0;
+			this.size = 0;
+		}
+
+		// Adds an object and returns its name.
+		int add(T object)
+		{
+			int name;
+			if (freeCount > 0)
+				name = freeNames[--freeCount];
+			else
+			{
+				name = ++length;
+				if (name > objects.length)
+					objects = Arrays.copyOf(objects, objects.length * 2);
+			}
+			objects[name - 1] = object;
+			size++;
+			return name;
+		}
+
+		// Gets an object by name, or null.
+		@SuppressWarnings("unchecked")
+		T get(int name)
+		{
+			return name > 0 && name <= length ? (T)objects[name - 1] : null;
+		}
+
+		// Removes an object by name, and returns it (or null).
+		T remove(int name)
+		{
+			T out = get(name);
+			if (out != null)
+			{
+				objects[name - 1] = null;
+				if (freeCount == freeNames.length)
+					freeNames = Arrays.copyOf(freeNames, freeNames.length * 2);
+				freeNames[freeCount++] = name;
+				size--;
+			}
+			return out;
+		}
+
+		// Gets an object by index (name - 1), for iteration up to length(). Can be null.
+		T at(int index)
+		{
+			return get(index + 1);
+		}
+
+		int length()
+		{
+			return length;
+		}
+
+		int size()
+		{
+			return size;
+		}
+	}
+
+	/**
+	 * A device: a mixer and the objects shared by its contexts.
+	 */
+	private class Device
+	{
+		private final long handle;
+		private final String name;
+		private final boolean loopback;
+		/** Output frequency (set by the context on loopback devices). */
+		private int frequency;
+		/** Output channels. */
+		private int channels;
+		/** Output sample type (an ALC_*_SOFT type). */
+		private int type;
+		private int monoSources;
+		private int stereoSources;
+		private int error;
+
+		private final NameTable<Buffer> buffers;
+		private final NameTable<Effect> effects;
+		private final NameTable<Filter> filters;
+		private final List<Context> contexts;
+		/** Stereo mix of one period. */
+		private final float[] mix;
+		/** The mixer thread of a playback device. */
+		private MixerThread mixer;
+
+		private Device(String name, boolean loopback)
+		{
+			this.handle = handleSequence.incrementAndGet();
+			this.name = name;
+			this.loopback = loopback;
+			this.frequency = loopback ? 0 : OALSoftwareBackend.this.frequency;
+			this.channels = 2;
+			this.type = SOFTLoopback.ALC_SHORT_SOFT;
+			this.monoSources = DEFAULT_MONO_SOURCES;
+			this.stereoSources = DEFAULT_STEREO_SOURCES;
+			this.error = ALC11.ALC_NO_ERROR;
+			this.buffers = new NameTable<>();
+			this.effects = new NameTable<>();
+			this.filters = new NameTable<>();
+			this.contexts = new ArrayList<>(1);
+			this.mix = new float[periodFrames * 2];
+			this.mixer = null;
+		}
+
+		private void setError(int error)
+		{
+			this.error = error;
+		}
+
+		// Mixes frames into a native-order buffer in the device's format. Called with this device's lock held.
+		private void render(ByteBuffer out, int offset, int frames)
+		{
+			int sampleBytes = renderSampleBytes(type);
+			while (frames > 0)
+			{
+				int n = Math.min(frames, periodFrames);
+				Arrays.fill(mix, 0, n * 2, 0f);
+				for (int i = 0; i < contexts.size(); i++)
+					contexts.get(i).mix(mix, n);
+
+				for (int f = 0; f < n; f++)
+				{
+					float left = mix[f * 2];
+					float right = mix[f * 2 + 1];
+					if (channels == 1)
+					{
+						encode(out, offset, type, (left + right) * 0.5f);
+						offset += sampleBytes;
+					}
+					else for (int c = 0; c < channels; c++)
+					{
+						encode(out, offset, type, c == 0 ? left : (c == 1 ? right : 0f));
+						offset += sampleBytes;
+					}
+				}
+				frames -= n;
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return name + (loopback ? " (loopback)" : "");
+		}
+	}
+
+	/**
+	 * A context: a listener, its sources, and its effect slots.
+	 */
+	private class Context
+	{
+		private final long handle;
+		private final Device device;
+		private volatile boolean destroyed;
+		private int error;
+
+		private final float[] listenerPosition;
+		private final float[] listenerVelocity;
+		private final float[] listenerOrientation;
+		private float listenerGain;
+
+		private int distanceModel;
+		private float dopplerFactor;
+		private float dopplerVelocity;
+		private float speedOfSound;
+		/** If true, the mixer keeps using the source parameters from before (AL_SOFT_deferred_updates). */
+		private boolean deferring;
+
+		private final NameTable<Source> sources;
+		private final NameTable<EffectSlot> slots;
+
+		private Context(Device device)
+		{
+			this.handle = handleSequence.incrementAndGet();
+			this.device = device;
+			this.destroyed = false;
+			this.error = AL11.AL_NO_ERROR;
+			this.listenerPosition = new float[3];
+			this.listenerVelocity = new float[3];
+			this.listenerOrientation = new float[]{0f, 0f, -1f, 0f, 1f, 0f};
+			this.listenerGain = 1f;
+			this.distanceModel = AL11.AL_INVERSE_DISTANCE_CLAMPED;
+			this.dopplerFactor = 1f;
+			this.dopplerVelocity = 1f;
+			this.speedOfSound = 343.3f;
+			this.deferring = false;
+			this.sources = new NameTable<>();
+			this.slots = new NameTable<>();
+		}
+
+		// Sets the error, unless one is already set.
+		private void setError(int error)
+		{
+			if (this.error == AL11.AL_NO_ERROR)
+				this.error = error;
+		}
+
+		// Mixes the playing sources into a stereo mix.
+		private void mix(float[] mix, int frames)
+		{
+			for (int i = 0; i < sources.length(); i++)
+			{
+				Source s = sources.at(i);
+				if (s != null && s.state == AL11.AL_PLAYING)
+				{
+					if (!deferring || !s.parametersValid)
+						s.updateParameters();
+					s.mix(mix, frames);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A buffer, decoded to floats.
+	 */
+	private static class Buffer
+	{
+		private int name;
+		private int format;
+		private int frequency;
+		private int channels;
+		private int frameBytes;
+		/** Interleaved samples. */
+		private float[] data;
+		private int frames;
+		/** Sample provider, if in callback mode. */
+		private PcmProvider provider;
+		/** Sources that hold this buffer. */
+		private int references;
+
+		private Buffer()
+		{
+			this.format = AL11.AL_FORMAT_MONO16;
+			this.frequency = 0;
+			this.channels = 1;
+			this.frameBytes = 2;
+			this.data = NO_SAMPLES;
+			this.frames = 0;
+			this.provider = null;
+			this.references = 0;
+		}
+
+		private void set(int format, int frequency, float[] data, PcmProvider provider)
+		{
+			this.format = format;
+			this.frequency = frequency;
+			this.channels = formatChannels(format);
+			this.frameBytes = channels * formatSampleBytes(format);
+			this.data = data;
+			this.frames = data.length / channels;
+			this.provider = provider;
+		}
+	}
+
+	/**
+	 * An effect (type only: effects are not rendered).
+	 */
+	private static class Effect
+	{
+		private int type = EXTEfx.AL_EFFECT_NULL;
+	}
+
+	/**
+	 * A filter (type and broadband gain).
+	 */
+	private static class Filter
+	{
+		private int type = EXTEfx.AL_FILTER_NULL;
+		private float gain = 1f;
+	}
+
+	/**
+	 * An auxiliary effect slot.
+	 */
+	private static class EffectSlot
+	{
+		private int effect = EXTEfx.AL_EFFECT_NULL;
+		private float gain = 1f;
+		private boolean sendAuto = true;
+	}
+
+	/**
+	 * A source, and its playback state.
+	 */
+	private class Source
+	{
+		private final Context context;
+
+		private final float[] position;
+		private final float[] velocity;
+		private final float[] direction;
+		private float gain;
+		private float pitch;
+		private float minGain;
+		private float maxGain;
+		private float rolloff;
+		private float referenceDistance;
+		private float maxDistance;
+		private float coneInnerAngle;
+		private float coneOuterAngle;
+		private float coneOuterGain;
+		private boolean looping;
+		private boolean relative;
+		/** Gain of the direct filter, copied when it is set. */
+		private float directGain;
+		/** Effect slot names per send. */
+		private final int[] sendSlots;
+
+		private int state;
+		private int type;
+		private final List<Buffer> queue;
+		/** Index of the playing buffer in the queue. */
+		private int current;
+		/** Frame position in the playing buffer (or callback window). */
+		private double cursor;
+		/** Offset type set while not playing, applied on play (0 if none). */
+		private int pendingOffsetType;
+		private double pendingOffset;
+
+		/** If true, the mix parameters below are up to date. */
+		private boolean parametersValid;
+		private float leftGain;
+		private float rightGain;
+		private float stereoGain;
+		private double pitchShift;
+
+		/** Decoded samples from a callback buffer. */
+		private float[] window;
+		private int windowFrames;
+		/** Callback frames dropped from the window so far. */
+		private long windowStart;
+		private boolean streamEnded;
+		private ByteBuffer scratch;
+
+		private Source(Context context)
+		{
+			this.context = context;
+			this.position = new float[3];
+			this.velocity = new float[3];
+			this.direction = new float[3];
+			this.gain = 1f;
+			this.pitch = 1f;
+			this.minGain = 0f;
+			this.maxGain = 1f;
+			this.rolloff = 1f;
+			this.referenceDistance = 1f;
+			this.maxDistance = Float.MAX_VALUE;
+			this.coneInnerAngle = 360f;
+			this.coneOuterAngle = 360f;
+			this.coneOuterGain = 0f;
+			this.looping = false;
+			this.relative = false;
+			this.directGain = 1f;
+			this.sendSlots = new int[MAX_SENDS];
+			this.state = AL11.AL_INITIAL;
+			this.type = AL11.AL_UNDETERMINED;
+			this.queue = new ArrayList<>(4);
+			this.current = 0;
+			this.cursor = 0.0;
+			this.pendingOffsetType = 0;
+			this.pendingOffset = 0.0;
+			this.parametersValid = false;
+			this.window = NO_SAMPLES;
+			this.windowFrames = 0;
+			this.windowStart = 0L;
+			this.streamEnded = false;
+			this.scratch = null;
+		}
+
+		private void setFloat(int param, float value)
+		{
+			if (!Float.isFinite(value))
+			{
+				context.setError(AL11.AL_INVALID_VALUE);
+				return;
+			}
+
+			switch (param)
+			{
+				case AL11.AL_PITCH:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						pitch = value;
+					break;
+				case AL11.AL_GAIN:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						gain = value;
+					break;
+				case AL11.AL_MIN_GAIN:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						minGain = value;
+					break;
+				case AL11.AL_MAX_GAIN:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						maxGain = value;
+					break;
+				case AL11.AL_ROLLOFF_FACTOR:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						rolloff = value;
+					break;
+				case AL11.AL_REFERENCE_DISTANCE:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						referenceDistance = value;
+					break;
+				case AL11.AL_MAX_DISTANCE:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						maxDistance = value;
+					break;
+				case AL11.AL_CONE_INNER_ANGLE:
+					if (value < 0f || value > 360f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						coneInnerAngle = value;
+					break;
+				case AL11.AL_CONE_OUTER_ANGLE:
+					if (value < 0f || value > 360f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						coneOuterAngle = value;
+					break;
+				case AL11.AL_CONE_OUTER_GAIN:
+					if (value < 0f || value > 1f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						coneOuterGain = value;
+					break;
+				case AL11.AL_SEC_OFFSET:
+				case AL11.AL_SAMPLE_OFFSET:
+				case AL11.AL_BYTE_OFFSET:
+					setOffset(param, value);
+					break;
+				case EXTEfx.AL_AIR_ABSORPTION_FACTOR:
+				case EXTEfx.AL_ROOM_ROLLOFF_FACTOR:
+				case EXTEfx.AL_CONE_OUTER_GAINHF:
+					if (value < 0f)
+						context.setError(AL11.AL_INVALID_VALUE);
+					// accepted, not rendered.
+					break;
+				default:
+					context.setError(AL11.AL_INVALID_ENUM);
+					break;
+			}
+		}
+
+		private void setInteger(int param, int value)
+		{
+			switch (param)
+			{
+				case AL11.AL_LOOPING:
+				case AL11.AL_SOURCE_RELATIVE:
+				case EXTEfx.AL_DIRECT_FILTER_GAINHF_AUTO:
+				case EXTEfx.AL_AUXILIARY_SEND_FILTER_GAIN_AUTO:
+				case EXTEfx.AL_AUXILIARY_SEND_FILTER_GAINHF_AUTO:
+					if (value != AL11.AL_TRUE && value != AL11.AL_FALSE)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else if (param == AL11.AL_LOOPING)
+						looping = value == AL11.AL_TRUE;
+					else if (param == AL11.AL_SOURCE_RELATIVE)
+						relative = value == AL11.AL_TRUE;
+					break;
+				case AL11.AL_BUFFER:
+					setBuffer(value);
+					break;
+				case EXTEfx.AL_DIRECT_FILTER:
+				{
+					Filter f = context.device.filters.get(value);
+					if (value != EXTEfx.AL_FILTER_NULL && f == null)
+						context.setError(AL11.AL_INVALID_VALUE);
+					else
+						directGain = f != null && f.type != EXTEfx.AL_FILTER_NULL ? f.gain : 1f;
+					break;
+				}
+				case AL11.AL_SEC_OFFSET:
+				case AL11.AL_SAMPLE_OFFSET:
+				case AL11.AL_BYTE_OFFSET:
+					setOffset(param, value);
+					break;
+				default:
+					setFloat(param, value);
+					break;
+			}
+		}
+
+		private void setBuffer(int name)
+		{
+			Buffer b = context.device.buffers.get(name);
+			if (name != 0 && b == null)
+				context.setError(AL11.AL_INVALID_VALUE);
+			else if (state == AL11.AL_PLAYING || state == AL11.AL_PAUSED)
+				context.setError(AL11.AL_INVALID_OPERATION);
+			else
+			{
+				clearQueue();
+				if (b != null)
+				{
+					queue.add(b);
+					b.references++;
+					type = AL11.AL_STATIC;
+				}
+				current = 0;
+				cursor = 0.0;
+				pendingOffsetType = 0;
+			}
+		}
+
+		// Releases all buffers.
+		private void clearQueue()
+		{
+			for (int i = 0; i < queue.size(); i++)
+				queue.get(i).references--;
+			queue.clear();
+			type = AL11.AL_UNDETERMINED;
+		}
+
+		private int getInteger(int param)
+		{
+			switch (param)
+			{
+				case AL11.AL_SOURCE_STATE:
+					return state;
+				case AL11.AL_SOURCE_TYPE:
+					return type;
+				case AL11.AL_BUFFER:
+					return queue.isEmpty() ? 0 : queue.get(Math.min(current, queue.size() - 1)).name;
+				case AL11.AL_BUFFERS_QUEUED:
+					return queue.size();
+				case AL11.AL_BUFFERS_PROCESSED:
+					return getProcessed();
+				case AL11.AL_LOOPING:
+					return looping ? AL11.AL_TRUE : AL11.AL_FALSE;
+				case AL11.AL_SOURCE_RELATIVE:
+					return relative ? AL11.AL_TRUE : AL11.AL_FALSE;
+				default:
+					return (int)getDouble(param);
+			}
+		}
+
+		private double getDouble(int param)
+		{
+			switch (param)
+			{
+				case AL11.AL_PITCH:
+					return pitch;
+				case AL11.AL_GAIN:
+					return gain;
+				case AL11.AL_MIN_GAIN:
+					return minGain;
+				case AL11.AL_MAX_GAIN:
+					return maxGain;
+				case AL11.AL_ROLLOFF_FACTOR:
+					return rolloff;
+				case AL11.AL_REFERENCE_DISTANCE:
+					return referenceDistance;
+				case AL11.AL_MAX_DISTANCE:
+					return maxDistance;
+				case AL11.AL_CONE_INNER_ANGLE:
+					return coneInnerAngle;
+				case AL11.AL_CONE_OUTER_ANGLE:
+					return coneOuterAngle;
+				case AL11.AL_CONE_OUTER_GAIN:
+					return coneOuterGain;
+				case AL11.AL_SEC_OFFSET:
+				case AL11.AL_SAMPLE_OFFSET:
+				case AL11.AL_BYTE_OFFSET:
+					return getOffset(param);
+				default:
+					context.setError(AL11.AL_INVALID_ENUM);
+					return 0.0;
+			}
+		}
+
+		// Buffers that have been played through.
+		private int getProcessed()
+		{
+			if (state == AL11.AL_STOPPED)
+				return queue.size();
+			else if (state == AL11.AL_INITIAL || looping)
+				return 0;
+			else
+				return current;
+		}
+
+		// Gets the playback offset, relative to the start of the queue.
+		private double getOffset(int offsetType)
+		{
+			if ((state != AL11.AL_PLAYING && state != AL11.AL_PAUSED) || queue.isEmpty())
+				return 0.0;
+
+			Buffer first = queue.get(0);
+			double frames;
+			if (first.provider != null)
+			{
+				frames = windowStart + cursor;
+			}
+			else
+			{
+				frames = cursor;
+				for (int i = 0; i < current; i++)
+					frames += queue.get(i).frames;
+			}
+
+			switch (offsetType)
+			{
+				case AL11.AL_SEC_OFFSET:
+					return frames / first.frequency;
+				case AL11.AL_BYTE_OFFSET:
+					return (long)frames * first.frameBytes;
+				default:
+					return (long)frames;
+			}
+		}
+
+		// Sets the playback offset now, or on next play.
+		private void setOffset(int offsetType, double value)
+		{
+			if (value < 0.0)
+				context.setError(AL11.AL_INVALID_VALUE);
+			else if (state != AL11.AL_PLAYING && state != AL11.AL_PAUSED)
+			{
+				pendingOffsetType = offsetType;
+				pendingOffset = value;
+			}
+			else if (!seek(offsetType, value))
+				context.setError(AL11.AL_INVALID_VALUE);
+		}
+
+		// Moves the playback position. Returns false if it is past the end of the queue.
+		private boolean seek(int offsetType, double value)
+		{
+			if (queue.isEmpty())
+				return false;
+
+			Buffer first = queue.get(0);
+			double frames;
+			if (offsetType == AL11.AL_SEC_OFFSET)
+				frames = value * first.frequency;
+			else if (offsetType == AL11.AL_BYTE_OFFSET)
+				frames = Math.floor(value / first.frameBytes);
+			else
+				frames = Math.floor(value);
+
+			// Streams can only start over.
+			if (first.provider != null)
+				return frames == 0.0;
+
+			for (int i = 0; i < queue.size(); i++)
+			{
+				int length = queue.get(i).frames;
+				if (frames < length)
+				{
+					current = i;
+					cursor = frames;
+					return true;
+				}
+				frames -= length;
+			}
+			return false;
+		}
+
+		private void transport(int newState)
+		{
+			switch (newState)
+			{
+				case AL11.AL_PLAYING:
+				{
+					if (queue.isEmpty())
+					{
+						state = AL11.AL_STOPPED;
+						return;
+					}
+					if (state != AL11.AL_PAUSED)
+					{
+						current = 0;
+						cursor = 0.0;
+						resetStream();
+						if (pendingOffsetType != 0)
+							seek(pendingOffsetType, pendingOffset);
+					}
+					pendingOffsetType = 0;
+					parametersValid = false;
+					state = AL11.AL_PLAYING;
+					break;
+				}
+				case AL11.AL_PAUSED:
+				{
+					if (state == AL11.AL_PLAYING)
+						state = AL11.AL_PAUSED;
+					break;
+				}
+				case AL11.AL_STOPPED:
+				{
+					if (state != AL11.AL_INITIAL)
+						state = AL11.AL_STOPPED;
+					current = 0;
+					cursor = 0.0;
+					pendingOffsetType = 0;
+					break;
+				}
+				case AL11.AL_INITIAL:
+				{
+					state = AL11.AL_INITIAL;
+					current = 0;
+					cursor = 0.0;
+					pendingOffsetType = 0;
+					break;
+				}
+				default:
+					break;
+			}
+		}
+
+		// Clears the callback window.
+		private void resetStream()
+		{
+			windowFrames = 0;
+			windowStart = 0L;
+			streamEnded = false;
+		}
+
+		// Works out gain, panning, and pitch from the source and listener (AL 1.1 section 3.4).
+		private void updateParameters()
+		{
+			float dx = position[0];
+			float dy = position[1];
+			float dz = position[2];
+			if (!relative)
+			{
+				dx -= context.listenerPosition[0];
+				dy -= context.listenerPosition[1];
+				dz -= context.listenerPosition[2];
+			}
+			float distance = (float)Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+			float g = gain * attenuation(context.distanceModel, distance, referenceDistance, maxDistance, rolloff);
+
+			// cone, between the source's direction and the direction to the listener.
+			float dirLength = (float)Math.sqrt(direction[0] * direction[0] + direction[1] * direction[1] + direction[2] * direction[2]);
+			if (dirLength > 0f && distance > 0f)
+			{
+				float cos = -(direction[0] * dx + direction[1] * dy + direction[2] * dz) / (dirLength * distance);
+				float angle = (float)Math.toDegrees(Math.acos(Math.max(-1f, Math.min(1f, cos)))) * 2f;
+				if (angle > coneOuterAngle)
+					g *= coneOuterGain;
+				else if (angle > coneInnerAngle)
+					g *= 1f + (coneOuterGain - 1f) * (angle - coneInnerAngle) / (coneOuterAngle - coneInnerAngle);
+			}
+
+			g = Math.max(minGain, Math.min(g, maxGain)) * context.listenerGain * directGain;
+
+			// pan on the listener's right axis. Relative positions are already in listener space.
+			float pan = 0f;
+			if (distance > 0f)
+			{
+				if (relative)
+				{
+					pan = dx / distance;
+				}
+				else
+				{
+					float[] o = context.listenerOrientation;
+					float rx = o[1] * o[5] - o[2] * o[4];
+					float ry = o[2] * o[3] - o[0] * o[5];
+					float rz = o[0] * o[4] - o[1] * o[3];
+					float rLength = (float)Math.sqrt(rx * rx + ry * ry + rz * rz);
+					if (rLength > 0f)
+						pan = (dx * rx + dy * ry + dz * rz) / (rLength * distance);
+				}
+			}
+			if (pan == 0f)
+			{
+				leftGain = g * CENTER_GAIN;
+				rightGain = g * CENTER_GAIN;
+			}
+			else
+			{
+				double angle = (pan + 1.0) * Math.PI / 4.0;
+				leftGain = g * (float)Math.cos(angle);
+				rightGain = g * (float)Math.sin(angle);
+			}
+			stereoGain = g;
+
+			// Doppler, along the line from source to listener.
+			double shift = 1.0;
+			if (context.dopplerFactor > 0f && distance > 0f)
+			{
+				double df = context.dopplerFactor;
+				double ss = (double)context.speedOfSound * context.dopplerVelocity;
+				double limit = ss / df;
+				float[] lv = context.listenerVelocity;
+				double vls = -(lv[0] * dx + lv[1] * dy + lv[2] * dz) / distance;
+				double vss = -(velocity[0] * dx + velocity[1] * dy + velocity[2] * dz) / distance;
+				vls = Math.min(vls, limit);
+				vss = Math.min(vss, limit);
+				double denominator = ss - df * vss;
+				shift = denominator > 0.0 ? Math.max(0.0, (ss - df * vls) / denominator) : MAX_STEP;
+			}
+			pitchShift = pitch * shift;
+			parametersValid = true;
+		}
+
+		// Mixes the next frames of this source.
+		private void mix(float[] mix, int frames)
+		{
+			int written = 0;
+			int emptyAdvances = 0;
+			while (written < frames && state == AL11.AL_PLAYING)
+			{
+				Buffer b = queue.get(current);
+				double step = Math.min(pitchShift * b.frequency / context.device.frequency, MAX_STEP);
+				if (b.provider != null)
+				{
+					if (!streamEnded && windowFrames < cursor + (frames - written) * step + 2)
+						fill(b, (int)(cursor + (frames - written) * step) + 2);
+					written = mix(window, b.channels, windowFrames, mix, written, frames, step);
+					if (streamEnded && cursor >= windowFrames)
+						transport(AL11.AL_STOPPED);
+				}
+				else if (cursor < b.frames)
+				{
+					written = mix(b.data, b.channels, b.frames, mix, written, frames, step);
+					emptyAdvances = 0;
+				}
+				else
+				{
+					cursor -= b.frames;
+					if (++current >= queue.size())
+					{
+						if (looping && emptyAdvances <= queue.size())
+							current = 0;
+						else
+							transport(AL11.AL_STOPPED);
+					}
+					emptyAdvances++;
+				}
+			}
+		}
+
+		// Resamples and mixes samples until the end of the data or the mix. Returns frames written so far.
+		private int mix(float[] data, int channels, int length, float[] mix, int written, int frames, double step)
+		{
+			int last = length - 1;
+			double pos = cursor;
+			int out = written * 2;
+			if (channels == 1)
+			{
+				while (written < frames && pos < length)
+				{
+					int i = (int)pos;
+					float f = (float)(pos - i);
+					float s0 = data[i];
+					float s = s0 + ((i < last ? data[i + 1] : s0) - s0) * f;
+					mix[out++] += s * leftGain;
+					mix[out++] += s * rightGain;
+					pos += step;
+					written++;
+				}
+			}
+			else
+			{
+				while (written < frames && pos < length)
+				{
+					int i = (int)pos;
+					float f = (float)(pos - i);
+					int j = i < last ? i + 1 : i;
+					float l0 = data[i * 2];
+					float r0 = data[i * 2 + 1];
+					mix[out++] += (l0 + (data[j * 2] - l0) * f) * stereoGain;
+					mix[out++] += (r0 + (data[j * 2 + 1] - r0) * f) * stereoGain;
+					pos += step;
+					written++;
+				}
+			}
+			cursor = pos;
+			return written;
+		}
+
+		// Tops up the callback window to the needed frames, dropping what has been played.
+		private void fill(Buffer b, int needed)
+		{
+			int channels = b.channels;
+			int drop = Math.min((int)cursor, windowFrames);
+			if (drop > 0)
+			{
+				System.arraycopy(window, drop * channels, window, 0, (windowFrames - drop) * channels);
+				windowFrames -= drop;
+				windowStart += drop;
+				cursor -= drop;
+				needed -= drop;
+			}
+
+			int request = needed - windowFrames;
+			if (request <= 0)
+				return;
+			if (window.length < needed * channels)
+				window = Arrays.copyOf(window, needed * channels);
+
+			int bytes = request * b.frameBytes;
+			if (scratch == null || scratch.capacity() < bytes)
+				scratch = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+			scratch.clear();
+			scratch.limit(bytes);
+
+			int got;
+			try {
+				got = Math.max(0, Math.min(bytes, b.provider.fill(scratch)));
+			} catch (Throwable t) {
+				// same as the native mixer: end the stream.
+				got = 0;
+			}
+
+			int gotFrames = got / b.frameBytes;
+			decode(scratch, 0, b.format, window, windowFrames * channels, gotFrames * channels);
+			windowFrames += gotFrames;
+			if (got < bytes)
+				streamEnded = true;
+		}
+	}
+
+	/**
+	 * The thread that mixes a playback device in real time.
+	 */
+	private class MixerThread extends Thread
+	{
+		private final Device device;
+		private final ByteBuffer buffer;
+		private volatile boolean keepAlive;
+
+		private MixerThread(Device device)
+		{
+			this.device = device;
+			this.buffer = ByteBuffer.allocateDirect(periodFrames * 4).order(ByteOrder.nativeOrder());
+			setName("OALSoftwareBackend-Mixer-" + device.handle);
+			setDaemon(true);
+			setPriority(MAX_PRIORITY);
+			this.keepAlive = true;
+		}
+
+		@Override
+		public void run()
+		{
+			long periodNanos = periodFrames * 1000000000L / device.frequency;
+			long next = System.nanoTime();
+			while (keepAlive)
+			{
+				synchronized (device)
+				{
+					device.render(buffer, 0, periodFrames);
+				}
+				if (output != null)
+				{
+					buffer.clear();
+					output.accept(buffer);
+				}
+
+				next += periodNanos;
+				long wait;
+				while (keepAlive && (wait = next - System.nanoTime()) > 0)
+					LockSupport.parkNanos(this, wait);
+				// too far behind to catch up: drop the lost time.
+				if (System.nanoTime() - next > periodNanos * 4)
+					next = System.nanoTime();
+			}
+		}
+
+		/**
+		 * Stops this thread and waits for it to finish.
+		 */
+		public void shutdown()
+		{
+			keepAlive = false;
+			LockSupport.unpark(this);
+			if (this != Thread.currentThread())
+			{
+				try {
+					join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+}
@@ -10,9 +10,16 @@ package com.blackrook.gloop.openal;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.lwjgl.openal.AL11;
 import org.lwjgl.openal.EXTEfx;
+import org.lwjgl.openal.SOFTEvents;
+import org.lwjgl.openal.SOFTSourceLatency;
 
 import com.blackrook.gloop.openal.OALSystem.ContextLock;
 import com.blackrook.gloop.openal.exception.SoundException;
@@ -21,6 +28,11 @@ import com.blackrook.gloop.openal.struct.ThreadUtils;
 
 /**
  * Encapsulating class for OpenAL sources.
+ * <p>Sources keep a copy of the properties last sent to OpenAL, and setting a property
+ * to the value it already has does not call OpenAL. See {@link #forceSync()}.
+ * <p>If events are enabled on the owning context (see {@link OALContext#setEventsEnabled(boolean)}), 
+ * the play state is also kept, and only read from OpenAL after OpenAL reports a change that 
+ * the Source did not expect.
  * @author Matthew Tropiano
  */
 public final class OALSource extends OALObject
@@ -28,6 +40,93 @@ public final class OALSource extends OALObject
 	public static final boolean AUTO_VELOCITY = true;
 	public static final boolean NO_AUTO_VELOCITY = false;
 
+	/** Longest time between state checks while waiting for a Source to end. */
+	private static final long WAIT_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	
+	/**
+	 * Source play states.
+	 */
+	public enum State
+	{
+		INITIAL(AL11.AL_INITIAL),
+		PLAYING(AL11.AL_PLAYING),
+		PAUSED(AL11.AL_PAUSED),
+		STOPPED(AL11.AL_STOPPED);
+		
+		public final int alVal;
+		private State(int alVal) {this.alVal = alVal;}
+		
+		/**
+		 * Gets the state for an AL state constant.
+		 * @param alVal the AL constant.
+		 * @return the corresponding state, or null if none.
+		 */
+		public static State get(int alVal)
+		{
+			switch (alVal)
+			{
+				case AL11.AL_INITIAL:
+					return INITIAL;
+				case AL11.AL_PLAYING:
+					return PLAYING;
+				case AL11.AL_PAUSED:
+					return PAUSED;
+				case AL11.AL_STOPPED:
+					return STOPPED;
+				default:
+					return null;
+			}
+		}
+	}
+
+	/**
+	 * A playback offset and latency pair, read together by {@link OALSource#getOffsetAndLatency(OffsetLatency)}.
+	 * Meant to be kept and reused, so that reading it does not allocate anything.
+	 */
+	public static final class OffsetLatency
+	{
+		/** Scratch space for OpenAL. */
+		private final double[] values;
+		
+		/**
+		 * Creates a new, zeroed offset and latency pair.
+		 */
+		public OffsetLatency()
+		{
+			this.values = new double[2];
+		}
+		
+		/**
+		 * @return the playback offset in seconds into the current buffer (or queue), as the mixer sees it.
+		 */
+		public double getOffset()
+		{
+			return values[0];
+		}
+		
+		/**
+		 * @return the time in seconds until audio mixed now reaches the output (0 if unknown).
+		 */
+		public double getLatency()
+		{
+			return values[1];
+		}
+		
+		/**
+		 * @return the playback offset in seconds of the audio being heard right now (offset minus latency).
+		 */
+		public double getAudibleOffset()
+		{
+			return values[0] - values[1];
+		}
+		
+		@Override
+		public String toString()
+		{
+			return "Offset " + values[0] + "s, Latency " + values[1] + "s";
+		}
+	}
+
 	/** Source's position. */
 	private float[] position;
 	/** Source's velocity vector. */
@@ -75,13 +174,24 @@ public final class OALSource extends OALObject
 	private int effectSlots;
 	/** Auxiliary effect slot array. */
 	private OALEffectSlot[] auxEffectSlots;
-	/** Auxiliary effect slot array. */
+	/** Auxiliary effect slot filter array. */
 	private OALFilter[] auxEffectSlotFilters;
+	/** Auxiliary effect slot filter revisions, at time of set. */
+	private int[] auxEffectSlotFilterRevisions;
 	/** Direct filter bound to this source. */
 	private OALFilter dryFilter;
+	/** Direct filter revision, at time of set. */
+	private int dryFilterRevision;
 	
 	/** Source listeners. */
 	private List<OALSourceListener> sourceListeners; 
+	/** Are there any listeners? (read by the event thread) */
+	private volatile boolean listening; 
+	
+	/** Known play state (low 32 bits, 0 if unknown) and change count (high 32 bits), when events are enabled. */
+	private AtomicLong stateCache;
+	/** Threads waiting for this source to end. */
+	private Queue<Thread> endWaiters;
 	
 	/**
 	 * Creates a new source object.
@@ -95,6 +205,9 @@ public final class OALSource extends OALObject
 		this.buffer = null;
 		this.bufferQueue = new LinkedList<>();
 		this.sourceListeners = new LinkedList<>();
+		this.listening = false;
+		this.stateCache = new AtomicLong(0L);
+		this.endWaiters = new ConcurrentLinkedQueue<>();
 		this.autoVelocity = autovel;
 
 		this.position = new float[3];
@@ -103,8 +216,24 @@ public final class OALSource extends OALObject
 		this.effectSlots = effectSlots;
 		this.auxEffectSlots = new OALEffectSlot[effectSlots];
 		this.auxEffectSlotFilters = new OALFilter[effectSlots];
+		this.auxEffectSlotFilterRevisions = new int[effectSlots];
+		this.dryFilterRevision = 0;
+
+		this.pitch = 1.0f;
+		this.gain = 1.0f;
+		this.minGain = 0.0f;
+		this.maxGain = 1.0f;
+		this.rolloff = 1.0f;
+		this.referenceDistance = 1.0f;
+		this.maxDistance = Float.MAX_VALUE;
+		this.innerCone = 360f;
+		this.outerCone = 360f;
+		this.outerConeGain = 0f;
+		this.looping = false;
+		this.relative = false;
+		this.dryFilter = null;
 
-		reset();
+		forceSync();
 	}
 
 	@Override
@@ -114,7 +243,7 @@ public final class OALSource extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			out = AL11.alGenSources();
+			out = getBackend().alGenSources();
 			errorCheck();
 		}
 		return out;
@@ -132,37 +261,74 @@ public final class OALSource extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			AL11.alDeleteSources(getName());
+			getBackend().alDeleteSources(getName());
 			errorCheck();
 		}
 	}
 
 	/**
 	 * Sets this Source's settings to defaults, and releases all buffers bound to it.
+	 * Only the settings that differ from the defaults are sent to OpenAL.
 	 */
 	public void reset()
 	{
-		setPosition(0, 0, 0);
-		setVelocity(0, 0, 0);
-		setDirection(0, 0, 0);
-		setAutoVelocity(false);
-		setLooping(false);
-		setRelative(false);
-		setPitch(1.0f);
-		setGain(1.0f);
-		setRolloff(1.0f);
-		setFilter(null);
-		setMinGain(0.0f);
-		setMaxGain(1.0f);
-		setReferenceDistance(1.0f);
-		setMaxDistance(Float.MAX_VALUE);
-		setInnerConeAngle(360f);
-		setOuterConeAngle(360f);
-		setOuterConeGain(0f);
+		// one context acquisition for the whole reset.
+		try (ContextLock lock = getContext().acquire())
+		{
+			setAutoVelocity(false);
+			setPosition(0, 0, 0);
+			setVelocity(0, 0, 0);
+			setDirection(0, 0, 0);
+			setLooping(false);
+			setRelative(false);
+			setPitch(1.0f);
+			setGain(1.0f);
+			setRolloff(1.0f);
+			setMinGain(0.0f);
+			setMaxGain(1.0f);
+			setReferenceDistance(1.0f);
+			setMaxDistance(Float.MAX_VALUE);
+			setInnerConeAngle(360f);
+			setOuterConeAngle(360f);
+			setOuterConeGain(0f);
+			for (int i = 0; i < effectSlots; i++)
+				setEffectSlot(i, null, null);
+			setFilter(null);
+			setBuffer(null);
+		}
+	}
+	
+	/**
+	 * Sends all of this Source's current settings to OpenAL, whether or not they have changed.
+	 * <p>The setters on this class skip the call to OpenAL if the value being set
+	 * is the same as the last value set, so this is for when the state in OpenAL 
+	 * may have been changed from outside of this object and needs to be re-pushed.
+	 * This does not affect the bound buffers.
+	 */
+	public void forceSync()
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			getBackend().alSourcefv(getName(), AL11.AL_POSITION, position);
+			getBackend().alSourcefv(getName(), AL11.AL_VELOCITY, velocity);
+			getBackend().alSourcefv(getName(), AL11.AL_DIRECTION, direction);
+			getBackend().alSourcei(getName(), AL11.AL_LOOPING, looping ? AL11.AL_TRUE : AL11.AL_FALSE);
+			getBackend().alSourcei(getName(), AL11.AL_SOURCE_RELATIVE, relative ? AL11.AL_TRUE : AL11.AL_FALSE);
+			getBackend().alSourcef(getName(), AL11.AL_PITCH, pitch);
+			getBackend().alSourcef(getName(), AL11.AL_GAIN, gain);
+			getBackend().alSourcef(getName(), AL11.AL_ROLLOFF_FACTOR, rolloff);
+			getBackend().alSourcef(getName(), AL11.AL_MIN_GAIN, minGain);
+			getBackend().alSourcef(getName(), AL11.AL_MAX_GAIN, maxGain);
+			getBackend().alSourcef(getName(), AL11.AL_REFERENCE_DISTANCE, referenceDistance);
+			getBackend().alSourcef(getName(), AL11.AL_MAX_DISTANCE, maxDistance);
+			getBackend().alSourcef(getName(), AL11.AL_CONE_INNER_ANGLE, innerCone);
+			getBackend().alSourcef(getName(), AL11.AL_CONE_OUTER_ANGLE, outerCone);
+			getBackend().alSourcef(getName(), AL11.AL_CONE_OUTER_GAIN, outerConeGain);
+			errorCheck();
+		}
 		for (int i = 0; i < effectSlots; i++)
-			setEffectSlot(i, null, null);
-		setFilter(null);
-		setBuffer(null);
+			sendEffectSlot(i, auxEffectSlots[i], auxEffectSlotFilters[i]);
+		sendFilter(dryFilter);
 	}
 	
 	/**
@@ -189,16 +355,24 @@ public final class OALSource extends OALObject
 	
 	/**
 	 * Sets an auxiliary effect and filter in a particular slot.
+	 * If the same effect slot and filter are already set, and the filter has not changed since, this does nothing.
 	 * @param slot the slot to add this to. 
 	 * @param effectSlot the effect slot to add (can be null).
 	 * @param wetFilter	the filter to use on the output of this effect (can be null).
 	 * @throws ArrayIndexOutOfBoundsException if slot is less than 0 or greater than the amount of effect slots.
 	 */
 	public void setEffectSlot(int slot, OALEffectSlot effectSlot, OALFilter wetFilter)
+	{
+		if (auxEffectSlots[slot] == effectSlot && auxEffectSlotFilters[slot] == wetFilter && (wetFilter == null || auxEffectSlotFilterRevisions[slot] == wetFilter.getRevision()))
+			return;
+		sendEffectSlot(slot, effectSlot, wetFilter);
+	}
+	
+	private void sendEffectSlot(int slot, OALEffectSlot effectSlot, OALFilter wetFilter)
 	{
 		try (ContextLock lock = requestContext()) 
 		{
-			AL11.alSource3i(
+			getBackend().alSource3i(
 				getName(), 
 				EXTEfx.AL_AUXILIARY_SEND_FILTER, 
 				effectSlot == null ? EXTEfx.AL_EFFECTSLOT_NULL : effectSlot.getName(), 
@@ -209,20 +383,31 @@ public final class OALSource extends OALObject
 		}
 		auxEffectSlots[slot] = effectSlot;
 		auxEffectSlotFilters[slot] = wetFilter;
+		auxEffectSlotFilterRevisions[slot] = wetFilter != null ? wetFilter.getRevision() : 0;
 	}
 	
 	/**
 	 * Sets the "dry" filter to use for the dry signal for the effects later.
+	 * OpenAL copies the filter's parameters when it is set, so if the same filter is set again
+	 * after it was changed, it is re-sent. If it did not change, this does nothing.
 	 * @param dryFilter the filter to use (can be null).
 	 */
 	public void setFilter(OALFilter dryFilter)
 	{
-		this.dryFilter = dryFilter;
+		if (this.dryFilter == dryFilter && (dryFilter == null || dryFilterRevision == dryFilter.getRevision()))
+			return;
+		sendFilter(dryFilter);
+	}
+	
+	private void sendFilter(OALFilter dryFilter)
+	{
 		try (ContextLock lock = requestContext()) 
 		{
-			AL11.alSourcei(getName(), EXTEfx.AL_DIRECT_FILTER, dryFilter == null ? EXTEfx.AL_FILTER_NULL : dryFilter.getName());
+			getBackend().alSourcei(getName(), EXTEfx.AL_DIRECT_FILTER, dryFilter == null ? EXTEfx.AL_FILTER_NULL : dryFilter.getName());
 			errorCheck();
 		}
+		this.dryFilter = dryFilter;
+		this.dryFilterRevision = dryFilter != null ? dryFilter.getRevision() : 0;
 	}
 	
 	/**
@@ -236,31 +421,27 @@ public final class OALSource extends OALObject
 		if (autoVelocity)
 			setVelocity(x - position[0], y - position[1], z - position[2]);
 
+		if (position[0] == x && position[1] == y && position[2] == z)
+			return;
+		
 		position[0] = x;
 		position[1] = y;
 		position[2] = z;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_POSITION, position);
-			errorCheck();
-		}
+		sendVector(AL11.AL_POSITION, position);
 	}
 
 	/**
 	 * Sets the Source's position attributes using an array of values. Values are copied.
+	 * Up to three values are used - if there are fewer, the rest are left unchanged.
 	 * @param f the float array.
 	 */
 	public void setPosition(float[] f)
 	{
-		if (autoVelocity)
-			setVelocity(f[0]-position[0],f[1]-position[1],f[2]-position[2]);
-
-		System.arraycopy(f, 0, position, 0, Math.min(f.length, 3));
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_POSITION, position);
-			errorCheck();
-		}
+		setPosition(
+			f.length > 0 ? f[0] : position[0], 
+			f.length > 1 ? f[1] : position[1], 
+			f.length > 2 ? f[2] : position[2]
+		);
 	}
 	
 	/**
@@ -271,28 +452,27 @@ public final class OALSource extends OALObject
 	 */
 	public void setVelocity(float x, float y, float z)
 	{
+		if (velocity[0] == x && velocity[1] == y && velocity[2] == z)
+			return;
+		
 		velocity[0] = x;
 		velocity[1] = y;
 		velocity[2] = z;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_VELOCITY, velocity);
-			errorCheck();
-		}
+		sendVector(AL11.AL_VELOCITY, velocity);
 	}
 
 	/**
 	 * Sets the Source's velocity attributes using an array of values. Values are copied.
+	 * Up to three values are used - if there are fewer, the rest are left unchanged.
 	 * @param f the float array.
 	 */
 	public void setVelocity(float[] f)
 	{
-		System.arraycopy(f,0,velocity,0,Math.min(f.length,3));
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_VELOCITY, velocity);
-			errorCheck();
-		}
+		setVelocity(
+			f.length > 0 ? f[0] : velocity[0], 
+			f.length > 1 ? f[1] : velocity[1], 
+			f.length > 2 ? f[2] : velocity[2]
+		);
 	}
 		
 	/**
@@ -303,28 +483,27 @@ public final class OALSource extends OALObject
 	 */
 	public void setDirection(float x, float y, float z)
 	{
+		if (direction[0] == x && direction[1] == y && direction[2] == z)
+			return;
+		
 		direction[0] = x;
 		direction[1] = y;
 		direction[2] = z;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_DIRECTION, direction);
-			errorCheck();
-		}
+		sendVector(AL11.AL_DIRECTION, direction);
 	}
 
 	/**
 	 * Sets the Source's direction attributes using an array of values. Values are copied.
+	 * Up to three values are used - if there are fewer, the rest are left unchanged.
 	 * @param f the float array.
 	 */
 	public void setDirection(float[] f)
 	{
-		System.arraycopy(f, 0, direction, 0, Math.min(f.length, 3));
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcefv(getName(), AL11.AL_DIRECTION, direction);
-			errorCheck();
-		}
+		setDirection(
+			f.length > 0 ? f[0] : direction[0], 
+			f.length > 1 ? f[1] : direction[1], 
+			f.length > 2 ? f[2] : direction[2]
+		);
 	}
 	
 	/**
@@ -333,12 +512,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setGain(float f)
 	{
-		gain = MathUtils.clampValue(f, 0f, 1f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_GAIN, gain);
-			errorCheck();
-		}
+		f = MathUtils.clampValue(f, 0f, 1f);
+		if (gain == f)
+			return;
+		gain = f;
+		sendFloat(AL11.AL_GAIN, gain);
 	}
 
 	/**
@@ -348,12 +526,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setMinGain(float f)
 	{
-		minGain = MathUtils.clampValue(f, 0f, 1f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_MIN_GAIN, minGain);
-			errorCheck();
-		}
+		f = MathUtils.clampValue(f, 0f, 1f);
+		if (minGain == f)
+			return;
+		minGain = f;
+		sendFloat(AL11.AL_MIN_GAIN, minGain);
 	}
 
 	/**
@@ -363,12 +540,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setMaxGain(float f)
 	{
-		maxGain = MathUtils.clampValue(f, 0f, 1f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_MAX_GAIN, maxGain);
-			errorCheck();
-		}
+		f = MathUtils.clampValue(f, 0f, 1f);
+		if (maxGain == f)
+			return;
+		maxGain = f;
+		sendFloat(AL11.AL_MAX_GAIN, maxGain);
 	}
 
 	/**
@@ -377,12 +553,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setPitch(float f)
 	{
-		pitch = Math.max(0, f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_PITCH, pitch);
-			errorCheck();
-		}
+		f = Math.max(0, f);
+		if (pitch == f)
+			return;
+		pitch = f;
+		sendFloat(AL11.AL_PITCH, pitch);
 	}
 
 	/**
@@ -413,12 +588,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setRolloff(float f)
 	{
-		rolloff = Math.max(0, f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_ROLLOFF_FACTOR, rolloff);
-			errorCheck();
-		}
+		f = Math.max(0, f);
+		if (rolloff == f)
+			return;
+		rolloff = f;
+		sendFloat(AL11.AL_ROLLOFF_FACTOR, rolloff);
 	}
 
 	/**
@@ -428,12 +602,10 @@ public final class OALSource extends OALObject
 	 */
 	public void setOuterConeGain(float f)
 	{
+		if (outerConeGain == f)
+			return;
 		outerConeGain = f;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_CONE_OUTER_GAIN, outerConeGain);
-			errorCheck();
-		}
+		sendFloat(AL11.AL_CONE_OUTER_GAIN, outerConeGain);
 	}
 
 	/**
@@ -444,12 +616,10 @@ public final class OALSource extends OALObject
 	 */
 	public void setOuterConeAngle(float f)
 	{
+		if (outerCone == f)
+			return;
 		outerCone = f;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_CONE_OUTER_ANGLE, outerCone);
-			errorCheck();
-		}
+		sendFloat(AL11.AL_CONE_OUTER_ANGLE, outerCone);
 	}
 
 	/**
@@ -460,12 +630,10 @@ public final class OALSource extends OALObject
 	 */
 	public void setInnerConeAngle(float f)
 	{
+		if (innerCone == f)
+			return;
 		innerCone = f;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_CONE_INNER_ANGLE, innerCone);
-			errorCheck();
-		}
+		sendFloat(AL11.AL_CONE_INNER_ANGLE, innerCone);
 	}
 
 	/**
@@ -476,12 +644,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setMaxDistance(float f)
 	{
-		maxDistance = Math.max(0, f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_MAX_DISTANCE, maxDistance);
-			errorCheck();
-		}
+		f = Math.max(0, f);
+		if (maxDistance == f)
+			return;
+		maxDistance = f;
+		sendFloat(AL11.AL_MAX_DISTANCE, maxDistance);
 	}
 
 	/**
@@ -492,12 +659,11 @@ public final class OALSource extends OALObject
 	 */
 	public void setReferenceDistance(float f)
 	{
-		referenceDistance = Math.max(0, f);
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcef(getName(), AL11.AL_REFERENCE_DISTANCE, referenceDistance);
-			errorCheck();
-		}
+		f = Math.max(0, f);
+		if (referenceDistance == f)
+			return;
+		referenceDistance = f;
+		sendFloat(AL11.AL_REFERENCE_DISTANCE, referenceDistance);
 	}
 
 	/**
@@ -507,12 +673,10 @@ public final class OALSource extends OALObject
 	 */
 	public void setLooping(boolean loop)
 	{
+		if (looping == loop)
+			return;
 		looping = loop;
-		try (ContextLock lock = requestContext()) 
-		{
-			AL11.alSourcei(getName(), AL11.AL_LOOPING, looping ? AL11.AL_TRUE : AL11.AL_FALSE);
-			errorCheck();
-		}
+		sendInt(AL11.AL_LOOPING, looping ? AL11.AL_TRUE : AL11.AL_FALSE);
 	}
 	
 	/**
@@ -521,14 +685,41 @@ public final class OALSource extends OALObject
 	 */
 	public void setRelative(boolean rel)
 	{
+		if (relative == rel)
+			return;
 		relative = rel;
+		sendInt(AL11.AL_SOURCE_RELATIVE, relative ? AL11.AL_TRUE : AL11.AL_FALSE);
+	}
+
+	// Sends a float vector property.
+	private void sendVector(int property, float[] value)
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			getBackend().alSourcefv(getName(), property, value);
+			errorCheck();
+		}
+	}
+
+	// Sends a float property.
+	private void sendFloat(int property, float value)
+	{
 		try (ContextLock lock = requestContext()) 
 		{
-			AL11.alSourcei(getName(), AL11.AL_SOURCE_RELATIVE, relative ? AL11.AL_TRUE : AL11.AL_FALSE);
+			getBackend().alSourcef(getName(), property, value);
 			errorCheck();
 		}
 	}
 
+	// Sends an integer property.
+	private void sendInt(int property, int value)
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			getBackend().alSourcei(getName(), property, value);
+			errorCheck();
+		}
+	}
 	/**
 	 * Checks if "auto velocity" is on.
 	 * @return true of so, false if not.
@@ -640,11 +831,12 @@ public final class OALSource extends OALObject
 	public synchronized void setBuffer(OALBuffer b)
 	{
 		bufferQueue.clear();
+		invalidateState();
 		if (b == null)
 		{
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourcei(getName(), AL11.AL_BUFFER, AL11.AL_NONE);
+				getBackend().alSourcei(getName(), AL11.AL_BUFFER, AL11.AL_NONE);
 				errorCheck();
 			}
 			buffer = null;
@@ -653,7 +845,7 @@ public final class OALSource extends OALObject
 		{
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourcei(getName(), AL11.AL_BUFFER, b.getName());
+				getBackend().alSourcei(getName(), AL11.AL_BUFFER, b.getName());
 				errorCheck();
 			}
 			buffer = b;
@@ -674,7 +866,7 @@ public final class OALSource extends OALObject
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			bid = AL11.alSourceUnqueueBuffers(getName());
+			bid = getBackend().alSourceUnqueueBuffers(getName());
 			errorCheck();
 		}
 		OALBuffer out = bufferQueue.pollFirst();
@@ -708,7 +900,7 @@ public final class OALSource extends OALObject
 			try (ContextLock lock = requestContext()) 
 			{
 				clearError();
-				AL11.alSourceQueueBuffers(getName(), b.getName());
+				getBackend().alSourceQueueBuffers(getName(), b.getName());
 				errorCheck();
 			}
 			bufferQueue.add(b);
@@ -735,7 +927,7 @@ public final class OALSource extends OALObject
 		int out;
 		try (ContextLock lock = requestContext()) 
 		{
-			out = AL11.alGetSourcei(getName(), AL11.AL_BUFFERS_PROCESSED);
+			out = getBackend().alGetSourcei(getName(), AL11.AL_BUFFERS_PROCESSED);
 			errorCheck();
 		}
 		return out;
@@ -748,6 +940,7 @@ public final class OALSource extends OALObject
 	public void addSourceListener(OALSourceListener listener)
 	{
 		sourceListeners.add(listener);
+		listening = true;
 	}
 	
 	/**
@@ -757,6 +950,7 @@ public final class OALSource extends OALObject
 	public void removeSourceListener(OALSourceListener listener)
 	{
 		sourceListeners.remove(listener);
+		listening = !sourceListeners.isEmpty();
 	}
 	
 	/**
@@ -765,6 +959,74 @@ public final class OALSource extends OALObject
 	public void removeAllListeners()
 	{
 		sourceListeners.clear();
+		listening = false;
+	}
+	
+	/**
+	 * @return true if this Source has listeners, false if not. Safe to call from any thread.
+	 */
+	boolean hasListeners()
+	{
+		return listening;
+	}
+	
+	/**
+	 * Fires an event reported by OpenAL, dispatched by the owning context.
+	 * @param type the AL event type.
+	 * @param param the event parameter.
+	 */
+	void fireEvent(int type, int param)
+	{
+		if (type == SOFTEvents.AL_EVENT_TYPE_SOURCE_STATE_CHANGED_SOFT)
+		{
+			State state = State.get(param);
+			if (state != null)
+				fireSourceStateChangedEvent(this, state);
+		}
+		else if (type == SOFTEvents.AL_EVENT_TYPE_BUFFER_COMPLETED_SOFT)
+		{
+			fireSourceBuffersCompletedEvent(this, param);
+		}
+	}
+	
+	/**
+	 * Records a state change reported by OpenAL. Called on the context's event thread.
+	 * If the state is not the one that this Source expects, the known state is dropped
+	 * and is read from OpenAL on next query. Wakes up threads waiting for the end of this source.
+	 * @param state the new AL state.
+	 */
+	void stateEvent(int state)
+	{
+		long cached;
+		do {
+			cached = stateCache.get();
+		} while ((int)cached != state && !stateCache.compareAndSet(cached, nextStateStamp(cached)));
+		
+		for (Thread t : endWaiters)
+			LockSupport.unpark(t);
+	}
+	
+	/**
+	 * Drops the known state, so that the next query reads it from OpenAL.
+	 */
+	void invalidateState()
+	{
+		long cached;
+		do {
+			cached = stateCache.get();
+		} while (!stateCache.compareAndSet(cached, nextStateStamp(cached)));
+	}
+	
+	// Records the result of a state change or query, unless an event came in since "previous" was read.
+	private void cacheState(long previous, int state)
+	{
+		stateCache.compareAndSet(previous, (previous & 0xFFFFFFFF00000000L) | (state & 0xFFFFFFFFL));
+	}
+	
+	// Next change count, unknown state.
+	private static long nextStateStamp(long previous)
+	{
+		return ((previous >>> 32) + 1) << 32;
 	}
 	
 	/**
@@ -812,6 +1074,24 @@ public final class OALSource extends OALObject
 			sl.sourceBufferDequeued(source, buffer);
 	}
 
+	/**
+	 * Fires a sourceStateChanged(). 
+	 */
+	private void fireSourceStateChangedEvent(OALSource source, State state)
+	{
+		for (OALSourceListener sl : sourceListeners)
+			sl.sourceStateChanged(source, state);
+	}
+
+	/**
+	 * Fires a sourceBuffersCompleted(). 
+	 */
+	private void fireSourceBuffersCompletedEvent(OALSource source, int count)
+	{
+		for (OALSourceListener sl : sourceListeners)
+			sl.sourceBuffersCompleted(source, count);
+	}
+
 	/**
 	 * Fires a sourceBufferEnqueued(). 
 	 */
@@ -821,15 +1101,165 @@ public final class OALSource extends OALObject
 			sl.sourceBufferEnqueued(source, buffer);
 	}
 
+	/**
+	 * Sets the playback position of this source in seconds, from the start of its buffer (or queue).
+	 * If the source is not playing, the position is used on the next play.
+	 * @param seconds the offset in seconds.
+	 */
+	public void setSecondOffset(float seconds)
+	{
+		sendOffset(AL11.AL_SEC_OFFSET, seconds);
+	}
+	
+	/**
+	 * Sets the playback position of this source in samples (per channel), from the start of its buffer (or queue).
+	 * If the source is not playing, the position is used on the next play.
+	 * @param samples the offset in samples.
+	 */
+	public void setSampleOffset(int samples)
+	{
+		sendOffset(AL11.AL_SAMPLE_OFFSET, samples);
+	}
+	
+	/**
+	 * Sets the playback position of this source in bytes, from the start of its buffer (or queue).
+	 * OpenAL may round this down to the nearest sample or block.
+	 * If the source is not playing, the position is used on the next play.
+	 * @param bytes the offset in bytes.
+	 */
+	public void setByteOffset(int bytes)
+	{
+		sendOffset(AL11.AL_BYTE_OFFSET, bytes);
+	}
+	
+	/**
+	 * @return the playback position of this source in seconds, from the start of its buffer (or queue).
+	 */
+	public float getSecondOffset()
+	{
+		float out;
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			out = getBackend().alGetSourcef(getName(), AL11.AL_SEC_OFFSET);
+			errorCheck();
+		}
+		return out;
+	}
+	
+	/**
+	 * @return the playback position of this source in samples (per channel), from the start of its buffer (or queue).
+	 */
+	public int getSampleOffset()
+	{
+		int out;
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			out = getBackend().alGetSourcei(getName(), AL11.AL_SAMPLE_OFFSET);
+			errorCheck();
+		}
+		return out;
+	}
+	
+	/**
+	 * @return the playback position of this source in bytes, from the start of its buffer (or queue).
+	 */
+	public int getByteOffset()
+	{
+		int out;
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			out = getBackend().alGetSourcei(getName(), AL11.AL_BYTE_OFFSET);
+			errorCheck();
+		}
+		return out;
+	}
+	
+	/**
+	 * Reads this source's playback position and the output latency at the same moment, 
+	 * in double precision (AL_SOFT_source_latency). Does not allocate.
+	 * If the context does not support AL_SOFT_source_latency, the offset is read the normal way, and the latency is 0.
+	 * @param out the object to fill in.
+	 * @return <code>out</code>.
+	 * @see OALContext#isSourceLatencySupported()
+	 */
+	public OffsetLatency getOffsetAndLatency(OffsetLatency out)
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			if (getContext().isSourceLatencySupported())
+			{
+				getBackend().alGetSourcedvSOFT(getName(), SOFTSourceLatency.AL_SEC_OFFSET_LATENCY_SOFT, out.values);
+			}
+			else
+			{
+				out.values[0] = getBackend().alGetSourcef(getName(), AL11.AL_SEC_OFFSET);
+				out.values[1] = 0.0;
+			}
+			errorCheck();
+		}
+		return out;
+	}
+
+	/**
+	 * Reads this source's playback position and the output latency at the same moment into a new object.
+	 * @return a new offset and latency pair.
+	 * @see #getOffsetAndLatency(OffsetLatency)
+	 */
+	public OffsetLatency getOffsetAndLatency()
+	{
+		return getOffsetAndLatency(new OffsetLatency());
+	}
+
+	private void sendOffset(int param, float value)
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			getBackend().alSourcef(getName(), param, value);
+			errorCheck();
+		}
+	}
+
+	private void sendOffset(int param, int value)
+	{
+		try (ContextLock lock = requestContext()) 
+		{
+			clearError();
+			getBackend().alSourcei(getName(), param, value);
+			errorCheck();
+		}
+	}
+
 	/**
 	 * Makes the calling thread wait for this source to stop playing.
 	 * Pausing this does not make the thread continue.
+	 * <p>If events are enabled on the owning context, the thread sleeps until OpenAL reports
+	 * a state change, rather than checking the state every millisecond.
 	 * @see #stop()
+	 * @see OALContext#setEventsEnabled(boolean)
 	 */
 	public void waitForEnd()
 	{
-		while (isPlaying())
-			ThreadUtils.sleep(1);
+		if (!getContext().isEventsEnabled())
+		{
+			while (isPlaying())
+				ThreadUtils.sleep(1);
+			return;
+		}
+		
+		Thread thread = Thread.currentThread();
+		endWaiters.add(thread);
+		try {
+			// timed, in case events are turned off while waiting.
+			while (isPlaying())
+				LockSupport.parkNanos(this, getContext().isEventsEnabled() ? WAIT_PARK_NANOS : 1000000L);
+		} finally {
+			endWaiters.remove(thread);
+		}
 	}
 	
 	/** 
@@ -840,12 +1270,13 @@ public final class OALSource extends OALObject
 	{
 		if (isBoundToABuffer())
 		{
+			long previous = getStateStamp();
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourcePlay(getName());
+				getBackend().alSourcePlay(getName());
 				errorCheck();
 			}
-			fireSourcePlayedEvent(this);
+			played(previous);
 		}
 	}
 		
@@ -869,12 +1300,13 @@ public final class OALSource extends OALObject
 	{
 		if (isBoundToABuffer())
 		{
+			long previous = getStateStamp();
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourcePause(getName());
+				getBackend().alSourcePause(getName());
 				errorCheck();
 			}
-			fireSourcePausedEvent(this);
+			paused(previous);
 		}
 	}
 
@@ -885,14 +1317,14 @@ public final class OALSource extends OALObject
 	{
 		if (isBoundToABuffer())
 		{
-			boolean event = !isStopped();
+			boolean event = needsStopEvent();
+			long previous = getStateStamp();
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourceStop(getName());
+				getBackend().alSourceStop(getName());
 				errorCheck();
 			}
-			if (event)
-				fireSourceStoppedEvent(this);
+			stopped(previous, event);
 		}
 	}
 	
@@ -901,15 +1333,81 @@ public final class OALSource extends OALObject
 	{
 		if (isBoundToABuffer())
 		{
+			long previous = getStateStamp();
 			try (ContextLock lock = requestContext()) 
 			{
-				AL11.alSourceRewind(getName());
+				getBackend().alSourceRewind(getName());
 				errorCheck();
 			}
-			fireSourceRewoundEvent(this);
+			rewound(previous);
 		}
 	}
 
+	/**
+	 * Gets the known state and change count, to pass to one of the transport notifications
+	 * ({@link #played(long)}, {@link #paused(long)}, {@link #stopped(long, boolean)}, {@link #rewound(long)})
+	 * after the transport call. Must be read before the call.
+	 * @return the state stamp.
+	 */
+	long getStateStamp()
+	{
+		return stateCache.get();
+	}
+	
+	/**
+	 * Checks if stopping this Source should fire a stop event: only if there are listeners, 
+	 * and it is not already stopped.
+	 * @return true if so, false if not.
+	 */
+	boolean needsStopEvent()
+	{
+		return listening && !isStopped();
+	}
+	
+	/**
+	 * Notifies this Source that it was played.
+	 * @param previous the state stamp from before the call.
+	 */
+	void played(long previous)
+	{
+		cacheState(previous, AL11.AL_PLAYING);
+		fireSourcePlayedEvent(this);
+	}
+	
+	/**
+	 * Notifies this Source that it was paused.
+	 * @param previous the state stamp from before the call.
+	 */
+	void paused(long previous)
+	{
+		// pausing only changes a playing source.
+		if ((int)previous == AL11.AL_PLAYING)
+			cacheState(previous, AL11.AL_PAUSED);
+		fireSourcePausedEvent(this);
+	}
+	
+	/**
+	 * Notifies this Source that it was stopped.
+	 * @param previous the state stamp from before the call.
+	 * @param event if true, fire the stop event.
+	 */
+	void stopped(long previous, boolean event)
+	{
+		cacheState(previous, AL11.AL_STOPPED);
+		if (event)
+			fireSourceStoppedEvent(this);
+	}
+	
+	/**
+	 * Notifies this Source that it was rewound.
+	 * @param previous the state stamp from before the call.
+	 */
+	void rewound(long previous)
+	{
+		cacheState(previous, AL11.AL_INITIAL);
+		fireSourceRewoundEvent(this);
+	}
+
 	/** 
 	 * Is this source playing?
 	 * @return true if so, false if not.
@@ -955,18 +1453,42 @@ public final class OALSource extends OALObject
 		return !bufferQueue.isEmpty() || buffer != null;
 	}
 	
+	/**
+	 * @return this source's play state.
+	 */
+	public State getPlayState()
+	{
+		return State.get(getState());
+	}
+	
 	/**
 	 * Get this source's state.
 	 * Returns an AL constant.
+	 * If events are enabled on the owning context, this only calls OpenAL if the state is not known.
 	 * @return one of AL_INITIAL, AL_PLAYING, AL_STOPPED, or AL_PAUSED.
 	 */
 	protected final int getState()
+	{
+		if (getContext().isEventsEnabled())
+		{
+			long cached = stateCache.get();
+			if ((int)cached != 0)
+				return (int)cached;
+			int out = queryState();
+			cacheState(cached, out);
+			return out;
+		}
+		return queryState();
+	}
+	
+	// Reads the state from OpenAL.
+	private int queryState()
 	{
 		int out;
 		try (ContextLock lock = requestContext()) 
 		{
 			clearError();
-			out = AL11.alGetSourcei(getName(), AL11.AL_SOURCE_STATE);
+			out = getBackend().alGetSourcei(getName(), AL11.AL_SOURCE_STATE);
 			errorCheck();
 		}
 		return out;
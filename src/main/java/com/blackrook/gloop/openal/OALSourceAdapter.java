@@ -49,5 +49,17 @@ public class OALSourceAdapter implements OALSourceListener
 	{
 		// Do nothing.
 	}
+
+	@Override
+	public void sourceStateChanged(OALSource source, OALSource.State state)
+	{
+		// Do nothing.
+	}
+
+	@Override
+	public void sourceBuffersCompleted(OALSource source, int count)
+	{
+		// Do nothing.
+	}
 	
 }
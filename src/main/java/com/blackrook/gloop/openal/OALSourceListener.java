@@ -52,4 +52,26 @@ public interface OALSourceListener
 	 */
 	public void sourceBufferDequeued(OALSource source, OALBuffer buffer);
 	
+	/**
+	 * Called when OpenAL reports that a Source's play state changed, including when it stops naturally.
+	 * Only called if events are enabled on the Source's context, from {@link OALContext#dispatchEvents()}.
+	 * @param source the source that this occurred on. 
+	 * @param state the new state. 
+	 */
+	default void sourceStateChanged(OALSource source, OALSource.State state)
+	{
+		// Do nothing.
+	}
+	
+	/**
+	 * Called when OpenAL reports that a Source finished playing one or more queued buffers.
+	 * Only called if events are enabled on the Source's context, from {@link OALContext#dispatchEvents()}.
+	 * @param source the source that this occurred on. 
+	 * @param count the amount of buffers completed. 
+	 */
+	default void sourceBuffersCompleted(OALSource source, int count)
+	{
+		// Do nothing.
+	}
+	
 }
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.lwjgl.openal.AL11;
+
+import com.blackrook.gloop.openal.OALSystem.ContextLock;
+import com.blackrook.gloop.openal.exception.SoundException;
+
+/**
+ * A pool of Sources that are allocated once, up front, and handed out and taken back
+ * without creating or deleting anything in OpenAL.
+ * <p>Each acquired Source has a priority. If every Source is in use, {@link #acquire(int)} steals
+ * the Source with the lowest priority (the quietest one, if more than one has that priority),
+ * provided its priority is not higher than the one requested.
+ * <p>Released and stolen Sources are stopped, have their listeners removed, and are reset to defaults.
+ * Resetting a Source only sends the properties that were changed, so releasing is cheap.
+ * <p>All methods on this class are synchronized.
+ * @author Matthew Tropiano
+ */
+public class OALSourcePool
+{
+	/**
+	 * A listener that is notified when an acquired Source is stolen for another caller.
+	 */
+	@FunctionalInterface
+	public interface StealListener
+	{
+		/**
+		 * Called when a Source is taken away from its current user.
+		 * This is called before the Source is reset and handed to the new user.
+		 * @param source the Source being stolen.
+		 * @param priority the priority that it was acquired with.
+		 */
+		void onSourceStolen(OALSource source, int priority);
+	}
+
+	/** Pool size used if the device does not report how many sources it can play at once. */
+	private static final int DEFAULT_SIZE = 32;
+
+	/** The owning context. */
+	private OALContext context;
+	/** All of the pooled sources. */
+	private OALSource[] sources;
+	/** Source to index. */
+	private Map<OALSource, Integer> sourceIndex;
+	/** Is a source in use? */
+	private boolean[] used;
+	/** Priority of each source in use. */
+	private int[] priorities;
+	/** Stack of free source indices. */
+	private int[] free;
+	/** Amount of free indices. */
+	private int freeCount;
+	/** Steal listener. */
+	private StealListener stealListener;
+
+	/**
+	 * Creates a new Source pool, with as many sources as the context's device can play at once
+	 * ({@link OALContext#getMaxMonoSources()} + {@link OALContext#getMaxStereoSources()}).
+	 * If the device does not report either, the pool is created with a default size of 32.
+	 * @param context the context to create the sources on.
+	 * @throws SoundException if the sources could not be created.
+	 */
+	public OALSourcePool(OALContext context)
+	{
+		this(context, defaultSize(context));
+	}
+
+	/**
+	 * Creates a new Source pool.
+	 * @param context the context to create the sources on.
+	 * @param size the amount of sources to create.
+	 * @throws IllegalArgumentException if size is less than 1.
+	 * @throws SoundException if the sources could not be created.
+	 */
+	public OALSourcePool(OALContext context, int size)
+	{
+		if (size < 1)
+			throw new IllegalArgumentException("Pool size must be 1 or greater.");
+
+		this.context = context;
+		this.sources = context.createSources(size);
+		this.sourceIndex = new IdentityHashMap<>(size);
+		this.used = new boolean[size];
+		this.priorities = new int[size];
+		this.free = new int[size];
+		this.freeCount = size;
+		this.stealListener = null;
+
+		// stack top is the first source.
+		for (int i = 0; i < size; i++)
+		{
+			sourceIndex.put(sources[i], i);
+			free[i] = size - i - 1;
+		}
+	}
+
+	/**
+	 * Sets the listener that is called when a Source is stolen.
+	 * @param stealListener the listener, or null for none.
+	 */
+	public synchronized void setStealListener(StealListener stealListener)
+	{
+		this.stealListener = stealListener;
+	}
+
+	/**
+	 * @return the owning context.
+	 */
+	public OALContext getContext()
+	{
+		return context;
+	}
+
+	/**
+	 * @return the total amount of sources in this pool.
+	 */
+	public int getSize()
+	{
+		return sources.length;
+	}
+
+	/**
+	 * @return the amount of sources not in use.
+	 */
+	public synchronized int getFreeCount()
+	{
+		return freeCount;
+	}
+
+	/**
+	 * @return the amount of sources in use.
+	 */
+	public synchronized int getUsedCount()
+	{
+		return sources.length - freeCount;
+	}
+
+	/**
+	 * Acquires a Source with priority 0.
+	 * @return a Source, or null if none are free and none can be stolen.
+	 * @see #acquire(int)
+	 */
+	public OALSource acquire()
+	{
+		return acquire(0);
+	}
+
+	/**
+	 * Acquires a Source from this pool.
+	 * If all of the sources are in use, the one with the lowest priority is stolen,
+	 * provided that its priority is less than or equal to the provided priority.
+	 * A source that has stopped playing is stolen before any other, and among sources with the same priority, 
+	 * the one with the lowest gain is stolen.
+	 * @param priority the priority of the new Source (higher is more important).
+	 * @return a Source, or null if none are free and none can be stolen.
+	 */
+	public synchronized OALSource acquire(int priority)
+	{
+		int index;
+		if (freeCount > 0)
+		{
+			index = free[--freeCount];
+		}
+		else
+		{
+			index = findVictim(priority);
+			if (index < 0)
+				return null;
+
+			OALSource source = sources[index];
+			if (stealListener != null)
+				stealListener.onSourceStolen(source, priorities[index]);
+			clean(source);
+		}
+
+		used[index] = true;
+		priorities[index] = priority;
+		return sources[index];
+	}
+
+	/**
+	 * Changes the priority of an acquired Source.
+	 * @param source the Source.
+	 * @param priority the new priority.
+	 * @throws IllegalArgumentException if the Source is not from this pool or not acquired.
+	 */
+	public synchronized void setPriority(OALSource source, int priority)
+	{
+		priorities[getUsedIndex(source)] = priority;
+	}
+
+	/**
+	 * Releases a Source back to this pool.
+	 * The Source is stopped, its listeners are removed, and it is reset to defaults.
+	 * @param source the Source to release.
+	 * @throws IllegalArgumentException if the Source is not from this pool or not acquired.
+	 */
+	public synchronized void release(OALSource source)
+	{
+		int index = getUsedIndex(source);
+		clean(source);
+		used[index] = false;
+		free[freeCount++] = index;
+	}
+
+	/**
+	 * Releases every acquired Source back to this pool.
+	 * Stolen-source listeners are not called.
+	 */
+	public synchronized void releaseAll()
+	{
+		try (ContextLock lock = context.acquire())
+		{
+			for (int i = 0; i < sources.length; i++)
+				if (used[i])
+					release(sources[i]);
+		}
+	}
+
+	/**
+	 * Destroys all of the sources in this pool.
+	 * The pool cannot be used after this is called.
+	 */
+	public synchronized void destroy()
+	{
+		context.destroyObjects(sources);
+		freeCount = 0;
+		for (int i = 0; i < sources.length; i++)
+			used[i] = false;
+	}
+
+	// Gets the amount of sources the context's device can play at once, or the default if it doesn't say.
+	private static int defaultSize(OALContext context)
+	{
+		int size = context.getMaxMonoSources() + context.getMaxStereoSources();
+		return size > 0 ? size : DEFAULT_SIZE;
+	}
+
+	// Gets the index of an acquired source, or throws an exception.
+	private int getUsedIndex(OALSource source)
+	{
+		Integer index = sourceIndex.get(source);
+		if (index == null)
+			throw new IllegalArgumentException("Source is not from this pool.");
+		else if (!used[index])
+			throw new IllegalArgumentException("Source was not acquired.");
+		return index;
+	}
+
+	// Finds a source that has finished playing (stopped), else the lowest priority, quietest source, 
+	// or -1 if none can be stolen for this priority. Sources that have not been played yet are in use.
+	private int findVictim(int priority)
+	{
+		int out = -1;
+		float outGain = 0f;
+		try (ContextLock lock = context.acquire())
+		{
+			for (int i = 0; i < sources.length; i++)
+			{
+				if (priorities[i] > priority)
+					continue;
+				if (sources[i].getState() == AL11.AL_STOPPED)
+					return i;
+				float gain = sources[i].getGain();
+				if (out < 0 || priorities[i] < priorities[out] || (priorities[i] == priorities[out] && gain < outGain))
+				{
+					out = i;
+					outGain = gain;
+				}
+			}
+		}
+		return out;
+	}
+
+	// Stops, detaches, and resets a source.
+	private void clean(OALSource source)
+	{
+		try (ContextLock lock = context.acquire())
+		{
+			source.stop();
+			source.removeAllListeners();
+			source.reset();
+		}
+	}
+
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * A reusable, growable, direct (off-heap) buffer for staging sample data on its way to OpenAL.
+ * There is one arena per thread (see {@link #get()}), so no locking is needed.
+ * <p>The arena grows to fit the largest request it sees, and keeps that memory for the next request,
+ * unless the memory held goes past the maximum retained size (see {@link #setMaxRetainedBytes(int)}),
+ * in which case it is dropped on release. {@link #trim()} shrinks it down to what was
+ * actually needed since the last trim.
+ * <p>The memory is managed by the garbage collector, so an arena that belongs to a thread that ends is
+ * reclaimed along with it.
+ * <p>Only one user can hold an arena's buffer at a time:
+ * <pre>
+ * OALStagingArena arena = OALStagingArena.get();
+ * ByteBuffer buf = arena.acquire(length);
+ * try {
+ *     // fill buf, flip, and hand off...
+ * } finally {
+ *     arena.release();
+ * }
+ * </pre>
+ * @author Matthew Tropiano
+ */
+public final class OALStagingArena
+{
+	/** Default maximum amount of bytes kept between uses (4 MB). */
+	public static final int DEFAULT_MAX_RETAINED_BYTES = 1 << 22;
+	/** Smallest capacity allocated. */
+	private static final int MIN_CAPACITY = 16384;
+
+	/** Per-thread arenas. */
+	private static final ThreadLocal<OALStagingArena> THREAD_ARENA = ThreadLocal.withInitial(() -> new OALStagingArena());
+
+	/** The staging buffer. */
+	private ByteBuffer buffer;
+	/** Is the buffer held? */
+	private boolean inUse;
+	/** Largest request ever. */
+	private int highWaterMark;
+	/** Largest request since last trim. */
+	private int recentHighWaterMark;
+	/** Times the buffer was (re)allocated. */
+	private int allocationCount;
+	/** Maximum capacity kept after release. */
+	private int maxRetainedBytes;
+
+	private OALStagingArena()
+	{
+		this.buffer = null;
+		this.inUse = false;
+		this.highWaterMark = 0;
+		this.recentHighWaterMark = 0;
+		this.allocationCount = 0;
+		this.maxRetainedBytes = DEFAULT_MAX_RETAINED_BYTES;
+	}
+
+	/**
+	 * @return the calling thread's staging arena.
+	 */
+	public static OALStagingArena get()
+	{
+		return THREAD_ARENA.get();
+	}
+
+	/**
+	 * Acquires this arena's buffer, growing it if necessary.
+	 * The returned buffer is cleared, with its limit set to the requested capacity.
+	 * Its contents are undefined.
+	 * @param capacity the amount of bytes needed.
+	 * @return the staging buffer.
+	 * @throws IllegalStateException if the buffer is already acquired.
+	 */
+	public ByteBuffer acquire(int capacity)
+	{
+		if (inUse)
+			throw new IllegalStateException("Staging arena is already in use.");
+		ensureCapacity(capacity, false);
+		inUse = true;
+		buffer.clear();
+		buffer.limit(capacity);
+		return buffer;
+	}
+
+	/**
+	 * Grows the acquired buffer, keeping the contents up to its current position.
+	 * The returned buffer may be a different object than the one previously returned, with
+	 * the same position, and its limit set to the requested capacity.
+	 * @param capacity the new amount of bytes needed.
+	 * @return the staging buffer.
+	 * @throws IllegalStateException if the buffer is not acquired.
+	 */
+	public ByteBuffer expand(int capacity)
+	{
+		if (!inUse)
+			throw new IllegalStateException("Staging arena is not acquired.");
+		ensureCapacity(capacity, true);
+		buffer.limit(capacity);
+		return buffer;
+	}
+
+	/**
+	 * Releases the acquired buffer.
+	 * If the buffer is larger than the maximum retained size, it is dropped.
+	 */
+	public void release()
+	{
+		inUse = false;
+		if (buffer != null && buffer.capacity() > maxRetainedBytes)
+			buffer = null;
+	}
+
+	/**
+	 * Shrinks this arena to the largest request made since the last trim,
+	 * or drops the buffer completely if there were no requests.
+	 * Does nothing if the buffer is acquired.
+	 */
+	public void trim()
+	{
+		if (inUse || buffer == null)
+			return;
+
+		if (recentHighWaterMark == 0)
+			buffer = null;
+		else if (capacityFor(recentHighWaterMark) < buffer.capacity())
+		{
+			buffer = BufferUtils.createByteBuffer(capacityFor(recentHighWaterMark));
+			allocationCount++;
+		}
+		recentHighWaterMark = 0;
+	}
+
+	/**
+	 * Sets the maximum amount of bytes that this arena keeps between uses.
+	 * @param maxRetainedBytes the maximum amount of bytes.
+	 * @throws IllegalArgumentException if maxRetainedBytes is less than 0.
+	 */
+	public void setMaxRetainedBytes(int maxRetainedBytes)
+	{
+		if (maxRetainedBytes < 0)
+			throw new IllegalArgumentException("Max retained bytes cannot be less than 0.");
+		this.maxRetainedBytes = maxRetainedBytes;
+	}
+
+	/**
+	 * @return the maximum amount of bytes that this arena keeps between uses.
+	 */
+	public int getMaxRetainedBytes()
+	{
+		return maxRetainedBytes;
+	}
+
+	/**
+	 * @return the current capacity in bytes (0 if nothing is allocated).
+	 */
+	public int getCapacity()
+	{
+		return buffer != null ? buffer.capacity() : 0;
+	}
+
+	/**
+	 * @return the largest amount of bytes ever requested from this arena.
+	 */
+	public int getHighWaterMark()
+	{
+		return highWaterMark;
+	}
+
+	/**
+	 * @return the amount of times this arena allocated memory.
+	 */
+	public int getAllocationCount()
+	{
+		return allocationCount;
+	}
+
+	// Rounds up to the next power of two, minimum MIN_CAPACITY.
+	private static int capacityFor(int amount)
+	{
+		if (amount <= MIN_CAPACITY)
+			return MIN_CAPACITY;
+		int out = Integer.highestOneBit(amount - 1) << 1;
+		return out > 0 ? out : Integer.MAX_VALUE;
+	}
+
+	private void ensureCapacity(int capacity, boolean keepContents)
+	{
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity cannot be less than 0.");
+
+		highWaterMark = Math.max(highWaterMark, capacity);
+		recentHighWaterMark = Math.max(recentHighWaterMark, capacity);
+
+		if (buffer != null && buffer.capacity() >= capacity)
+			return;
+
+		ByteBuffer next = BufferUtils.createByteBuffer(capacityFor(capacity));
+		allocationCount++;
+		if (keepContents && buffer != null)
+		{
+			buffer.flip();
+			next.put(buffer);
+		}
+		buffer = next;
+	}
+
+}
@@ -11,13 +11,20 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.lwjgl.openal.ALC11;
-
 import com.blackrook.gloop.openal.exception.SoundException;
 import com.blackrook.gloop.openal.exception.SoundSystemException;
 
 /**
  * This class is a central sound system class designed to manage an OpenAL instance and environment.
+ * <p>By default, contexts are made current process-wide, and once more than one context exists,
+ * calls to OpenAL are serialized through one lock. If this is created with thread-local contexts on 
+ * (see {@link #OALSystem(boolean)}), each thread makes its own context current via ALC_EXT_thread_local_context,
+ * and no lock is taken at all.
+ * <p>Each device guards its own context creation and reopening, and can run OpenAL calls on its own command thread
+ * (see {@link OALDevice#startCommandThread()}). With thread-local contexts, calls through different devices never
+ * wait on each other; with process-wide contexts, only one context can be current at a time, so they still share this system's lock.
+ * <p>All calls to OpenAL made through this system, its devices, and their objects go through its {@link OALBackend}.
+ * By default, this is LWJGL's OpenAL bindings, but a system can be made to mix in Java instead (see {@link OALSoftwareBackend}).
  * @author Matthew Tropiano
  */
 public final class OALSystem
@@ -90,29 +97,102 @@ public final class OALSystem
 		}
 	}
 	
+	/** The single no-op lock, for thread-local mode and held context scopes. */
+	static final ContextLock NO_OP_LOCK = new NoOpContextLock();
+	
+	/** The backend that OpenAL calls go through. */
+	private OALBackend backend;
+	/** Are contexts made current per thread? */
+	private boolean threadLocalContexts;
+	/** Current context per thread (thread-local mode). */
+	private ThreadLocal<OALContext> threadContext;
 	/** Current context. */
 	private OALContext currentContext;
 	/** The context lock. */
-	private ContextLock contextLock;
-	/** Set of created devices. */
-	private Set<OALDevice> openDevices;
+	private volatile ContextLock contextLock;
+	/** Amount of contexts created through this system. */
+	private int contextCount;
+	/** Set of created devices (playback and capture). */
+	private Set<OALHandle> openDevices;
 
 	/**
 	 * Creates a new OpenAL Sound System.
+	 * Contexts are made current process-wide.
 	 */
 	public OALSystem()
 	{
+		this(false);
+	}
+
+	/**
+	 * Creates a new OpenAL Sound System.
+	 * <p>If thread-local contexts are used, each thread that makes OpenAL calls binds the context it needs
+	 * to itself once (via <code>alcSetThreadContext</code>), and checking for the current context is a thread-local 
+	 * lookup instead of a lock acquisition, even with many contexts. All devices created by this system must support
+	 * the ALC_EXT_thread_local_context extension.
+	 * @param threadLocalContexts if true, make contexts current per thread. If false, contexts are made current process-wide.
+	 */
+	public OALSystem(boolean threadLocalContexts)
+	{
+		this(OALNativeBackend.INSTANCE, threadLocalContexts);
+	}
+
+	/**
+	 * Creates a new OpenAL Sound System that makes its calls to OpenAL through a backend.
+	 * Contexts are made current process-wide.
+	 * @param backend the backend to use.
+	 * @see OALSoftwareBackend
+	 */
+	public OALSystem(OALBackend backend)
+	{
+		this(backend, false);
+	}
+
+	/**
+	 * Creates a new OpenAL Sound System that makes its calls to OpenAL through a backend.
+	 * @param backend the backend to use.
+	 * @param threadLocalContexts if true, make contexts current per thread. If false, contexts are made current process-wide.
+	 * @throws NullPointerException if backend is null.
+	 * @see #OALSystem(boolean)
+	 */
+	public OALSystem(OALBackend backend, boolean threadLocalContexts)
+	{
+		if (backend == null)
+			throw new NullPointerException("backend cannot be null.");
+		this.backend = backend;
+		this.threadLocalContexts = threadLocalContexts;
+		this.threadContext = threadLocalContexts ? new ThreadLocal<>() : null;
 		this.currentContext = null;
 		this.openDevices = new HashSet<>(2, 1f);
 		this.contextLock = new NoOpContextLock();
+		this.contextCount = 0;
+	}
+
+	/**
+	 * @return the backend that this system's calls to OpenAL go through.
+	 */
+	public OALBackend getBackend()
+	{
+		return backend;
 	}
 
 	/**
-	 * Upgrades the context lock to a strict lock.
+	 * @return true if contexts are made current per thread, false if process-wide.
 	 */
-	void upgradeLock()
+	public boolean usesThreadLocalContexts()
 	{
-		if (!(contextLock instanceof ReentrantContextLock))
+		return threadLocalContexts;
+	}
+	
+	/**
+	 * Counts a context that is about to be created on one of this system's devices.
+	 * Once there is more than one, the context lock is upgraded to a strict lock.
+	 * Contexts are only ever current process-wide, so this is counted for the whole system, not per device.
+	 * Does nothing to the lock if contexts are thread-local.
+	 */
+	synchronized void contextCreated()
+	{
+		if (++contextCount > 1 && !threadLocalContexts && !(contextLock instanceof ReentrantContextLock))
 			contextLock = new ReentrantContextLock();
 	}
 	
@@ -122,17 +202,91 @@ public final class OALSystem
 	 */
 	ContextLock setCurrentContext(OALContext context)
 	{
-		contextLock.lock();
+		if (threadLocalContexts)
+			return setThreadContext(context);
+		
+		// read once: the lock may be upgraded by another thread while this one holds it.
+		ContextLock lock = contextLock;
+		lock.lock();
 		// already current? Do nothing.
 		if (currentContext == context)
-			return contextLock;
-		else if (ALC11.alcMakeContextCurrent(context != null ? context.getHandle() : 0L))
+			return lock;
+		else if (currentContext != null && currentContext.isScopedByCurrentThread())
+		{
+			lock.close();
+			throw new SoundException("Cannot switch contexts while another context's scope is held on this thread.");
+		}
+		else if (backend.alcMakeContextCurrent(context != null ? context.getHandle() : 0L))
 		{
 			currentContext = context;
-			return contextLock;
+			return lock;
 		}
 		else
+		{
+			lock.close();
 			throw new SoundException("Could not acquire context lock.");
+		}
+	}
+	
+	// Makes a context current on the calling thread.
+	private ContextLock setThreadContext(OALContext context)
+	{
+		// already current on this thread? Do nothing.
+		OALContext current = threadContext.get();
+		if (current == context)
+			return NO_OP_LOCK;
+		else if (current != null && current.isScopedByCurrentThread())
+			throw new SoundException("Cannot switch contexts while another context's scope is held on this thread.");
+		// capabilities are null while the context is being created.
+		else if (backend.alcSetThreadContext(context != null ? context.getHandle() : 0L, context != null ? context.getCapabilities() : null))
+		{
+			threadContext.set(context);
+			return NO_OP_LOCK;
+		}
+		else
+			throw new SoundException("Could not make context current on this thread.");
+	}
+	
+	/**
+	 * Unbinds the context that is current on the calling thread, if any.
+	 * In thread-local mode, threads that made OpenAL calls should call this before they end,
+	 * otherwise OpenAL may report the context as leaked. In process-wide mode, this does nothing.
+	 */
+	public void releaseThreadContext()
+	{
+		if (threadLocalContexts && threadContext.get() != null)
+		{
+			backend.alcSetThreadContext(0L, null);
+			threadContext.remove();
+		}
+	}
+	
+	/**
+	 * Releases a context that is about to be destroyed, if it is current.
+	 * In thread-local mode, this only affects the calling thread.
+	 * @param context the context.
+	 */
+	void releaseContext(OALContext context)
+	{
+		if (threadLocalContexts)
+		{
+			if (threadContext.get() == context)
+				releaseThreadContext();
+		}
+		else
+		{
+			ContextLock lock = contextLock;
+			lock.lock();
+			try {
+				if (currentContext == context)
+				{
+					backend.alcMakeContextCurrent(0L);
+					currentContext = null;
+				}
+			} finally {
+				lock.close();
+			}
+		}
 	}
 	
 	/**
@@ -159,6 +313,65 @@ public final class OALSystem
 		return device;
 	}
 	
+	/**
+	 * Checks if loopback devices are supported (ALC_SOFT_loopback).
+	 * @return true if so, false if not.
+	 * @see #createLoopbackDevice(int, OALLoopbackDevice.RenderChannels, OALLoopbackDevice.RenderType)
+	 */
+	public boolean isLoopbackSupported()
+	{
+		return backend.alcIsExtensionPresent(0L, "ALC_SOFT_loopback");
+	}
+	
+	/**
+	 * Creates a new loopback device, which renders its output into memory on request instead of playing it.
+	 * @param frequency the output sampling rate.
+	 * @param channels the output channel layout.
+	 * @param type the output sample type.
+	 * @return the newly allocated device.
+	 * @throws SoundSystemException if loopback devices are not supported, the format is not supported, or the device can't be created.
+	 * @see OALLoopbackDevice#renderSamples(java.nio.ByteBuffer, int)
+	 */
+	public OALLoopbackDevice createLoopbackDevice(int frequency, OALLoopbackDevice.RenderChannels channels, OALLoopbackDevice.RenderType type)
+	{
+		if (!isLoopbackSupported())
+			throw new SoundSystemException("Loopback devices are not supported (ALC_SOFT_loopback).");
+		OALLoopbackDevice device = new OALLoopbackDevice(this, frequency, channels, type);
+		openDevices.add(device);
+		return device;
+	}
+	
+	/**
+	 * Creates a new capture device on the default capture device, with a default target latency.
+	 * @param frequency the sampling rate to capture at.
+	 * @param format the format of the captured samples (must not be compressed, and must have a power-of-two frame size).
+	 * @param bufferFrames the size of the capture buffer in sample frames. This is rounded up to the next power of two.
+	 * @return the newly allocated capture device.
+	 * @throws SoundException if the device can't be opened for that rate and format.
+	 * @see #createCaptureDevice(String, int, OALBuffer.Format, int)
+	 */
+	public OALCaptureDevice createCaptureDevice(int frequency, OALBuffer.Format format, int bufferFrames)
+	{
+		return createCaptureDevice(null, frequency, format, bufferFrames);
+	}
+	
+	/**
+	 * Creates a new capture device, with a default target latency.
+	 * @param name the name of the capture device (<code>null</code> for default).
+	 * @param frequency the sampling rate to capture at.
+	 * @param format the format of the captured samples (must not be compressed, and must have a power-of-two frame size).
+	 * @param bufferFrames the size of the capture buffer in sample frames. This is rounded up to the next power of two.
+	 * @return the newly allocated capture device.
+	 * @throws IllegalArgumentException if the format is compressed or does not have a power-of-two frame size, or bufferFrames is less than 1.
+	 * @throws SoundException if the device can't be opened for that rate and format.
+	 */
+	public OALCaptureDevice createCaptureDevice(String name, int frequency, OALBuffer.Format format, int bufferFrames)
+	{
+		OALCaptureDevice device = new OALCaptureDevice(backend, name, frequency, format, bufferFrames);
+		openDevices.add(device);
+		return device;
+	}
+	
 	/**
 	 * Runs all Shut Down hooks, destroys all contexts and closes all open devices.
 	 */
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A consumer of PCM sample data, such as captured samples (see {@link OALCaptureDevice#setConsumer(PcmConsumer)}).
+ * <p>This is called on the capturing thread as soon as samples arrive, so implementations
+ * must not block, allocate, or take long.
+ * @author Matthew Tropiano
+ */
+@FunctionalInterface
+public interface PcmConsumer
+{
+	/**
+	 * Accepts sample data, from the buffer's current position to its limit.
+	 * The buffer is read-only in spirit and only valid for the duration of this call: copy out what needs to be kept.
+	 * @param buffer the (direct) buffer holding the samples.
+	 */
+	void accept(ByteBuffer buffer);
+	
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A provider of PCM sample data for callback-driven buffers (see {@link OALBuffer#setCallback(PcmProvider)}).
+ * <p>This is called on OpenAL's mixer thread whenever it needs more samples, so implementations
+ * must not block, allocate, or take long - see {@link PcmRingBuffer} for a provider that is 
+ * filled ahead of time by another thread.
+ * @author Matthew Tropiano
+ */
+@FunctionalInterface
+public interface PcmProvider
+{
+	/**
+	 * Fills a buffer with sample data in the format of the buffer it is attached to.
+	 * The data is written from the buffer's current position to its limit. 
+	 * The buffer is only valid for the duration of this call.
+	 * @param buffer the (direct) buffer to write samples into.
+	 * @return the amount of bytes written. If this is less than the amount requested, OpenAL treats it as the end of the stream.
+	 */
+	int fill(ByteBuffer buffer);
+	
+}
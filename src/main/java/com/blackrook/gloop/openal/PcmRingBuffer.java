@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Black Rook Software
+ * This program and the accompanying materials are made available under the
+ * terms of the GNU Lesser Public License v2.1 which accompanies this
+ * distribution, and is available at
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.gloop.openal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * A lock-free, single-producer, single-consumer ring buffer of PCM data.
+ * <p>One thread (usually a decoder thread) writes data ahead of time, and one thread (usually OpenAL's mixer thread,
+ * through {@link #fill(ByteBuffer)}) reads it. Reading never blocks or allocates. If the reader catches up to the writer 
+ * before the end of the stream is marked, the gap is filled with silence and counted as an underrun, so the stream
+ * does not end early.
+ * <p>It can also be used the other way around, for captured data: see {@link #write(PcmProvider, int)} and {@link #read(ByteBuffer)}.
+ * @author Matthew Tropiano
+ */
+public class PcmRingBuffer implements PcmProvider
+{
+	/** The backing memory. */
+	private final ByteBuffer buffer;
+	/** A view of the backing memory for the writer (positioned per write). */
+	private final ByteBuffer writeView;
+	/** A view of the backing memory for the reader (positioned per read). */
+	private final ByteBuffer readView;
+	/** Address of the backing memory. */
+	private final long address;
+	/** Capacity mask. */
+	private final int mask;
+	/** Silent sample byte. */
+	private final byte silence;
+	/** Holds a decoded frame that has to be split across the end of the backing memory (writer only). */
+	private ByteBuffer frameBuffer;
+	
+	/** Total bytes written (only changed by the writer). */
+	private volatile long writeCount;
+	/** Total bytes read (only changed by the reader). */
+	private volatile long readCount;
+	/** Has the writer written everything? */
+	private volatile boolean endOfStream;
+	/** Amount of underruns (only changed by the reader). */
+	private volatile int underrunCount;
+
+	/**
+	 * Creates a new ring buffer.
+	 * @param capacity the capacity in bytes. This is rounded up to the next power of two.
+	 * @param format the format of the data in the buffer (for writing silence).
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public PcmRingBuffer(int capacity, OALBuffer.Format format)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be 1 or greater.");
+		
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		
+		this.buffer = BufferUtils.createByteBuffer(size);
+		this.writeView = buffer.duplicate();
+		this.readView = buffer.duplicate();
+		this.address = MemoryUtil.memAddress(buffer);
+		this.mask = size - 1;
+		this.silence = format.bits == 8 ? (byte)0x80 : (byte)0;
+		this.frameBuffer = BufferUtils.createByteBuffer(32);
+		this.writeCount = 0L;
+		this.readCount = 0L;
+		this.endOfStream = false;
+		this.underrunCount = 0;
+	}
+
+	/**
+	 * @return the capacity of this buffer in bytes.
+	 */
+	public int getCapacity()
+	{
+		return mask + 1;
+	}
+	
+	/**
+	 * @return the amount of bytes that can be read.
+	 */
+	public int getReadable()
+	{
+		return (int)(writeCount - readCount);
+	}
+	
+	/**
+	 * @return the amount of bytes that can be written.
+	 */
+	public int getWritable()
+	{
+		return getCapacity() - getReadable();
+	}
+	
+	/**
+	 * @return the amount of times the reader ran out of data before the end of the stream.
+	 */
+	public int getUnderrunCount()
+	{
+		return underrunCount;
+	}
+	
+	/**
+	 * Marks whether the writer is done writing. Once marked, the reader reads what is left, 
+	 * and then reports the end of the stream instead of filling with silence.
+	 * @param endOfStream true to mark the end, false to unmark it.
+	 */
+	public void setEndOfStream(boolean endOfStream)
+	{
+		this.endOfStream = endOfStream;
+	}
+	
+	/**
+	 * @return true if the end of the stream was marked, false if not.
+	 */
+	public boolean isEndOfStream()
+	{
+		return endOfStream;
+	}
+	
+	/**
+	 * Checks if the reader read everything after the end of the stream was marked.
+	 * @return true if so, false if not.
+	 */
+	public boolean isDrained()
+	{
+		return endOfStream && getReadable() == 0;
+	}
+	
+	/**
+	 * Writes bytes to this buffer. Writer thread only.
+	 * @param data the source array.
+	 * @param offset the offset into the array.
+	 * @param length the amount of bytes to write.
+	 * @return the amount of bytes written, which may be less than length if the buffer is full.
+	 */
+	public int write(byte[] data, int offset, int length)
+	{
+		int amount = Math.min(length, getWritable());
+		int written = 0;
+		while (written < amount)
+		{
+			int index = (int)((writeCount + written) & mask);
+			int chunk = Math.min(amount - written, getCapacity() - index);
+			writeView.limit(index + chunk);
+			writeView.position(index);
+			writeView.put(data, offset + written, chunk);
+			written += chunk;
+		}
+		writeCount += amount;
+		return amount;
+	}
+	
+	/**
+	 * Writes bytes to this buffer from a buffer's position to its limit. Writer thread only.
+	 * The source buffer's position is advanced by the amount written.
+	 * @param data the source buffer.
+	 * @return the amount of bytes written, which may be less than the amount remaining if this buffer is full.
+	 */
+	public int write(ByteBuffer data)
+	{
+		int amount = Math.min(data.remaining(), getWritable());
+		int written = 0;
+		while (written < amount)
+		{
+			int index = (int)((writeCount + written) & mask);
+			int chunk = Math.min(amount - written, getCapacity() - index);
+			if (data.isDirect())
+			{
+				MemoryUtil.memCopy(MemoryUtil.memAddress(data), address + index, chunk);
+				data.position(data.position() + chunk);
+			}
+			else
+			{
+				ByteBuffer src = data.duplicate();
+				src.limit(src.position() + chunk);
+				writeView.limit(index + chunk);
+				writeView.position(index);
+				writeView.put(src);
+				data.position(data.position() + chunk);
+			}
+			written += chunk;
+		}
+		writeCount += amount;
+		return amount;
+	}
+	
+	/**
+	 * Decodes as many whole frames as will fit into this buffer. Writer thread only.
+	 * A frame that straddles the end of the backing memory is decoded aside and split across it.
+	 * @param decoder the decoder to read from.
+	 * @return the amount of bytes written. 0 means that there is room for less than one frame, or the decoder has no more data.
+	 * @throws IOException if the decoder can't be read.
+	 */
+	public int write(JSPISoundHandle.Decoder decoder) throws IOException
+	{
+		int frameSize = decoder.getDecodedAudioFormat().getFrameSize();
+		int amount = getWritable();
+		amount -= amount % frameSize;
+		int written = 0;
+		while (written < amount)
+		{
+			int index = (int)((writeCount + written) & mask);
+			int chunk = Math.min(amount - written, getCapacity() - index);
+			chunk -= chunk % frameSize;
+			if (chunk == 0)
+			{
+				int read = writeSplitFrame(decoder, index, frameSize);
+				written += read;
+				if (read < frameSize)
+					break;
+				continue;
+			}
+			writeView.limit(index + chunk);
+			writeView.position(index);
+			int read = decoder.readPCMBytes(writeView);
+			written += read;
+			if (read < chunk)
+				break;
+		}
+		writeCount += written;
+		return written;
+	}
+	
+	// Decodes one frame, and copies it to the end and the start of the backing memory.
+	private int writeSplitFrame(JSPISoundHandle.Decoder decoder, int index, int frameSize) throws IOException
+	{
+		if (frameBuffer.capacity() < frameSize)
+			frameBuffer = BufferUtils.createByteBuffer(frameSize);
+		frameBuffer.clear();
+		frameBuffer.limit(frameSize);
+		int read = decoder.readPCMBytes(frameBuffer);
+		if (read < frameSize)
+			return 0;
+		
+		long frameAddress = MemoryUtil.memAddress0(frameBuffer);
+		int end = getCapacity() - index;
+		MemoryUtil.memCopy(frameAddress, address + index, end);
+		MemoryUtil.memCopy(frameAddress + end, address, frameSize - end);
+		return frameSize;
+	}
+	
+	/**
+	 * Has a provider write directly into this buffer's memory, for as many bytes as will fit, up to a maximum.
+	 * The provider is called once per contiguous region (at most twice), and stops early if it writes less than it was given.
+	 * Writer thread only. Does not allocate.
+	 * @param provider the provider to fill from (the buffer it is handed is only valid for the call).
+	 * @param length the maximum amount of bytes to write.
+	 * @return the amount of bytes written.
+	 */
+	public int write(PcmProvider provider, int length)
+	{
+		int amount = Math.min(length, getWritable());
+		int written = 0;
+		while (written < amount)
+		{
+			int index = (int)((writeCount + written) & mask);
+			int chunk = Math.min(amount - written, getCapacity() - index);
+			writeView.limit(index + chunk);
+			writeView.position(index);
+			int read = provider.fill(writeView);
+			written += read;
+			if (read < chunk)
+				break;
+		}
+		writeCount += written;
+		return written;
+	}
+	
+	/**
+	 * Reads from this buffer into the target buffer, up to what is available. Reader thread only.
+	 * Unlike {@link #fill(ByteBuffer)}, nothing is padded with silence and nothing counts as an underrun.
+	 * The target buffer's position is advanced by the amount read. Does not allocate if the target is direct.
+	 * @param target the target buffer.
+	 * @return the amount of bytes read.
+	 */
+	public int read(ByteBuffer target)
+	{
+		int amount = Math.min(target.remaining(), getReadable());
+		int read = 0;
+		while (read < amount)
+		{
+			int index = (int)((readCount + read) & mask);
+			int chunk = Math.min(amount - read, getCapacity() - index);
+			if (target.isDirect())
+			{
+				MemoryUtil.memCopy(address + index, MemoryUtil.memAddress(target), chunk);
+				target.position(target.position() + chunk);
+			}
+			else
+			{
+				readView.limit(index + chunk);
+				readView.position(index);
+				target.put(readView);
+			}
+			read += chunk;
+		}
+		readCount += amount;
+		return amount;
+	}
+	
+	/**
+	 * Hands everything that can be read to a consumer, in place, and consumes it. 
+	 * The consumer is called once per contiguous region (at most twice). Reader thread only. Does not allocate.
+	 * @param consumer the consumer (the buffer it is handed is only valid for the call).
+	 * @return the amount of bytes consumed.
+	 */
+	public int read(PcmConsumer consumer)
+	{
+		int amount = getReadable();
+		int read = 0;
+		while (read < amount)
+		{
+			int index = (int)((readCount + read) & mask);
+			int chunk = Math.min(amount - read, getCapacity() - index);
+			readView.limit(index + chunk);
+			readView.position(index);
+			consumer.accept(readView);
+			read += chunk;
+		}
+		readCount += amount;
+		return amount;
+	}
+	
+	/**
+	 * Discards bytes from the read side of this buffer, up to what is available. Reader thread only.
+	 * @param length the amount of bytes to skip.
+	 * @return the amount of bytes skipped.
+	 */
+	public int skip(int length)
+	{
+		int amount = Math.min(length, getReadable());
+		readCount += amount;
+		return amount;
+	}
+	
+	/**
+	 * Discards everything in this buffer and resets the end of stream marker and counters.
+	 * Neither the reader or the writer may be using this buffer while this is called.
+	 */
+	public void clear()
+	{
+		readCount = 0L;
+		writeCount = 0L;
+		endOfStream = false;
+		underrunCount = 0;
+	}
+	
+	/**
+	 * Reads from this buffer into the target buffer. Reader thread only. 
+	 * Does not allocate.
+	 */
+	@Override
+	public int fill(ByteBuffer target)
+	{
+		// read before the amount - if the writer adds its last data and then marks the end, both are seen.
+		boolean ended = endOfStream;
+		int wanted = target.remaining();
+		int amount = Math.min(wanted, getReadable());
+		long targetAddress = MemoryUtil.memAddress(target);
+		
+		int read = 0;
+		while (read < amount)
+		{
+			int index = (int)((readCount + read) & mask);
+			int chunk = Math.min(amount - read, getCapacity() - index);
+			MemoryUtil.memCopy(address + index, targetAddress + read, chunk);
+			read += chunk;
+		}
+		readCount += amount;
+
+		if (amount < wanted && !ended)
+		{
+			MemoryUtil.memSet(targetAddress + amount, silence, wanted - amount);
+			underrunCount++;
+			amount = wanted;
+		}
+		
+		target.position(target.position() + amount);
+		return amount;
+	}
+	
+}
@@ -55,7 +55,7 @@ public class AutowahEffect extends OALEffect
 		this.attackTime = attackTime;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_AUTOWAH_ATTACK_TIME, 
 				MathUtils.clampValue(attackTime, EXTEfx.AL_AUTOWAH_MIN_ATTACK_TIME, EXTEfx.AL_AUTOWAH_MAX_ATTACK_TIME)
@@ -81,7 +81,7 @@ public class AutowahEffect extends OALEffect
 		this.peakGain = peakGain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(),
 				EXTEfx.AL_AUTOWAH_PEAK_GAIN,
 				MathUtils.clampValue(peakGain, EXTEfx.AL_AUTOWAH_MIN_PEAK_GAIN, EXTEfx.AL_AUTOWAH_MAX_PEAK_GAIN)
@@ -107,7 +107,7 @@ public class AutowahEffect extends OALEffect
 		this.releaseTime = releaseTime;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_AUTOWAH_RELEASE_TIME, 
 				MathUtils.clampValue(releaseTime, EXTEfx.AL_AUTOWAH_MIN_RELEASE_TIME, EXTEfx.AL_AUTOWAH_MAX_RELEASE_TIME)
@@ -133,7 +133,7 @@ public class AutowahEffect extends OALEffect
 		this.resonance = resonance;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_AUTOWAH_RESONANCE, 
 				MathUtils.clampValue(resonance, EXTEfx.AL_AUTOWAH_MIN_RESONANCE, EXTEfx.AL_AUTOWAH_MAX_RESONANCE)
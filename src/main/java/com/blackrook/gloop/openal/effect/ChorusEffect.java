@@ -71,7 +71,7 @@ public class ChorusEffect extends OALEffect
 		this.delay = delay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_CHORUS_DELAY, 
 				MathUtils.clampValue(delay, EXTEfx.AL_CHORUS_MIN_DELAY, EXTEfx.AL_CHORUS_MAX_DELAY)
@@ -97,7 +97,7 @@ public class ChorusEffect extends OALEffect
 		this.depth = depth;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_CHORUS_DEPTH, 
 				MathUtils.clampValue(depth, EXTEfx.AL_CHORUS_MIN_DEPTH, EXTEfx.AL_CHORUS_MAX_DEPTH)
@@ -123,7 +123,7 @@ public class ChorusEffect extends OALEffect
 		this.feedback = feedback;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_CHORUS_FEEDBACK, 
 				MathUtils.clampValue(feedback, EXTEfx.AL_CHORUS_MIN_FEEDBACK, EXTEfx.AL_CHORUS_MAX_FEEDBACK)
@@ -149,7 +149,7 @@ public class ChorusEffect extends OALEffect
 		this.phase = phase;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				EXTEfx.AL_CHORUS_PHASE,
 				MathUtils.clampValue(phase, EXTEfx.AL_CHORUS_MIN_PHASE, EXTEfx.AL_CHORUS_MAX_PHASE)
@@ -175,7 +175,7 @@ public class ChorusEffect extends OALEffect
 		this.rate = rate;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_CHORUS_RATE, 
 				MathUtils.clampValue(rate, EXTEfx.AL_CHORUS_MIN_RATE, EXTEfx.AL_CHORUS_MAX_RATE)
@@ -201,7 +201,7 @@ public class ChorusEffect extends OALEffect
 		this.waveForm = waveForm;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_CHORUS_WAVEFORM, waveForm.alVal);
+			getBackend().alEffecti(getName(), EXTEfx.AL_CHORUS_WAVEFORM, waveForm.alVal);
 			errorCheck();
 		}
 	}
@@ -45,7 +45,7 @@ public class CompressorEffect extends OALEffect
 		this.enabled = enabled;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_COMPRESSOR_ONOFF, enabled ? 1 : 0);
+			getBackend().alEffecti(getName(), EXTEfx.AL_COMPRESSOR_ONOFF, enabled ? 1 : 0);
 			errorCheck();
 		}
 	}
@@ -58,7 +58,7 @@ public class DistortionEffect extends OALEffect
 		this.gain = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_DISTORTION_GAIN, 
 				MathUtils.clampValue(gain, EXTEfx.AL_DISTORTION_MIN_GAIN, EXTEfx.AL_DISTORTION_MAX_GAIN)
@@ -84,7 +84,7 @@ public class DistortionEffect extends OALEffect
 		this.edge = edge;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_DISTORTION_EDGE, 
 				MathUtils.clampValue(edge, EXTEfx.AL_DISTORTION_MIN_EDGE, EXTEfx.AL_DISTORTION_MAX_EDGE)
@@ -110,7 +110,7 @@ public class DistortionEffect extends OALEffect
 		this.eqBandwidth = eqBandwidth;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_DISTORTION_EQBANDWIDTH, 
 				MathUtils.clampValue(eqBandwidth, EXTEfx.AL_DISTORTION_MIN_EQBANDWIDTH, EXTEfx.AL_DISTORTION_MAX_EQBANDWIDTH)
@@ -136,7 +136,7 @@ public class DistortionEffect extends OALEffect
 		this.eqCenter = eqCenter;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_DISTORTION_EQCENTER, 
 				MathUtils.clampValue(eqCenter, EXTEfx.AL_DISTORTION_MIN_EQCENTER, EXTEfx.AL_DISTORTION_MAX_EQCENTER)
@@ -162,7 +162,7 @@ public class DistortionEffect extends OALEffect
 		this.lowPassCutoff = lowPassCutoff;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_DISTORTION_LOWPASS_CUTOFF, 
 				MathUtils.clampValue(lowPassCutoff, EXTEfx.AL_DISTORTION_MIN_LOWPASS_CUTOFF, EXTEfx.AL_DISTORTION_MAX_LOWPASS_CUTOFF)
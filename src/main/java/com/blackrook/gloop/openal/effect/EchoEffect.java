@@ -58,7 +58,7 @@ public class EchoEffect extends OALEffect
 		this.delay = delay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_ECHO_DELAY,
 				MathUtils.clampValue(delay, EXTEfx.AL_ECHO_MIN_DELAY, EXTEfx.AL_ECHO_MAX_DELAY)
@@ -84,7 +84,7 @@ public class EchoEffect extends OALEffect
 		this.lrDelay = lrDelay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_ECHO_LRDELAY, 
 				MathUtils.clampValue(lrDelay, EXTEfx.AL_ECHO_MIN_LRDELAY, EXTEfx.AL_ECHO_MAX_LRDELAY)
@@ -110,7 +110,7 @@ public class EchoEffect extends OALEffect
 		this.feedback = feedback;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_ECHO_FEEDBACK, 
 				MathUtils.clampValue(feedback, EXTEfx.AL_ECHO_MIN_FEEDBACK, EXTEfx.AL_ECHO_MAX_FEEDBACK)
@@ -136,7 +136,7 @@ public class EchoEffect extends OALEffect
 		this.damping = damping;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_ECHO_DAMPING, 
 				MathUtils.clampValue(damping, EXTEfx.AL_ECHO_MIN_DAMPING, EXTEfx.AL_ECHO_MAX_DAMPING)
@@ -162,7 +162,7 @@ public class EchoEffect extends OALEffect
 		this.spread = spread;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_ECHO_SPREAD, 
 				MathUtils.clampValue(spread, EXTEfx.AL_ECHO_MIN_SPREAD, EXTEfx.AL_ECHO_MAX_SPREAD)
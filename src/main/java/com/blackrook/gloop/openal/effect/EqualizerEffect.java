@@ -76,7 +76,7 @@ public class EqualizerEffect extends OALEffect
 		this.highCutoff = highCutoff;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_HIGH_CUTOFF, 
 				MathUtils.clampValue(highCutoff, EXTEfx.AL_EQUALIZER_MIN_HIGH_CUTOFF, EXTEfx.AL_EQUALIZER_MAX_HIGH_CUTOFF)
@@ -102,7 +102,7 @@ public class EqualizerEffect extends OALEffect
 		this.highGain = highGain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_HIGH_GAIN,
 				MathUtils.clampValue(highGain, EXTEfx.AL_EQUALIZER_MIN_HIGH_GAIN, EXTEfx.AL_EQUALIZER_MAX_HIGH_GAIN)
@@ -128,7 +128,7 @@ public class EqualizerEffect extends OALEffect
 		this.lowCutoff = lowCutoff;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_LOW_CUTOFF,
 				MathUtils.clampValue(lowCutoff, EXTEfx.AL_EQUALIZER_MIN_LOW_CUTOFF, EXTEfx.AL_EQUALIZER_MAX_LOW_CUTOFF)
@@ -154,7 +154,7 @@ public class EqualizerEffect extends OALEffect
 		this.lowGain = lowGain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_LOW_GAIN, 
 				MathUtils.clampValue(lowGain, EXTEfx.AL_EQUALIZER_MIN_LOW_GAIN, EXTEfx.AL_EQUALIZER_MAX_LOW_GAIN)
@@ -180,7 +180,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid1Center = mid1Center;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID1_CENTER, 
 				MathUtils.clampValue(mid1Center, EXTEfx.AL_EQUALIZER_MIN_MID1_CENTER, EXTEfx.AL_EQUALIZER_MAX_MID1_CENTER)
@@ -206,7 +206,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid1Gain = mid1Gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID1_GAIN, 
 				MathUtils.clampValue(mid1Gain, EXTEfx.AL_EQUALIZER_MIN_MID1_GAIN, EXTEfx.AL_EQUALIZER_MAX_MID1_GAIN)
@@ -232,7 +232,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid1Width = mid1Width;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID1_WIDTH, 
 				MathUtils.clampValue(mid1Width, EXTEfx.AL_EQUALIZER_MIN_MID1_WIDTH, EXTEfx.AL_EQUALIZER_MAX_MID1_WIDTH)
@@ -258,7 +258,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid2Center = mid2Center;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID2_CENTER, 
 				MathUtils.clampValue(mid2Center, EXTEfx.AL_EQUALIZER_MIN_MID2_CENTER, EXTEfx.AL_EQUALIZER_MAX_MID2_CENTER)
@@ -284,7 +284,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid2Gain = mid2Gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID2_GAIN, 
 				MathUtils.clampValue(mid2Gain, EXTEfx.AL_EQUALIZER_MIN_MID2_GAIN, EXTEfx.AL_EQUALIZER_MAX_MID2_GAIN)
@@ -310,7 +310,7 @@ public class EqualizerEffect extends OALEffect
 		this.mid2Width = mid2Width;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_EQUALIZER_MID2_WIDTH, 
 				MathUtils.clampValue(mid2Width, EXTEfx.AL_EQUALIZER_MIN_MID2_WIDTH, EXTEfx.AL_EQUALIZER_MAX_MID2_WIDTH)
@@ -71,7 +71,7 @@ public class FlangerEffect extends OALEffect
 		this.delay = delay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_FLANGER_DELAY,
 				MathUtils.clampValue(delay, EXTEfx.AL_FLANGER_MIN_DELAY, EXTEfx.AL_FLANGER_MAX_DELAY)
@@ -97,7 +97,7 @@ public class FlangerEffect extends OALEffect
 		this.depth = depth;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_FLANGER_DEPTH, 
 				MathUtils.clampValue(depth, EXTEfx.AL_FLANGER_MIN_DEPTH, EXTEfx.AL_FLANGER_MAX_DEPTH)
@@ -123,7 +123,7 @@ public class FlangerEffect extends OALEffect
 		this.feedback = feedback;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_FLANGER_FEEDBACK, 
 				MathUtils.clampValue(feedback, EXTEfx.AL_FLANGER_MIN_FEEDBACK, EXTEfx.AL_FLANGER_MAX_FEEDBACK)
@@ -149,7 +149,7 @@ public class FlangerEffect extends OALEffect
 		this.phase = phase;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				EXTEfx.AL_FLANGER_PHASE, 
 				MathUtils.clampValue(phase, EXTEfx.AL_FLANGER_MIN_PHASE, EXTEfx.AL_FLANGER_MAX_PHASE)
@@ -175,7 +175,7 @@ public class FlangerEffect extends OALEffect
 		this.rate = rate;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_FLANGER_RATE, 
 				MathUtils.clampValue(rate, EXTEfx.AL_FLANGER_MIN_RATE, EXTEfx.AL_FLANGER_MAX_RATE)
@@ -201,7 +201,7 @@ public class FlangerEffect extends OALEffect
 		this.waveForm = waveForm;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_FLANGER_WAVEFORM, waveForm.alVal);
+			getBackend().alEffecti(getName(), EXTEfx.AL_FLANGER_WAVEFORM, waveForm.alVal);
 			errorCheck();
 		}
 	}
@@ -63,7 +63,7 @@ public class FrequencyShiftEffect extends OALEffect
 		this.frequency = frequency;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_FREQUENCY_SHIFTER_FREQUENCY,
 				MathUtils.clampValue(frequency, EXTEfx.AL_FREQUENCY_SHIFTER_MIN_FREQUENCY, EXTEfx.AL_FREQUENCY_SHIFTER_MAX_FREQUENCY)
@@ -89,7 +89,7 @@ public class FrequencyShiftEffect extends OALEffect
 		this.leftDir = leftDir;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_FREQUENCY_SHIFTER_LEFT_DIRECTION, leftDir.alVal);
+			getBackend().alEffecti(getName(), EXTEfx.AL_FREQUENCY_SHIFTER_LEFT_DIRECTION, leftDir.alVal);
 			errorCheck();
 		}
 	}
@@ -111,7 +111,7 @@ public class FrequencyShiftEffect extends OALEffect
 		this.rightDir = rightDir;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_FREQUENCY_SHIFTER_RIGHT_DIRECTION, rightDir.alVal);
+			getBackend().alEffecti(getName(), EXTEfx.AL_FREQUENCY_SHIFTER_RIGHT_DIRECTION, rightDir.alVal);
 			errorCheck();
 		}
 	}
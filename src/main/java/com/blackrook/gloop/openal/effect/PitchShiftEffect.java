@@ -49,7 +49,7 @@ public class PitchShiftEffect extends OALEffect
 		this.coarse = coarse;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				EXTEfx.AL_PITCH_SHIFTER_COARSE_TUNE,
 				MathUtils.clampValue(coarse, EXTEfx.AL_PITCH_SHIFTER_MIN_COARSE_TUNE, EXTEfx.AL_PITCH_SHIFTER_MAX_COARSE_TUNE)
@@ -75,7 +75,7 @@ public class PitchShiftEffect extends OALEffect
 		this.fine = fine;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				EXTEfx.AL_PITCH_SHIFTER_FINE_TUNE, 
 				MathUtils.clampValue(fine, EXTEfx.AL_PITCH_SHIFTER_MIN_FINE_TUNE, EXTEfx.AL_PITCH_SHIFTER_MAX_FINE_TUNE)
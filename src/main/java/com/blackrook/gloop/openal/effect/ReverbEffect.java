@@ -83,7 +83,7 @@ public class ReverbEffect extends OALEffect
 		this.airAbsorptionGainHF = airAbsorptionGainHF;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_AIR_ABSORPTION_GAINHF, 
 				MathUtils.clampValue(airAbsorptionGainHF, EXTEfx.AL_REVERB_MIN_AIR_ABSORPTION_GAINHF, EXTEfx.AL_REVERB_MAX_AIR_ABSORPTION_GAINHF)
@@ -109,7 +109,7 @@ public class ReverbEffect extends OALEffect
 		this.decayHFRatio = decayHFRatio;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_DECAY_HFRATIO,
 				MathUtils.clampValue(decayHFRatio, EXTEfx.AL_REVERB_MIN_DECAY_HFRATIO, EXTEfx.AL_REVERB_MAX_DECAY_HFRATIO)
@@ -135,7 +135,7 @@ public class ReverbEffect extends OALEffect
 		this.decayTime = decayTime;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_DECAY_TIME, 
 				MathUtils.clampValue(decayTime, EXTEfx.AL_REVERB_MIN_DECAY_TIME, EXTEfx.AL_REVERB_MAX_DECAY_TIME)
@@ -161,7 +161,7 @@ public class ReverbEffect extends OALEffect
 		this.density = density;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_DENSITY, 
 				MathUtils.clampValue(density, EXTEfx.AL_REVERB_MIN_DENSITY, EXTEfx.AL_REVERB_MAX_DENSITY)
@@ -187,7 +187,7 @@ public class ReverbEffect extends OALEffect
 		this.diffusion = diffusion;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_DIFFUSION, 
 				MathUtils.clampValue(diffusion, EXTEfx.AL_REVERB_MIN_DIFFUSION, EXTEfx.AL_REVERB_MAX_DIFFUSION)
@@ -213,7 +213,7 @@ public class ReverbEffect extends OALEffect
 		this.gain = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_GAIN, 
 				MathUtils.clampValue(gain, EXTEfx.AL_REVERB_MIN_GAIN, EXTEfx.AL_REVERB_MAX_GAIN)
@@ -239,7 +239,7 @@ public class ReverbEffect extends OALEffect
 		this.gainHF = gainHF;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_GAINHF, 
 				MathUtils.clampValue(gainHF, EXTEfx.AL_REVERB_MIN_GAINHF, EXTEfx.AL_REVERB_MAX_GAINHF)
@@ -265,7 +265,7 @@ public class ReverbEffect extends OALEffect
 		hfLimit = limit;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_REVERB_DECAY_HFLIMIT, limit ? AL11.AL_TRUE : AL11.AL_FALSE);
+			getBackend().alEffecti(getName(), EXTEfx.AL_REVERB_DECAY_HFLIMIT, limit ? AL11.AL_TRUE : AL11.AL_FALSE);
 			errorCheck();
 		}
 	}
@@ -287,7 +287,7 @@ public class ReverbEffect extends OALEffect
 		this.reflectionDelay = reflectionDelay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_REFLECTIONS_DELAY,
 				MathUtils.clampValue(reflectionDelay, EXTEfx.AL_REVERB_MIN_REFLECTIONS_DELAY, EXTEfx.AL_REVERB_MAX_REFLECTIONS_DELAY)
@@ -313,7 +313,7 @@ public class ReverbEffect extends OALEffect
 		this.reflectionGain = reflectionGain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_REFLECTIONS_GAIN, 
 				MathUtils.clampValue(reflectionGain, EXTEfx.AL_REVERB_MIN_REFLECTIONS_GAIN, EXTEfx.AL_REVERB_MAX_REFLECTIONS_GAIN)
@@ -339,7 +339,7 @@ public class ReverbEffect extends OALEffect
 		this.roomRolloffFactor = roomRolloffFactor;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_ROOM_ROLLOFF_FACTOR, 
 				MathUtils.clampValue(roomRolloffFactor, EXTEfx.AL_REVERB_MIN_ROOM_ROLLOFF_FACTOR, EXTEfx.AL_REVERB_MAX_ROOM_ROLLOFF_FACTOR)
@@ -365,7 +365,7 @@ public class ReverbEffect extends OALEffect
 		this.lateDelay = lateDelay;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_LATE_REVERB_DELAY, 
 				MathUtils.clampValue(lateDelay, EXTEfx.AL_REVERB_MIN_LATE_REVERB_DELAY, EXTEfx.AL_REVERB_MAX_LATE_REVERB_DELAY)
@@ -391,7 +391,7 @@ public class ReverbEffect extends OALEffect
 		this.lateGain = lateGain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_REVERB_LATE_REVERB_GAIN, 
 				MathUtils.clampValue(lateGain, EXTEfx.AL_REVERB_MIN_LATE_REVERB_GAIN, EXTEfx.AL_REVERB_MAX_LATE_REVERB_GAIN)
@@ -63,7 +63,7 @@ public class RingModulatorEffect extends OALEffect
 		this.waveForm = waveform;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffecti(getName(), EXTEfx.AL_RING_MODULATOR_WAVEFORM, waveform.alVal);
+			getBackend().alEffecti(getName(), EXTEfx.AL_RING_MODULATOR_WAVEFORM, waveform.alVal);
 			errorCheck();
 		}
 	}
@@ -85,7 +85,7 @@ public class RingModulatorEffect extends OALEffect
 		this.frequency = frequency;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_RING_MODULATOR_FREQUENCY,
 				MathUtils.clampValue(frequency, EXTEfx.AL_RING_MODULATOR_MIN_FREQUENCY, EXTEfx.AL_RING_MODULATOR_MAX_FREQUENCY)
@@ -111,7 +111,7 @@ public class RingModulatorEffect extends OALEffect
 		this.highPassCutoff = highPassCutoff;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				EXTEfx.AL_RING_MODULATOR_HIGHPASS_CUTOFF, 
 				MathUtils.clampValue(highPassCutoff, EXTEfx.AL_RING_MODULATOR_MIN_HIGHPASS_CUTOFF, EXTEfx.AL_RING_MODULATOR_MAX_HIGHPASS_CUTOFF)
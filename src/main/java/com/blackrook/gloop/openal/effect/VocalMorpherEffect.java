@@ -111,7 +111,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_PHONEMEA was not in LWJGL.
-			EXTEfx.alEffecti(getName(), 1 /* AL_VOCAL_MORPHER_PHONEMEA */, phonemeA.alVal);
+			getBackend().alEffecti(getName(), 1 /* AL_VOCAL_MORPHER_PHONEMEA */, phonemeA.alVal);
 			errorCheck();
 		}
 	}
@@ -134,7 +134,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_PHONEMEA_COARSE_TUNING was not in LWJGL.
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				2 /* AL_VOCAL_MORPHER_PHONEMEA_COARSE_TUNING */, 
 				MathUtils.clampValue(phonemeACoarseTuning, EXTEfx.AL_VOCAL_MORPHER_MIN_PHONEMEA_COARSE_TUNING, EXTEfx.AL_VOCAL_MORPHER_MAX_PHONEMEA_COARSE_TUNING)
@@ -161,7 +161,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_PHONEMEB was not in LWJGL.
-			EXTEfx.alEffecti(getName(), 3 /* AL_VOCAL_MORPHER_PHONEMEB */, phonemeB.alVal);
+			getBackend().alEffecti(getName(), 3 /* AL_VOCAL_MORPHER_PHONEMEB */, phonemeB.alVal);
 			errorCheck();
 		}
 	}
@@ -184,7 +184,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_PHONEMEB_COARSE_TUNING was not in LWJGL.
-			EXTEfx.alEffecti(
+			getBackend().alEffecti(
 				getName(), 
 				4 /* AL_VOCAL_MORPHER_PHONEMEB_COARSE_TUNING */, 
 				MathUtils.clampValue(phonemeBCoarseTuning, EXTEfx.AL_VOCAL_MORPHER_MIN_PHONEMEB_COARSE_TUNING, EXTEfx.AL_VOCAL_MORPHER_MAX_PHONEMEB_COARSE_TUNING)
@@ -211,7 +211,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_RATE was not in LWJGL.
-			EXTEfx.alEffectf(
+			getBackend().alEffectf(
 				getName(), 
 				6 /* AL_VOCAL_MORPHER_RATE */, 
 				MathUtils.clampValue(rate, EXTEfx.AL_VOCAL_MORPHER_MIN_RATE, EXTEfx.AL_VOCAL_MORPHER_MAX_RATE)
@@ -238,7 +238,7 @@ public class VocalMorpherEffect extends OALEffect
 		try (ContextLock lock = requestContext()) 
 		{
 			// AL_VOCAL_MORPHER_WAVEFORM was not in LWJGL.
-			EXTEfx.alEffecti(getName(), 5 /* AL_VOCAL_MORPHER_WAVEFORM */, waveform.alVal);
+			getBackend().alEffecti(getName(), 5 /* AL_VOCAL_MORPHER_WAVEFORM */, waveform.alVal);
 			errorCheck();
 		}
 	}
@@ -49,16 +49,19 @@ public class BandPassFilter extends OALFilter
 	 */
 	public void setGain(float gain)
 	{
+		if (this.gain == gain)
+			return;
 		this.gain = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_BANDPASS_GAIN, 
 				MathUtils.clampValue(gain, EXTEfx.AL_BANDPASS_MIN_GAIN, EXTEfx.AL_BANDPASS_MAX_GAIN)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 
 	/**
@@ -75,16 +78,19 @@ public class BandPassFilter extends OALFilter
 	 */
 	public void setLFGain(float gain)
 	{
+		if (this.gainLF == gain)
+			return;
 		this.gainLF = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_BANDPASS_GAINLF,
 				MathUtils.clampValue(gain, EXTEfx.AL_BANDPASS_MIN_GAINLF, EXTEfx.AL_BANDPASS_MAX_GAINLF)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 
 	/**
@@ -101,16 +107,19 @@ public class BandPassFilter extends OALFilter
 	 */
 	public void setHFGain(float gain)
 	{
+		if (this.gainHF == gain)
+			return;
 		this.gainHF = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_BANDPASS_GAINHF, 
 				MathUtils.clampValue(gain, EXTEfx.AL_BANDPASS_MIN_GAINHF, EXTEfx.AL_BANDPASS_MAX_GAINHF)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 	
 
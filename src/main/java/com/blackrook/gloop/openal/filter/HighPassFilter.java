@@ -46,16 +46,19 @@ public class HighPassFilter extends OALFilter
 	 */
 	public void setGain(float gain)
 	{
+		if (this.gain == gain)
+			return;
 		this.gain = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_HIGHPASS_GAIN, 
 				MathUtils.clampValue(gain, EXTEfx.AL_HIGHPASS_MIN_GAIN, EXTEfx.AL_HIGHPASS_MAX_GAIN)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 	
 	/**
@@ -72,16 +75,19 @@ public class HighPassFilter extends OALFilter
 	 */
 	public void setLFGain(float gain)
 	{
+		if (this.gainLF == gain)
+			return;
 		this.gainLF = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_HIGHPASS_GAINLF, 
 				MathUtils.clampValue(gain, EXTEfx.AL_HIGHPASS_MIN_GAINLF, EXTEfx.AL_HIGHPASS_MAX_GAINLF)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 	
 }
@@ -46,16 +46,19 @@ public class LowPassFilter extends OALFilter
 	 */
 	public void setGain(float gain)
 	{
+		if (this.gain == gain)
+			return;
 		this.gain = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_LOWPASS_GAIN, 
 				MathUtils.clampValue(gain, EXTEfx.AL_LOWPASS_MIN_GAIN, EXTEfx.AL_LOWPASS_MAX_GAIN)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 	
 	/**
@@ -72,16 +75,19 @@ public class LowPassFilter extends OALFilter
 	 */
 	public void setHFGain(float gain)
 	{
+		if (this.gainHF == gain)
+			return;
 		this.gainHF = gain;
 		try (ContextLock lock = requestContext()) 
 		{
-			EXTEfx.alFilterf(
+			getBackend().alFilterf(
 				getName(), 
 				EXTEfx.AL_LOWPASS_GAINHF, 
 				MathUtils.clampValue(gain, EXTEfx.AL_LOWPASS_MIN_GAINHF, EXTEfx.AL_LOWPASS_MAX_GAINHF)
 			);
 			errorCheck();
 		}
+		markChanged();
 	}
 	
 }
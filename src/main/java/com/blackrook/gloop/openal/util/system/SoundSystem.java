@@ -6,34 +6,41 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
-import org.lwjgl.BufferUtils;
-
 import com.blackrook.gloop.openal.JSPISoundHandle;
 import com.blackrook.gloop.openal.OALBuffer;
 import com.blackrook.gloop.openal.OALContext;
 import com.blackrook.gloop.openal.OALDevice;
 import com.blackrook.gloop.openal.OALEffectSlot;
+import com.blackrook.gloop.openal.OALObject;
 import com.blackrook.gloop.openal.OALSource;
+import com.blackrook.gloop.openal.OALStagingArena;
 import com.blackrook.gloop.openal.OALSystem;
+import com.blackrook.gloop.openal.OALSystem.ContextLock;
+import com.blackrook.gloop.openal.PcmRingBuffer;
 import com.blackrook.gloop.openal.effect.EchoEffect;
 import com.blackrook.gloop.openal.effect.ReverbEffect;
 import com.blackrook.gloop.openal.filter.BandPassFilter;
 import com.blackrook.gloop.openal.struct.IOUtils;
 import com.blackrook.gloop.openal.struct.MathUtils;
 import com.blackrook.gloop.openal.struct.RandomUtils;
-import com.blackrook.gloop.openal.struct.ThreadUtils;
 
 
 /**
@@ -45,6 +52,17 @@ import com.blackrook.gloop.openal.struct.ThreadUtils;
  */
 public class SoundSystem
 {
+	/** Milliseconds between checks for a disconnected output device. */
+	private static final int DISCONNECT_CHECK_MILLIS = 500;
+	/** Event slots between the calling threads and the processor thread (power of two). */
+	private static final int EVENT_QUEUE_CAPACITY = 1024;
+	/** Default nanoseconds between event updates (0, as events arrive). */
+	public static final long DEFAULT_EVENT_TICK_NANOS = 0L;
+	/** Default nanoseconds between voice updates (30 Hz). */
+	public static final long DEFAULT_VOICE_TICK_NANOS = 1000000000L / 30;
+	/** Default nanoseconds between stream updates (30 Hz). */
+	public static final long DEFAULT_STREAM_TICK_NANOS = 1000000000L / 30;
+
 	private static final ThreadLocal<UpdateCache> UPDATECACHE = ThreadLocal.withInitial(() -> new UpdateCache());
 
 	private static final SoundRolloffType DEFAULT_ROLLOFF = new SoundRolloffType()
@@ -73,6 +91,8 @@ public class SoundSystem
 	private OALContext context;
 	
 	private SoundCache cache;
+	/** Decoded size in bytes above which cached sounds are compressed (less than 0 is never). */
+	private volatile int compressionThreshold;
 	
 	private String vendorName;
 	private String versionName;
@@ -87,16 +107,21 @@ public class SoundSystem
 	private SoundLocation observer;
 	
 	private Map<SoundData, SoundStream> primedStreams;
-	private Deque<Event> eventQueue;
+	private EventQueue eventQueue;
+	/** Events that could not be handled yet, retried on the next update. Processor thread only. */
 	private Deque<Event> processDelay;
+	/** Recycled events for processDelay. Processor thread only. */
+	private Deque<Event> spareEvents;
 
 	private Deque<Voice> availableVoices;
 	private Deque<Voice> deadVoices;
-	private Deque<Voice> usedVoices;
+	private VoiceList usedVoices;
 	
-	private Map<SoundData, Deque<Voice>> soundToVoicesMap;
-	private Map<SoundGroupType, Deque<Voice>> groupToVoicesMap;
-	private Map<SoundLocation, Deque<Voice>> locationToVoicesMap;
+	private VoiceRegistry<SoundData> soundToVoicesMap;
+	private VoiceRegistry<SoundGroupType> groupToVoicesMap;
+	private VoiceRegistry<SoundLocation> locationToVoicesMap;
+	/** Voices by location and channel. */
+	private VoiceRegistry<SoundLocation> channelToVoicesMap;
 
 	/** Active processor thread. */
 	private ProcessorThread processor;
@@ -108,6 +133,16 @@ public class SoundSystem
 	
 	private long updateEventNanos;
 	private long updateVoiceNanos;
+	private long updateStreamNanos;
+	
+	/** Nanoseconds between event updates, or 0 for as they arrive. */
+	private volatile long eventTickNanos;
+	/** Nanoseconds between voice updates. */
+	private volatile long voiceTickNanos;
+	/** Longest nanoseconds between stream updates. */
+	private volatile long streamTickNanos;
+	/** If true, the processor thread sleeps until the next event while no voices are active. */
+	private volatile boolean idleSleep;
 	
 	// ======================================================================
 
@@ -135,11 +170,50 @@ public class SoundSystem
 	 */
 	public SoundSystem(int voices, int cacheSize)
 	{
-		this.system = new OALSystem();
-		OALDevice device = system.createDevice();
-		this.context = device.createContext();
+		this(new OALSystem(), voices, cacheSize);
+	}
+	
+	/**
+	 * Creates and initializes a new sound system on an existing context, 
+	 * such as one on an {@link com.blackrook.gloop.openal.OALLoopbackDevice}.
+	 * The context stays owned by the caller: shutting down this sound system frees the objects it created, 
+	 * but does not destroy the context or its device.
+	 * @param context the context to use.
+	 * @param voices the total amount of voices to allocate.
+	 * @param cacheSize the cache size for the sound clip cache.
+	 */
+	public SoundSystem(OALContext context, int voices, int cacheSize)
+	{
+		this(null, context, voices, cacheSize);
+	}
+	
+	/**
+	 * Creates and initializes a new sound system on the default device of an OpenAL system,
+	 * such as one on an {@link com.blackrook.gloop.openal.OALSoftwareBackend} for running without sound hardware.
+	 * The OpenAL system becomes owned by this sound system, and is shut down with it.
+	 * @param system the OpenAL system to use.
+	 * @param voices the total amount of voices to allocate.
+	 * @param cacheSize the cache size for the sound clip cache.
+	 */
+	public SoundSystem(OALSystem system, int voices, int cacheSize)
+	{
+		this(system, system.createDevice().createContext(), voices, cacheSize);
+		// follow the output to the default device when it goes away, keeping everything loaded.
+		OALDevice device = context.getDevice();
+		if (device.isReopenSupported() && device.getBackend().alcIsExtensionPresent(device.getHandle(), "ALC_EXT_disconnect"))
+			device.startDisconnectWatcher(DISCONNECT_CHECK_MILLIS);
+	}
+	
+	private SoundSystem(OALSystem system, OALContext context, int voices, int cacheSize)
+	{
+		this.system = system;
+		this.context = context;
+		// voices check their state every update - let OpenAL report changes instead.
+		if (context.isEventsSupported())
+			context.setEventsEnabled(true);
 
 		this.cache = new SoundCache(cacheSize);
+		this.compressionThreshold = -1;
 		
 		this.vendorName = context.getVendorName();
 		this.versionName = context.getVersionName();
@@ -152,24 +226,37 @@ public class SoundSystem
 		this.observer = new Location(0f, 0f, 0f, 0f);
 		
 		this.primedStreams = new HashMap<>();
-		this.eventQueue = new LinkedList<>();
-		this.processDelay = new LinkedList<>();
-		
-		this.availableVoices = new LinkedList<>();
-		this.deadVoices = new LinkedList<>();
-		this.usedVoices = new LinkedList<>();
-
-		while (availableVoices.size() < voices)
-		{
-			Voice voice = new Voice(context);
+		this.eventQueue = new EventQueue(EVENT_QUEUE_CAPACITY);
+		this.processDelay = new ArrayDeque<>();
+		this.spareEvents = new ArrayDeque<>();
+		
+		this.availableVoices = new ArrayDeque<>(voices);
+		this.deadVoices = new ArrayDeque<>(voices);
+
+		OALSource[] sources = context.createSources(voices);
+		BandPassFilter[] filters = context.createFilters(voices, BandPassFilter[]::new, BandPassFilter::new);
+		OALEffectSlot[] effectSlots = context.createEffectSlots(voices * 2);
+		EchoEffect[] echoEffects = context.createEffects(voices, EchoEffect[]::new, EchoEffect::new);
+		ReverbEffect[] reverbEffects = context.createEffects(voices, ReverbEffect[]::new, ReverbEffect::new);
+		Voice[] voiceList = new Voice[voices];
+		for (int i = 0; i < voices; i++)
+		{
+			Voice voice = new Voice(i, sources[i], filters[i], effectSlots[i * 2], effectSlots[i * 2 + 1], echoEffects[i], reverbEffects[i]);
+			voiceList[i] = voice;
 			availableVoices.add(voice);
 		}
 
-		this.soundToVoicesMap = new HashMap<>();
-		this.groupToVoicesMap = new HashMap<>();
-		this.locationToVoicesMap = new HashMap<>();
+		this.usedVoices = new VoiceList(voiceList);
+		this.soundToVoicesMap = new VoiceRegistry<>(voiceList);
+		this.groupToVoicesMap = new VoiceRegistry<>(voiceList);
+		this.locationToVoicesMap = new VoiceRegistry<>(voiceList);
+		this.channelToVoicesMap = new VoiceRegistry<>(voiceList);
 		
 		this.processor = new ProcessorThread();
+		this.eventTickNanos = DEFAULT_EVENT_TICK_NANOS;
+		this.voiceTickNanos = DEFAULT_VOICE_TICK_NANOS;
+		this.streamTickNanos = DEFAULT_STREAM_TICK_NANOS;
+		this.idleSleep = true;
 		
 		this.soundScape = null;
 		this.occlusionFunction = null;
@@ -541,6 +628,111 @@ public class SoundSystem
 		this.occlusionFunction = occlusionFunction;
 	}
 
+	/**
+	 * Sets the size above which cached sounds are kept compressed (IMA4 ADPCM) in OpenAL, 
+	 * at about a quarter of their size. The OpenAL mixer decodes these as they play. 
+	 * Only 16-bit mono and stereo sounds are compressed, and only if the context supports AL_EXT_IMA4.
+	 * Affects sounds cached after this is set. Streamed sounds are never compressed. 
+	 * @param bytes the size in bytes of the decoded sound, or less than 0 to never compress (the default).
+	 */
+	public void setCompressionThreshold(int bytes)
+	{
+		this.compressionThreshold = bytes;
+	}
+
+	/**
+	 * @return the size in bytes above which cached sounds are kept compressed, or less than 0 if never.
+	 */
+	public int getCompressionThreshold()
+	{
+		return compressionThreshold;
+	}
+
+	/**
+	 * Sets the target time between event updates (play, stop, pause, resume, precache).
+	 * At 0, events are handled as soon as they arrive. Otherwise, they are gathered and handled together.
+	 * @param nanos the time in nanoseconds, or 0. Default is {@link #DEFAULT_EVENT_TICK_NANOS}.
+	 * @throws IllegalArgumentException if nanos is less than 0.
+	 */
+	public void setEventTickNanos(long nanos)
+	{
+		if (nanos < 0)
+			throw new IllegalArgumentException("Tick must be 0 or greater.");
+		this.eventTickNanos = nanos;
+		LockSupport.unpark(processor);
+	}
+
+	/**
+	 * @return the target time between event updates in nanoseconds, or 0 if as they arrive.
+	 */
+	public long getEventTickNanos()
+	{
+		return eventTickNanos;
+	}
+
+	/**
+	 * Sets the target time between voice updates (position, gain, pitch, filters, effects, freeing finished voices).
+	 * Fast-moving sounds may want this shorter.
+	 * @param nanos the time in nanoseconds. Default is {@link #DEFAULT_VOICE_TICK_NANOS}.
+	 * @throws IllegalArgumentException if nanos is 0 or less.
+	 */
+	public void setVoiceTickNanos(long nanos)
+	{
+		if (nanos <= 0)
+			throw new IllegalArgumentException("Tick must be greater than 0.");
+		this.voiceTickNanos = nanos;
+		LockSupport.unpark(processor);
+	}
+
+	/**
+	 * @return the target time between voice updates in nanoseconds.
+	 */
+	public long getVoiceTickNanos()
+	{
+		return voiceTickNanos;
+	}
+
+	/**
+	 * Sets the longest time between stream refills. Streams are refilled sooner than this 
+	 * if their buffered audio would otherwise run low (when streaming through callback buffers).
+	 * @param nanos the time in nanoseconds. Default is {@link #DEFAULT_STREAM_TICK_NANOS}.
+	 * @throws IllegalArgumentException if nanos is 0 or less.
+	 */
+	public void setStreamTickNanos(long nanos)
+	{
+		if (nanos <= 0)
+			throw new IllegalArgumentException("Tick must be greater than 0.");
+		this.streamTickNanos = nanos;
+		LockSupport.unpark(processor);
+	}
+
+	/**
+	 * @return the longest time between stream refills in nanoseconds.
+	 */
+	public long getStreamTickNanos()
+	{
+		return streamTickNanos;
+	}
+
+	/**
+	 * Sets if the processor thread sleeps until the next event while no voices are active and nothing is waiting to play,
+	 * instead of waking every tick.
+	 * @param idleSleep true to sleep while idle (the default), false to always wake every tick.
+	 */
+	public void setIdleSleep(boolean idleSleep)
+	{
+		this.idleSleep = idleSleep;
+		LockSupport.unpark(processor);
+	}
+
+	/**
+	 * @return true if the processor thread sleeps while idle, false if not.
+	 */
+	public boolean isIdleSleep()
+	{
+		return idleSleep;
+	}
+
 	/**
 	 * Precaches a series of sound resources. Will NOT cache sounds
 	 * if they designated as not cacheable or if they are streaming: instead,
@@ -572,7 +764,7 @@ public class SoundSystem
 					handle = openSoundHandle(resource);
 					if ((buf = cache.getBuffer(resource)) == null)
 					{	
-						buf = context.createBuffer(handle);
+						buf = context.createBuffer(handle, compressionThreshold);
 						cache.addBuffer(resource, buf);
 						listeners.forEach((listener) -> listener.onSoundCached(resource));
 					}
@@ -628,18 +820,7 @@ public class SoundSystem
 	 */
 	public void play(SoundData data, SoundGroupType group, SoundCategoryType category, SoundLocation location, Integer channel)
 	{
-		Event event = new Event();
-		event.type = Event.Type.PLAY;
-		event.channel = channel;
-		event.location = location;
-		event.category = category;
-		event.group = group;
-		event.sound = data;
-		
-		event.initGain = 1f;
-		event.initPitch = 1f;
-		
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.PLAY, data, group, category, location, channel);
 	}
 	
 	/**
@@ -689,18 +870,7 @@ public class SoundSystem
 	 */
 	public void playLooping(SoundData data, SoundGroupType group, SoundCategoryType category, SoundLocation location, Integer channel)
 	{
-		Event event = new Event();
-		event.type = Event.Type.PLAY_LOOP;
-		event.channel = channel;
-		event.location = location;
-		event.category = category;
-		event.group = group;
-		event.sound = data;
-		
-		event.initGain = 1f;
-		event.initPitch = 1f;
-		
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.PLAY_LOOP, data, group, category, location, channel);
 	}
 	
 	/**
@@ -709,10 +879,7 @@ public class SoundSystem
 	 */
 	public void pauseGroup(SoundGroup group)
 	{
-		Event event = new Event();
-		event.type = Event.Type.PAUSE;
-		event.group = group;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.PAUSE, null, group, null, null, null);
 	}
 	
 	/**
@@ -721,10 +888,7 @@ public class SoundSystem
 	 */
 	public void pauseLocation(SoundLocation location)
 	{
-		Event event = new Event();
-		event.type = Event.Type.PAUSE;
-		event.location = location;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.PAUSE, null, null, null, location, null);
 	}
 	
 	/**
@@ -733,10 +897,7 @@ public class SoundSystem
 	 */
 	public void resumeGroup(SoundGroup group)
 	{
-		Event event = new Event();
-		event.type = Event.Type.RESUME;
-		event.group = group;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.RESUME, null, group, null, null, null);
 	}
 	
 	/**
@@ -745,10 +906,7 @@ public class SoundSystem
 	 */
 	public void resumeLocation(SoundLocation location)
 	{
-		Event event = new Event();
-		event.type = Event.Type.RESUME;
-		event.location = location;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.RESUME, null, null, null, location, null);
 	}
 	
 	/**
@@ -757,10 +915,7 @@ public class SoundSystem
 	 */
 	public void stopSound(SoundData data)
 	{
-		Event event = new Event();
-		event.type = Event.Type.STOP;
-		event.sound = data;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.STOP, data, null, null, null, null);
 	}
 	
 	/**
@@ -769,10 +924,7 @@ public class SoundSystem
 	 */
 	public void stopGroup(SoundGroup group)
 	{
-		Event event = new Event();
-		event.type = Event.Type.STOP;
-		event.group = group;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.STOP, null, group, null, null, null);
 	}
 	
 	/**
@@ -782,11 +934,7 @@ public class SoundSystem
 	 */
 	public void stopLocation(SoundLocation location, Integer channel)
 	{
-		Event event = new Event();
-		event.type = Event.Type.STOP;
-		event.location = location;
-		event.channel = channel;
-		enqueueEvent(event);
+		enqueueEvent(Event.Type.STOP, null, null, null, location, channel);
 	}
 	
 	/**
@@ -805,6 +953,14 @@ public class SoundSystem
 		return updateEventNanos;
 	}
 	
+	/**
+	 * @return the amount of time it took the stream loop to update in nanoseconds.
+	 */
+	public long getUpdateStreamNanos()
+	{
+		return updateStreamNanos;
+	}
+	
 	/**
 	 * @return the amount of available voices. 
 	 */
@@ -826,42 +982,43 @@ public class SoundSystem
 	 */
 	public void shutDown()
 	{
+		processor.shutdown();
 		handleStopAll();
 
 		if  (!primedStreams.isEmpty())
 		{
 			Iterator<SoundStream> it = primedStreams.values().iterator();
-			SoundStream ss = null;
 			while(it.hasNext())
-			{
-				ss = it.next();
-				for (OALBuffer b : ss.buffers)
-					b.destroy();
-			}
+				it.next().close();
 			primedStreams.clear();
 		}
 		
+		// destroy all voice objects in as few calls as possible.
+		OALObject[] voiceObjects = new OALObject[(usedVoices.size() + availableVoices.size()) * Voice.OBJECT_COUNT];
+		int v = 0;
 		while (!usedVoices.isEmpty())
 		{
-			Voice voice = usedVoices.pollFirst();
+			Voice voice = usedVoices.first();
+			usedVoices.remove(voice);
 			stopVoice(voice);
-			voice.destroy();
+			v = voice.getObjects(voiceObjects, v);
 		}
 		while (!availableVoices.isEmpty())
 		{
 			Voice voice = availableVoices.pollFirst();
 			stopVoice(voice);
-			voice.destroy();
+			v = voice.getObjects(voiceObjects, v);
 		}
+		context.destroyObjects(voiceObjects);
 
 		cache.destroy();
 		
-		processor.shutdown();
-		
 		soundToVoicesMap.clear();
 		soundToVoicesMap = null;
 		locationToVoicesMap.clear();
 		locationToVoicesMap = null;
+		channelToVoicesMap.clear();
+		channelToVoicesMap = null;
 		groupToVoicesMap.clear();
 		groupToVoicesMap = null;
 
@@ -869,6 +1026,7 @@ public class SoundSystem
 		
 		primedStreams = null;
 		processDelay = null;
+		spareEvents = null;
 		usedVoices = null;
 		availableVoices = null;
 		deadVoices = null;
@@ -881,13 +1039,43 @@ public class SoundSystem
 		}
 	}
 	
-	private void enqueueEvent(Event event)
+	/**
+	 * Queues an event for the processor thread. Nothing is allocated or locked.
+	 * If the queue is full, this waits for the processor thread to make room.
+	 */
+	private void enqueueEvent(Event.Type type, SoundData sound, SoundGroupType group, SoundCategoryType category, SoundLocation location, Integer channel)
 	{
-		// lock queue during write.
-		synchronized (eventQueue)
+		Event event;
+		while ((event = eventQueue.claim()) == null)
 		{
-			eventQueue.add(event);
-		}		
+			// the processor thread can't wait on itself - keep the event for its next update.
+			if (Thread.currentThread() == processor)
+			{
+				delayEvent(spareEvent().set(type, sound, group, category, location, channel));
+				return;
+			}
+			// nobody left to make room.
+			if (!processor.isAlive())
+				return;
+			processor.wake();
+			Thread.yield();
+		}
+		event.set(type, sound, group, category, location, channel);
+		eventQueue.publish(event);
+		processor.wake();
+	}
+	
+	// Gets a recycled event for the delay queue. Processor thread only.
+	private Event spareEvent()
+	{
+		Event out = spareEvents.pollFirst();
+		return out != null ? out : new Event();
+	}
+	
+	// Adds an event to the delay queue. Processor thread only.
+	private void delayEvent(Event event)
+	{
+		processDelay.addLast(event);
 	}
 	
 	/**
@@ -902,16 +1090,25 @@ public class SoundSystem
 	{
 		long nanotime = System.nanoTime();
 
-		// lock queue during read.
-		synchronized (eventQueue)
+		// retry belayed events once each - the ones that still can't be handled wait for the next update.
+		for (int n = processDelay.size(); n > 0; n--)
 		{
-			while (!processDelay.isEmpty())
-			{
-				handleEvent(processDelay.pollFirst());
-			}
-			while(!eventQueue.isEmpty())
-			{
-				handleEvent(eventQueue.pollFirst());
+			Event event = processDelay.pollFirst();
+			if (handleEvent(event))
+				spareEvents.addLast(event.clear());
+			else
+				processDelay.addLast(event);
+		}
+
+		// no lock held while handling: producers only wait if the queue is full.
+		Event event;
+		while ((event = eventQueue.peek()) != null)
+		{
+			try {
+				if (!handleEvent(event))
+					delayEvent(spareEvent().copy(event));
+			} finally {
+				eventQueue.release(event);
 			}
 		}
 		
@@ -929,19 +1126,24 @@ public class SoundSystem
 	private void updateVoices()
 	{
 		long nanotime = System.nanoTime();
-		Iterator<Voice> it = usedVoices.iterator();
-		while (it.hasNext())
-			updateVoice(it.next());
 		
-		// Clean up dead voices.
-		it = usedVoices.iterator();
-		while (it.hasNext())
+		// hold the context once for all of the voice calls.
+		try (ContextLock lock = context.acquire())
 		{
-			Voice voice = it.next();
-			if (!voice.source.isPlaying() && !voice.source.isPaused())
+			// apply all of the voice changes in one go.
+			try (OALContext.Batch batch = context.beginBatch())
 			{
-				deadVoices.add(voice);
-				it.remove();
+				for (Voice voice = usedVoices.first(); voice != null; voice = usedVoices.next(voice))
+					updateVoice(voice);
+			}
+			
+			// Clean up dead voices.
+			for (Voice voice = usedVoices.first(); voice != null; voice = usedVoices.next(voice))
+			{
+				// one state read - with events on, this is usually answered without calling OpenAL.
+				OALSource.State state = voice.source.getPlayState();
+				if (state != OALSource.State.PLAYING && state != OALSource.State.PAUSED)
+					deadVoices.add(voice);
 			}
 		}
 
@@ -951,6 +1153,41 @@ public class SoundSystem
 		updateVoiceNanos = System.nanoTime() - nanotime;
 	}
 	
+	/**
+	 * Refills the streams of the active voices.
+	 * @return the nanoseconds until the first stream's buffered audio runs low, or {@link Long#MAX_VALUE} if unknown.
+	 */
+	private long updateStreams()
+	{
+		long nanotime = System.nanoTime();
+		long out = Long.MAX_VALUE;
+		
+		try (ContextLock lock = context.acquire())
+		{
+			for (Voice v = usedVoices.first(); v != null; v = usedVoices.next(v))
+			{
+				final Voice voice = v;
+				if (voice.stream == null)
+					continue;
+				
+				try {
+					voice.stream.streamUpdate(voice);
+					// refill again by the time it is half empty.
+					out = Math.min(out, voice.stream.getBufferedNanos() / 2);
+				} catch (UnsupportedAudioFileException e) {
+					listeners.forEach((listener) -> listener.onSoundUnsupportedError(voice.data, e));
+					stopVoice(voice);
+				} catch (IOException e) {
+					listeners.forEach((listener) -> listener.onSoundIOError(voice.data, e));
+					stopVoice(voice);
+				}
+			}
+		}
+		
+		updateStreamNanos = System.nanoTime() - nanotime;
+		return out;
+	}
+	
 	/**
 	 * Finds an unused or suitable voice for an incoming sound to play.
 	 * Does basic checks for virtual channel availability and may stop other sounds in order to allocate a voice.
@@ -969,37 +1206,23 @@ public class SoundSystem
 		// actor clear?
 		if (location != null && channel != null)
 		{
-			Voice voice = null;
-			Deque<Voice> voiceList = locationToVoicesMap.get(location);
-			if (voiceList != null)
-			{
-				for (Voice v : voiceList)
-				{
-					if (v.channel == channel)
-					{
-						voice = v;
-						break;
-					}
-				}
-			}
+			Voice voice = channelToVoicesMap.first(location, channel);
 			if (voice != null)
 				deallocateVoice(voice);
 		}
 		
-		// group clear?
+		// group clear? (oldest first)
 		if (group != null && group.getMaximumVoices() > 0)
 		{
-			Deque<Voice> voiceList = groupToVoicesMap.get(group);
-			if (voiceList != null && voiceList.size() >= group.getMaximumVoices())
-				deallocateVoice(voiceList.pollFirst());
+			if (groupToVoicesMap.count(group, 0) >= group.getMaximumVoices())
+				deallocateVoice(groupToVoicesMap.first(group, 0));
 		}
 		
-		// sound clear?
+		// sound clear? (oldest first)
 		if (data.getLimit() > 0)
 		{
-			Deque<Voice> voiceList = soundToVoicesMap.get(data);
-			if (voiceList != null && voiceList.size() >= data.getLimit())
-				deallocateVoice(voiceList.pollFirst());
+			if (soundToVoicesMap.count(data, 0) >= data.getLimit())
+				deallocateVoice(soundToVoicesMap.first(data, 0));
 		}
 		
 		if (!availableVoices.isEmpty())
@@ -1019,6 +1242,7 @@ public class SoundSystem
 			out.looping = event.type == Event.Type.PLAY_LOOP;
 			out.group = group;
 			out.location = location;
+			out.channel = channel;
 			out.category = category;
 			out.initGain = event.initGain;
 			out.initPitch = event.initPitch;
@@ -1026,7 +1250,6 @@ public class SoundSystem
 			if (updateVoice(out))
 			{
 				registerVoice(out);
-				usedVoices.add(out);
 				return out;
 			}
 			else
@@ -1071,7 +1294,10 @@ public class SoundSystem
 			}
 
 			OALSource source = voice.source;
-			source.enqueueBuffers(ss.buffers);
+			if (ss.ring != null)
+				source.setBuffer(ss.buffers[0]);
+			else
+				source.enqueueBuffers(ss.buffers);
 			voice.stream = ss;
 			listeners.forEach((listener) -> listener.onVoiceStreamStarted(voice));
 		}
@@ -1096,14 +1322,24 @@ public class SoundSystem
 	}
 	
 	/**
-	 * Deallocates a previously allocated voice.
+	 * Deallocates a previously allocated voice, and returns it to the available voices.
 	 * @param voice the voice to deallocate.
 	 */
 	private void deallocateVoice(Voice voice)
 	{
 		voice.source.stop();
+		if (voice.stream != null)
+		{
+			// unbind first - buffers in use can't be deleted.
+			voice.source.setBuffer(null);
+			voice.stream.close();
+			voice.stream = null;
+		}
+		// a voice that failed its first update was never registered.
+		if (usedVoices.remove(voice))
+			deregisterVoice(voice);
 		voice.reset();
-		deregisterVoice(voice);
+		availableVoices.add(voice);
 		listeners.forEach((listener) -> listener.onVoiceDeallocated(voice));
 	}
 	
@@ -1114,24 +1350,33 @@ public class SoundSystem
 	private void registerVoice(Voice voice)
 	{
 		if (voice.group != null)
-			addVoiceToMap(voice.group, voice, groupToVoicesMap);
+			groupToVoicesMap.add(voice.group, 0, voice);
 		if (voice.location != null)
-			addVoiceToMap(voice.location, voice, locationToVoicesMap);
-		addVoiceToMap(voice.data, voice, soundToVoicesMap);
+		{
+			locationToVoicesMap.add(voice.location, 0, voice);
+			if (voice.channel != null)
+				channelToVoicesMap.add(voice.location, voice.channel, voice);
+		}
+		soundToVoicesMap.add(voice.data, 0, voice);
+		usedVoices.add(voice);
 	}
 	
 	/**
 	 * Deregisters an allocated voice in the system.
-	 * Happens before deallocation.
+	 * Happens before deallocation, before the voice is reset.
 	 * @param voice the voice to deregister.
 	 */
 	private void deregisterVoice(Voice voice)
 	{
 		if (voice.group != null)
-			removeVoiceFromMap(voice.group, voice, groupToVoicesMap);
+			groupToVoicesMap.remove(voice.group, 0, voice);
 		if (voice.location != null)
-			removeVoiceFromMap(voice.location, voice, locationToVoicesMap);
-		removeVoiceFromMap(voice.data, voice, soundToVoicesMap);
+		{
+			locationToVoicesMap.remove(voice.location, 0, voice);
+			if (voice.channel != null)
+				channelToVoicesMap.remove(voice.location, voice.channel, voice);
+		}
+		soundToVoicesMap.remove(voice.data, 0, voice);
 	}
 	
 	/**
@@ -1162,7 +1407,7 @@ public class SoundSystem
 			filter.setGain(1.0f);
 			filter.setHFGain(update.gainHF);
 			filter.setLFGain(update.gainLF);
-			source.setFilter(filter); // force update
+			source.setFilter(filter); // re-sent only if the filter changed
 			
 			if (soundScape != null)
 			{
@@ -1200,21 +1445,6 @@ public class SoundSystem
 			echoSlot.setGain(update.gainEffectEcho);
 			reverbSlot.setGain(update.gainEffectReverb);
 			
-			if (voice.stream != null)
-			{
-				try {
-					voice.stream.streamUpdate(voice);
-				} catch (UnsupportedAudioFileException e) {
-					listeners.forEach((listener) -> listener.onSoundUnsupportedError(voice.data, e));
-					stopVoice(voice);
-					return false;
-				} catch (IOException e) {
-					listeners.forEach((listener) -> listener.onSoundIOError(voice.data, e));
-					stopVoice(voice);
-					return false;
-				}
-			}
-			
 			return true;
 		}
 		else
@@ -1227,33 +1457,34 @@ public class SoundSystem
 	
 	/**
 	 * Handles an incoming sound event.
-	 * @param event
+	 * @param event the event.
+	 * @return true if handled, false if this is to be belayed.
 	 */
-	private void handleEvent(Event event) 
+	private boolean handleEvent(Event event) 
 	{
 		switch (event.type)
 		{
 			case PLAY:
-				handlePlay(event);
-				break;
+				return handlePlay(event);
 			case PLAY_LOOP:
-				handlePlayLoop(event);
-				break;
+				return handlePlayLoop(event);
 			case STOP:
 				handleStop(event);
-				break;
+				return true;
 			case STOP_ALL:
 				handleStopAll();
-				break;
+				return true;
 			case PAUSE:
 				handlePause(event);
-				break;
+				return true;
 			case RESUME:
 				handleResume(event);
-				break;
+				return true;
 			case PRECACHE:
 				handlePrecache(event);
-				break;
+				return true;
+			default:
+				return true;
 		}
 	}
 
@@ -1271,8 +1502,9 @@ public class SoundSystem
 	 */
 	private void handleStopAll()
 	{
-		for (Voice voice : usedVoices)
-			stopVoice(voice);
+		Set<Voice> voices = new LinkedHashSet<>();
+		usedVoices.addTo(voices);
+		stopVoices(voices);
 	}
 
 	/**
@@ -1280,30 +1512,22 @@ public class SoundSystem
 	 */
 	private void handleStop(Event event)
 	{
+		Set<Voice> voices = new LinkedHashSet<>();
 		if (event.location != null)
 		{
-			Deque<Voice> voiceList = locationToVoicesMap.get(event.location);
-			if (voiceList != null) for (Voice voice : voiceList)
-			{
-				if (event.channel == null || voice.channel == event.channel)
-					stopVoice(voice);
-			}
+			if (event.channel == null)
+				locationToVoicesMap.addTo(voices, event.location, 0);
+			else
+				channelToVoicesMap.addTo(voices, event.location, event.channel);
 		}
 		
 		if (event.group != null)
-		{
-			Deque<Voice> voiceList = groupToVoicesMap.get(event.group);
-			if (voiceList != null) for (Voice voice : voiceList)
-				stopVoice(voice);
-		}
+			groupToVoicesMap.addTo(voices, event.group, 0);
 		
 		if (event.sound != null)
-		{
-			Deque<Voice> voiceList = soundToVoicesMap.get(event.sound);
-			if (voiceList != null) for (Voice voice : voiceList)
-				stopVoice(voice);
-		}
+			soundToVoicesMap.addTo(voices, event.sound, 0);
 		
+		stopVoices(voices);
 	}
 
 	/**
@@ -1311,19 +1535,7 @@ public class SoundSystem
 	 */
 	private void handlePause(Event event)
 	{
-		if (event.location != null)
-		{
-			Deque<Voice> voiceList = locationToVoicesMap.get(event.location);
-			if (voiceList != null) for (Voice voice : voiceList)
-				voice.source.pause();
-		}
-		
-		if (event.group != null)
-		{
-			Deque<Voice> voiceList = groupToVoicesMap.get(event.group);
-			if (voiceList != null) for (Voice voice : voiceList)
-				voice.source.pause();
-		}
+		context.pause(getEventVoiceSources(event));
 	}
 
 	/**
@@ -1331,19 +1543,20 @@ public class SoundSystem
 	 */
 	private void handleResume(Event event)
 	{
+		context.play(getEventVoiceSources(event));
+	}
+
+	/**
+	 * Gets the sources of the voices at an event's location and group, once each.
+	 */
+	private OALSource[] getEventVoiceSources(Event event)
+	{
+		Set<Voice> voices = new LinkedHashSet<>();
 		if (event.location != null)
-		{
-			Deque<Voice> voiceList = locationToVoicesMap.get(event.location);
-			if (voiceList != null) for (Voice voice : voiceList)
-				voice.source.play();
-		}
-		
+			locationToVoicesMap.addTo(voices, event.location, 0);
 		if (event.group != null)
-		{
-			Deque<Voice> voiceList = groupToVoicesMap.get(event.group);
-			if (voiceList != null) for (Voice voice : voiceList)
-				voice.source.play();
-		}
+			groupToVoicesMap.addTo(voices, event.group, 0);
+		return getVoiceSources(voices);
 	}
 
 	/**
@@ -1360,7 +1573,6 @@ public class SoundSystem
 		}
 		else if (event.sound.isAlwaysPlayed())
 		{
-			processDelay.add(event);
 			return false;
 		}
 		
@@ -1382,7 +1594,6 @@ public class SoundSystem
 		}
 		else if (event.sound.isAlwaysPlayed())
 		{
-			processDelay.add(event);
 			return false;
 		}
 		
@@ -1627,25 +1838,25 @@ public class SoundSystem
 		listeners.forEach((listener) -> listener.onVoiceStopped(voice));
 	}
 	
-	private <T> void addVoiceToMap(T key, Voice voice, Map<T, Deque<Voice>> voiceMap)
+	// Stops a set of voices in one call.
+	private void stopVoices(Collection<Voice> voices)
 	{
-		Deque<Voice> voices;
-		if ((voices = voiceMap.get(key)) == null)
-			voiceMap.put(key, voices = new LinkedList<>());
-		voices.add(voice);
+		if (voices.isEmpty())
+			return;
+		context.stop(getVoiceSources(voices));
+		for (Voice voice : voices)
+			listeners.forEach((listener) -> listener.onVoiceStopped(voice));
 	}
-
-	private <T> void removeVoiceFromMap(T key, Voice voice, Map<T, Deque<Voice>> voiceMap)
+	
+	private static OALSource[] getVoiceSources(Collection<Voice> voices)
 	{
-		Deque<Voice> voices;
-		if ((voices = voiceMap.get(key)) != null)
-		{
-			voices.remove(voice);
-			if (voices.isEmpty())
-				voiceMap.remove(key);
-		}
+		OALSource[] out = new OALSource[voices.size()];
+		int i = 0;
+		for (Voice voice : voices)
+			out[i++] = voice.source;
+		return out;
 	}
-
+	
 	/**
 	 * Creates a sound data object from a resource.
 	 * @param sound the sound definition to get the path from.
@@ -1902,6 +2113,12 @@ public class SoundSystem
 
 	public static class Voice
 	{
+		/** Amount of OpenAL objects per voice. */
+		private static final int OBJECT_COUNT = 6;
+		
+		/** Index of this voice in the system, for the voice lists and registries. */
+		private final int id;
+		
 		private OALSource source;
 		private BandPassFilter filter;
 		private OALEffectSlot effectSlot0;
@@ -1920,17 +2137,18 @@ public class SoundSystem
 		private SoundStream stream;
 		private boolean looping;
 	
-		private Voice(OALContext context)
+		private Voice(int id, OALSource source, BandPassFilter filter, OALEffectSlot effectSlot0, OALEffectSlot effectSlot1, EchoEffect echoEffect, ReverbEffect reverbEffect)
 		{
-			this.source = context.createSource();
-			this.filter = context.createBandPassFilter();
+			this.id = id;
+			this.source = source;
+			this.filter = filter;
 			this.source.setFilter(this.filter);
-			this.effectSlot0 = context.createEffectSlot();
+			this.effectSlot0 = effectSlot0;
 			this.effectSlot0.setAutoUpdating(true);
-			this.effectSlot1 = context.createEffectSlot();
+			this.effectSlot1 = effectSlot1;
 			this.effectSlot1.setAutoUpdating(true);
-			this.effectSlot0.setEffect(this.echoEffect = context.createEchoEffect());
-			this.effectSlot1.setEffect(this.reverbEffect = context.createReverbEffect());
+			this.effectSlot0.setEffect(this.echoEffect = echoEffect);
+			this.effectSlot1.setEffect(this.reverbEffect = reverbEffect);
 			this.source.setEffectSlot(0, this.effectSlot0);
 			this.source.setEffectSlot(1, this.effectSlot1);
 			reset();
@@ -1947,18 +2165,16 @@ public class SoundSystem
 			this.initPitch = 1.0f;
 		}
 		
-		private void destroy()
+		// Puts this voice's OpenAL objects into an array, returns the next index.
+		private int getObjects(OALObject[] out, int index)
 		{
-			source.setEffectSlot(1, null);
-			source.setEffectSlot(0, null);
-			effectSlot1.destroy();
-			effectSlot0.destroy();
-			reverbEffect.destroy();
-			echoEffect.destroy();
-			source.setFilter(null);
-			source.setBuffer(null);
-			filter.destroy();
-			source.destroy();
+			out[index++] = source;
+			out[index++] = effectSlot0;
+			out[index++] = effectSlot1;
+			out[index++] = filter;
+			out[index++] = echoEffect;
+			out[index++] = reverbEffect;
+			return index;
 		}
 		
 		@Override
@@ -1970,7 +2186,288 @@ public class SoundSystem
 	}
 
 	/**
-	 * The streamer object made for each streaming voice.  
+	 * An ordered list of voices, linked through arrays indexed by voice id.
+	 * Adding, removing, and membership checks are O(1), and nothing is allocated.
+	 * A voice can be in the list at most once.
+	 */
+	private static class VoiceList
+	{
+		private static final int NONE = -1;
+		
+		private final Voice[] voices;
+		private final int[] prev;
+		private final int[] next;
+		private final boolean[] linked;
+		private int head;
+		private int tail;
+		private int size;
+		
+		private VoiceList(Voice[] voices)
+		{
+			this.voices = voices;
+			this.prev = new int[voices.length];
+			this.next = new int[voices.length];
+			this.linked = new boolean[voices.length];
+			this.head = NONE;
+			this.tail = NONE;
+			this.size = 0;
+		}
+		
+		/**
+		 * Adds a voice to the end of this list, if it isn't in it.
+		 */
+		private void add(Voice voice)
+		{
+			int id = voice.id;
+			if (linked[id])
+				return;
+			linked[id] = true;
+			prev[id] = tail;
+			next[id] = NONE;
+			if (tail != NONE)
+				next[tail] = id;
+			else
+				head = id;
+			tail = id;
+			size++;
+		}
+		
+		/**
+		 * Removes a voice from this list.
+		 * @return true if it was in the list, false if not.
+		 */
+		private boolean remove(Voice voice)
+		{
+			int id = voice.id;
+			if (!linked[id])
+				return false;
+			linked[id] = false;
+			if (prev[id] != NONE)
+				next[prev[id]] = next[id];
+			else
+				head = next[id];
+			if (next[id] != NONE)
+				prev[next[id]] = prev[id];
+			else
+				tail = prev[id];
+			size--;
+			return true;
+		}
+		
+		/**
+		 * @return the first (oldest) voice, or null if empty.
+		 */
+		private Voice first()
+		{
+			return head != NONE ? voices[head] : null;
+		}
+		
+		/**
+		 * Gets the voice after a voice in this list. 
+		 * This stays valid if the voice (but not the next one) is removed after this is called.
+		 * @return the next voice, or null if none.
+		 */
+		private Voice next(Voice voice)
+		{
+			int n = next[voice.id];
+			return n != NONE ? voices[n] : null;
+		}
+		
+		private int size()
+		{
+			return size;
+		}
+		
+		private boolean isEmpty()
+		{
+			return size == 0;
+		}
+		
+		/**
+		 * Adds the voices in this list to a collection, in order.
+		 */
+		private void addTo(Collection<Voice> out)
+		{
+			for (int i = head; i != NONE; i = next[i])
+				out.add(voices[i]);
+		}
+	}
+	
+	/**
+	 * Ordered lists of voices by key and channel (0 if unused), linked through arrays indexed by voice id. 
+	 * Keys are found by {@link Object#equals(Object)}, like a HashMap, in an open-addressing table with room 
+	 * for every voice, so adding, removing, counting, and finding the oldest voice for a key are O(1), 
+	 * and nothing is allocated. A voice can be in one list per registry.
+	 * @param <K> the key type.
+	 */
+	private static class VoiceRegistry<K>
+	{
+		private static final int NONE = -1;
+		
+		private final Voice[] voices;
+		private final int[] prev;
+		private final int[] next;
+		
+		/** Table of keys (null if empty) and their lists. */
+		private final Object[] keys;
+		private final int[] channels;
+		private final int[] heads;
+		private final int[] tails;
+		private final int[] counts;
+		private final int mask;
+		
+		private VoiceRegistry(Voice[] voices)
+		{
+			this.voices = voices;
+			this.prev = new int[voices.length];
+			this.next = new int[voices.length];
+			
+			// at most one key per voice - keep the table at most half full.
+			int capacity = 16;
+			while (capacity < voices.length * 2)
+				capacity <<= 1;
+			this.keys = new Object[capacity];
+			this.channels = new int[capacity];
+			this.heads = new int[capacity];
+			this.tails = new int[capacity];
+			this.counts = new int[capacity];
+			this.mask = capacity - 1;
+		}
+		
+		private int slotOf(Object key, int channel)
+		{
+			int h = key.hashCode() * 31 + channel;
+			return (h ^ (h >>> 16)) & mask;
+		}
+		
+		// Returns the table slot of a key, or NONE.
+		private int find(Object key, int channel)
+		{
+			for (int i = slotOf(key, channel); keys[i] != null; i = (i + 1) & mask)
+			{
+				if (channels[i] == channel && keys[i].equals(key))
+					return i;
+			}
+			return NONE;
+		}
+		
+		/**
+		 * Adds a voice to the end of a key's list.
+		 */
+		private void add(K key, int channel, Voice voice)
+		{
+			int slot = find(key, channel);
+			if (slot == NONE)
+			{
+				slot = slotOf(key, channel);
+				while (keys[slot] != null)
+					slot = (slot + 1) & mask;
+				keys[slot] = key;
+				channels[slot] = channel;
+				heads[slot] = NONE;
+				tails[slot] = NONE;
+				counts[slot] = 0;
+			}
+			
+			int id = voice.id;
+			prev[id] = tails[slot];
+			next[id] = NONE;
+			if (tails[slot] != NONE)
+				next[tails[slot]] = id;
+			else
+				heads[slot] = id;
+			tails[slot] = id;
+			counts[slot]++;
+		}
+		
+		/**
+		 * Removes a voice from a key's list. The voice must be in it.
+		 */
+		private void remove(K key, int channel, Voice voice)
+		{
+			int slot = find(key, channel);
+			if (slot == NONE)
+				return;
+			
+			int id = voice.id;
+			if (prev[id] != NONE)
+				next[prev[id]] = next[id];
+			else
+				heads[slot] = next[id];
+			if (next[id] != NONE)
+				prev[next[id]] = prev[id];
+			else
+				tails[slot] = prev[id];
+			
+			if (--counts[slot] == 0)
+				removeSlot(slot);
+		}
+		
+		// Empties a slot, and shifts back later keys in its probe run so that lookups still find them.
+		private void removeSlot(int slot)
+		{
+			int i = slot;
+			int j = slot;
+			while (true)
+			{
+				j = (j + 1) & mask;
+				if (keys[j] == null)
+					break;
+				int k = slotOf(keys[j], channels[j]);
+				// leave keys whose home slot is cyclically within (i, j].
+				if (i <= j ? (i < k && k <= j) : (i < k || k <= j))
+					continue;
+				keys[i] = keys[j];
+				channels[i] = channels[j];
+				heads[i] = heads[j];
+				tails[i] = tails[j];
+				counts[i] = counts[j];
+				i = j;
+			}
+			keys[i] = null;
+		}
+		
+		/**
+		 * @return the first (oldest) voice for a key, or null if none.
+		 */
+		private Voice first(K key, int channel)
+		{
+			int slot = find(key, channel);
+			return slot != NONE ? voices[heads[slot]] : null;
+		}
+		
+		/**
+		 * @return the amount of voices for a key.
+		 */
+		private int count(K key, int channel)
+		{
+			int slot = find(key, channel);
+			return slot != NONE ? counts[slot] : 0;
+		}
+		
+		/**
+		 * Adds the voices for a key to a collection, in order.
+		 */
+		private void addTo(Collection<Voice> out, K key, int channel)
+		{
+			int slot = find(key, channel);
+			if (slot == NONE)
+				return;
+			for (int i = heads[slot]; i != NONE; i = next[i])
+				out.add(voices[i]);
+		}
+		
+		private void clear()
+		{
+			Arrays.fill(keys, null);
+		}
+	}
+	
+	/**
+	 * The streamer object made for each streaming voice.
+	 * If the context supports callback buffers, this streams through one callback-driven buffer that
+	 * OpenAL pulls samples from as it mixes, and the decoder keeps a ring buffer filled ahead of it.
+	 * Otherwise, it streams through two queued buffers that are refilled as they are processed.
 	 */
 	private class SoundStream
 	{
@@ -1978,21 +2475,34 @@ public class SoundSystem
 		protected JSPISoundHandle soundHandle;
 		protected JSPISoundHandle.Decoder decoderRef;
 	
-		protected ByteBuffer bytebuffer;
+		/** Size of each buffer refill (or ring buffer) in bytes (decoded data is staged in the thread's staging arena). */
+		protected int bufferSize;
+		/** Decoded data for the callback buffer, if callback streaming. */
+		protected PcmRingBuffer ring;
+		/** Decoded bytes per second of audio. */
+		protected int bytesPerSecond;
 		
 		SoundStream(JSPISoundHandle soundHandle) throws UnsupportedAudioFileException, IOException
 		{
 			restartDecoder(soundHandle);
-			buffers = context.createBuffers(2);
 			AudioFormat decoderFormat = decoderRef.getDecodedAudioFormat();
-			for (OALBuffer b : buffers)
+			if (context.isCallbackBufferSupported())
 			{
-				b.setSamplingRate((int)decoderFormat.getSampleRate());
-				b.setFormatByChannelsAndBits(decoderFormat.getChannels(), decoderFormat.getSampleSizeInBits());
-				bytebuffer.clear();
-				decoderRef.readPCMBytes(bytebuffer);
-				bytebuffer.flip();
-				b.setData(bytebuffer);
+				buffers = context.createBuffers(1);
+				OALBuffer b = buffers[0];
+				b.setFrequencyAndFormat(decoderFormat);
+				ring = new PcmRingBuffer(bufferSize, b.getFormat());
+				ring.write(decoderRef);
+				b.setCallback(ring);
+			}
+			else
+			{
+				buffers = context.createBuffers(2);
+				for (OALBuffer b : buffers)
+				{
+					b.setFrequencyAndFormat(decoderFormat);
+					fillBuffer(b);
+				}
 			}
 		}
 	
@@ -2011,12 +2521,47 @@ public class SoundSystem
 			}
 			
 			this.soundHandle = soundHandle;
-			this.decoderRef = soundHandle.getDecoder();
+			this.decoderRef = soundHandle.getDecoder(context);
 			AudioFormat decoderFormat = decoderRef.getDecodedAudioFormat();
-			if (bytebuffer == null)
+			if (bufferSize == 0)
+			{
+				bytesPerSecond = (int)decoderFormat.getSampleRate() * decoderFormat.getChannels() * (decoderFormat.getSampleSizeInBits()/8);
+				bufferSize = bytesPerSecond;
+			}
+		}
+		
+		/**
+		 * @return the nanoseconds of decoded audio left to play, or {@link Long#MAX_VALUE} if not known 
+		 * (queued buffers, or the end of the stream is buffered).
+		 */
+		public long getBufferedNanos()
+		{
+			if (ring == null || ring.isEndOfStream() || bytesPerSecond <= 0)
+				return Long.MAX_VALUE;
+			return ring.getReadable() * 1000000000L / bytesPerSecond;
+		}
+		
+		/**
+		 * Decodes the next chunk of the stream into a buffer.
+		 * @param b the buffer to fill.
+		 * @return the amount of bytes loaded.
+		 * @throws IOException if the stream cannot be read.
+		 */
+		private int fillBuffer(OALBuffer b) throws IOException
+		{
+			OALStagingArena arena = OALStagingArena.get();
+			ByteBuffer bytebuffer = arena.acquire(bufferSize);
+			try
+			{
+				int out = decoderRef.readPCMBytes(bytebuffer);
+				bytebuffer.flip();
+				if (out > 0)
+					b.setData(bytebuffer);
+				return out;
+			}
+			finally
 			{
-				int buffersize = (int)decoderFormat.getSampleRate() * decoderFormat.getChannels() * (decoderFormat.getSampleSizeInBits()/8);
-				bytebuffer = BufferUtils.createByteBuffer(buffersize);
+				arena.release();
 			}
 		}
 		
@@ -2029,6 +2574,9 @@ public class SoundSystem
 		 */
 		public int streamUpdate(Voice voice) throws UnsupportedAudioFileException, IOException
 		{
+			if (ring != null)
+				return ringUpdate(voice);
+			
 			OALSource source = voice.source;
 			
 			int out = -1;
@@ -2036,24 +2584,18 @@ public class SoundSystem
 			while (p-- > 0 && out != 0)
 			{
 				OALBuffer b = source.dequeueBuffer();
-				bytebuffer.clear();
-				out = decoderRef.readPCMBytes(bytebuffer);
-				bytebuffer.flip();
+				out = fillBuffer(b);
 				if (out > 0)
 				{
-					b.setData(bytebuffer);
 					source.enqueueBuffer(b);
 					listeners.forEach((listener) -> listener.onStreamStep(voice));
 				}
 				else if (out == 0 && voice.looping)
 				{
 					restartDecoder(soundHandle);
-					bytebuffer.clear();
-					out = decoderRef.readPCMBytes(bytebuffer);
-					bytebuffer.flip();
+					out = fillBuffer(b);
 					if (out > 0)
 					{
-						b.setData(bytebuffer);
 						source.enqueueBuffer(b);
 						listeners.forEach((listener) -> listener.onStreamStep(voice));
 					}
@@ -2062,48 +2604,159 @@ public class SoundSystem
 			return out;
 		}
 		
+		// Tops up the ring buffer, if callback streaming.
+		private int ringUpdate(Voice voice) throws UnsupportedAudioFileException, IOException
+		{
+			if (ring.isEndOfStream())
+				return 0;
+			
+			// the decoder only writes whole frames - 0 with room for a frame is the end of its data.
+			int frameSize = decoderRef.getDecodedAudioFormat().getFrameSize();
+			int out = 0;
+			while (ring.getWritable() >= frameSize)
+			{
+				int amount = ring.write(decoderRef);
+				if (amount > 0)
+				{
+					out += amount;
+					continue;
+				}
+				
+				// decoder is out of data.
+				if (voice.looping)
+				{
+					restartDecoder(soundHandle);
+					if ((amount = ring.write(decoderRef)) > 0)
+					{
+						out += amount;
+						continue;
+					}
+				}
+				ring.setEndOfStream(true);
+				break;
+			}
+			
+			if (out > 0)
+				listeners.forEach((listener) -> listener.onStreamStep(voice));
+			return out;
+		}
+		
+		/**
+		 * Closes the decoder and destroys the buffers.
+		 * The buffers must not be bound to a source.
+		 */
+		public void close()
+		{
+			IOUtils.close(decoderRef);
+			decoderRef = null;
+			context.destroyObjects(buffers);
+		}
+		
 	}
 
 	/**
-	 * Processor thread.
-	 * Waits until events need processing, and then runs at update intervals until there's no more work to do.
+	 * Runs the event, voice, and stream updates, each on its own period.
+	 * Parks until the next one is due, and is unparked by arriving events if they are handled as they arrive.
 	 */
 	private class ProcessorThread extends Thread
 	{
-		private final long EVENTMILLIS = 1000L / 60;
+		private static final int NOT_PARKED = 0;
+		private static final int PARKED_TIMED = 1;
+		private static final int PARKED_IDLE = 2;
 		
 		private volatile boolean keepAlive;
+		/** How this is parked (or about to be), so that producers only unpark when they need to. */
+		private volatile int parked;
 		
 		private ProcessorThread() 
 		{
 			setName("SoundSystem-Processor");
 			setDaemon(true);
 			this.keepAlive = true;
+			this.parked = NOT_PARKED;
 		}
 		
 		@Override
 		public void run()
 		{
-			boolean flipflop = false;
+			long now = System.nanoTime();
+			long nextEventUpdate = now;
+			long nextVoiceUpdate = now;
+			long nextStreamUpdate = now;
 			
 			while (keepAlive)
 			{
-				if (flipflop)
+				now = System.nanoTime();
+				long eventTick = eventTickNanos;
+				
+				// missed ticks are skipped instead of bunched up.
+				if (eventTick == 0L || now - nextEventUpdate >= 0)
+				{
+					updateEvents();
+					nextEventUpdate = Math.max(nextEventUpdate + eventTick, now);
+				}
+				if (now - nextVoiceUpdate >= 0)
+				{
 					updateVoices();
-				updateEvents();
+					nextVoiceUpdate = Math.max(nextVoiceUpdate + voiceTickNanos, now);
+				}
+				if (now - nextStreamUpdate >= 0)
+				{
+					long streamTick = streamTickNanos;
+					nextStreamUpdate = now + Math.min(streamTick, updateStreams());
+				}
 				
-				flipflop = !flipflop;
+				long nextUpdate = nextVoiceUpdate - nextStreamUpdate < 0 ? nextVoiceUpdate : nextStreamUpdate;
+				if (eventTick != 0L && nextEventUpdate - nextUpdate < 0)
+					nextUpdate = nextEventUpdate;
 				
-				ThreadUtils.sleep(EVENTMILLIS);
+				boolean idle = idleSleep && usedVoices.isEmpty() && processDelay.isEmpty();
+				parked = idle ? PARKED_IDLE : PARKED_TIMED;
+				// check again after flagging - an event published before this is seen here, any after it unparks.
+				if (keepAlive && (eventQueue.isEmpty() || (!idle && eventTick != 0L)))
+				{
+					if (idle)
+					{
+						LockSupport.park(this);
+						// nothing was playing, so nothing is out of date: update everything right away.
+						nextEventUpdate = nextVoiceUpdate = nextStreamUpdate = System.nanoTime();
+					}
+					else
+					{
+						long wait = nextUpdate - System.nanoTime();
+						if (wait > 0)
+							LockSupport.parkNanos(this, wait);
+					}
+				}
+				parked = NOT_PARKED;
 			}
 		}
 		
 		/**
-		 * Stops this thread.
+		 * Wakes this thread for a new event, if it is parked and waiting for one.
+		 */
+		private void wake()
+		{
+			int p = parked;
+			if (p == PARKED_IDLE || (p == PARKED_TIMED && eventTickNanos == 0L))
+				LockSupport.unpark(this);
+		}
+		
+		/**
+		 * Stops this thread and waits for it to finish.
 		 */
 		public void shutdown()
 		{
 			keepAlive = false;
+			LockSupport.unpark(this);
+			if (this != Thread.currentThread())
+			{
+				try {
+					join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
 		}
 		
 	}
@@ -2404,6 +3057,9 @@ public class SoundSystem
 		private float pitch;
 	}
 
+	/**
+	 * A sound event. Events are recycled, not made per call.
+	 */
 	private static class Event
 	{
 		enum Type
@@ -2417,6 +3073,11 @@ public class SoundSystem
 			PRECACHE
 		}
 		
+		/** Queue position that this slot is free or filled for (see {@link EventQueue}). */
+		private volatile long sequence;
+		/** Queue position claimed by the producer filling this slot. */
+		private long position;
+		
 		private Type type;
 		private SoundData sound;
 		private SoundGroupType group; 
@@ -2425,6 +3086,123 @@ public class SoundSystem
 		private Integer channel;
 		private float initGain;
 		private float initPitch;
+		
+		private Event set(Type type, SoundData sound, SoundGroupType group, SoundCategoryType category, SoundLocation location, Integer channel)
+		{
+			this.type = type;
+			this.sound = sound;
+			this.group = group;
+			this.category = category;
+			this.location = location;
+			this.channel = channel;
+			this.initGain = 1f;
+			this.initPitch = 1f;
+			return this;
+		}
+		
+		private Event copy(Event event)
+		{
+			set(event.type, event.sound, event.group, event.category, event.location, event.channel);
+			this.initGain = event.initGain;
+			this.initPitch = event.initPitch;
+			return this;
+		}
+		
+		// Drops references, so that recycled events don't hold on to sounds and locations.
+		private Event clear()
+		{
+			return set(null, null, null, null, null, null);
+		}
+	}
+	
+	/**
+	 * A bounded queue of recycled events for many producers (callers of play, stop, and so on) and 
+	 * one consumer (the processor thread), after Dmitry Vyukov's bounded queue. Each slot's sequence 
+	 * says whether it is free for a producer at a position, or filled for the consumer at that position.
+	 * Producers only contend on one counter, and nothing is allocated or locked.
+	 */
+	private static class EventQueue
+	{
+		private final Event[] slots;
+		private final int mask;
+		/** Next position to claim. */
+		private final AtomicLong tail;
+		/** Next position to read. Consumer only. */
+		private long head;
+		
+		private EventQueue(int capacity)
+		{
+			this.slots = new Event[capacity];
+			this.mask = capacity - 1;
+			this.tail = new AtomicLong(0L);
+			this.head = 0L;
+			for (int i = 0; i < capacity; i++)
+			{
+				slots[i] = new Event();
+				slots[i].sequence = i;
+			}
+		}
+		
+		/**
+		 * Claims a slot to fill. Must be followed by {@link #publish(Event)}.
+		 * @return the slot, or null if the queue is full.
+		 */
+		private Event claim()
+		{
+			while (true)
+			{
+				long pos = tail.get();
+				Event slot = slots[(int)pos & mask];
+				long diff = slot.sequence - pos;
+				if (diff == 0L)
+				{
+					if (tail.compareAndSet(pos, pos + 1))
+					{
+						slot.position = pos;
+						return slot;
+					}
+				}
+				else if (diff < 0L)
+				{
+					return null;
+				}
+			}
+		}
+		
+		/**
+		 * Hands a filled slot to the consumer.
+		 */
+		private void publish(Event slot)
+		{
+			slot.sequence = slot.position + 1;
+		}
+		
+		/**
+		 * @return true if there are no filled slots to read. Consumer only.
+		 */
+		private boolean isEmpty()
+		{
+			return peek() == null;
+		}
+		
+		/**
+		 * @return the next filled slot, or null if there is none. Consumer only.
+		 */
+		private Event peek()
+		{
+			Event slot = slots[(int)head & mask];
+			return slot.sequence == head + 1 ? slot : null;
+		}
+		
+		/**
+		 * Clears a slot from {@link #peek()}, and hands it back to the producers. Consumer only.
+		 */
+		private void release(Event slot)
+		{
+			slot.clear();
+			slot.sequence = head + slots.length;
+			head++;
+		}
 	}
 	
 }